@@ -0,0 +1,116 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.binding;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of a mapper call between the caller and the SqlSession, with a JDK proxy or a generated mapper class.
+ * The session returns constant results, so only the binding layer is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperInvocationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean generated;
+
+    private DefaultSqlSession sqlSession;
+    private AuthorMapper mapper;
+
+    @Setup
+    public void setup() {
+        Configuration configuration = new Configuration();
+        configuration.setUseGeneratedMappers(generated);
+        configuration.addMapper(AuthorMapper.class);
+        sqlSession = new ConstantSqlSession(configuration);
+        mapper = sqlSession.getMapper(AuthorMapper.class);
+    }
+
+    @Benchmark
+    public Object selectOne() {
+        return mapper.selectUsername(101);
+    }
+
+    @Benchmark
+    public Object selectList() {
+        return mapper.selectUsernames("jim", 10);
+    }
+
+    @Benchmark
+    public int insert() {
+        return mapper.insert("jim");
+    }
+
+    @Benchmark
+    public Object getMapper() {
+        return sqlSession.getMapper(AuthorMapper.class);
+    }
+
+    public interface AuthorMapper {
+        @Select("select username from author where id = #{id}")
+        String selectUsername(int id);
+
+        @Select("select username from author where username like #{param1} limit #{param2}")
+        List<String> selectUsernames(String prefix, int limit);
+
+        @Insert("insert into author (username) values (#{username})")
+        int insert(String username);
+    }
+
+    private static class ConstantSqlSession extends DefaultSqlSession {
+        private static final List<Object> RESULT = Collections.<Object>singletonList("jim");
+
+        ConstantSqlSession(Configuration configuration) {
+            super(configuration, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds) {
+            return (List<E>) RESULT;
+        }
+
+        @Override
+        public int update(String statement, Object parameter) {
+            return 1;
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.blog;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * In-memory HSQLDB blog database shared by the benchmarks of a trial, with a pooled data source and a session
+ * factory mapping {@link BlogMapper} and {@link CachedAuthorMapper}.
+ */
+@State(Scope.Benchmark)
+public class BlogDatabase {
+
+    public static final String DRIVER = "org.hsqldb.jdbc.JDBCDriver";
+    public static final String URL = "jdbc:hsqldb:mem:blog";
+
+    public static final int AUTHORS = 1000;
+    public static final int BLOGS = 100;
+    public static final int POSTS_PER_BLOG = 20;
+    public static final int PRODUCTS = 1000;
+
+    private static final String[] SECTIONS = {"NEWS", "VIDEOS", "IMAGES", "PODCASTS"};
+
+    private PooledDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Setup
+    public void setup() throws SQLException, IOException {
+        dataSource = new PooledDataSource(DRIVER, URL, "sa", "");
+        Connection connection = dataSource.getConnection();
+        try {
+            createSchema(connection);
+            insertData(connection);
+        } finally {
+            connection.close();
+        }
+
+        Configuration configuration = new Configuration(new Environment("hsqldb", new JdbcTransactionFactory(), dataSource));
+        configuration.getTypeAliasRegistry().registerAlias(Author.class);
+        configuration.getTypeAliasRegistry().registerAlias(Blog.class);
+        configuration.getTypeAliasRegistry().registerAlias(Post.class);
+        configuration.getTypeAliasRegistry().registerAlias(Product.class);
+        configuration.addMapper(BlogMapper.class);
+        configuration.addMapper(CachedAuthorMapper.class);
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement statement = connection.createStatement();
+            statement.execute("SHUTDOWN");
+            statement.close();
+        } finally {
+            connection.close();
+            dataSource.forceCloseAll();
+        }
+    }
+
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory;
+    }
+
+    public PooledDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public static Post newPost(int blogId, int index) {
+        Post post = new Post();
+        post.setBlogId(blogId);
+        post.setAuthorId(blogId % AUTHORS + 1);
+        post.setCreatedOn(new Timestamp(1500000000000L + index * 60000L));
+        post.setSection(SECTIONS[index % SECTIONS.length]);
+        post.setSubject("Post " + index + " of blog " + blogId);
+        post.setBody("Body of post " + index + ", long enough to look like a paragraph of a real blog post.");
+        return post;
+    }
+
+    private static void createSchema(Connection connection) throws IOException {
+        Reader reader = new InputStreamReader(BlogDatabase.class.getResourceAsStream("blog-schema.sql"), "UTF-8");
+        try {
+            ScriptRunner runner = new ScriptRunner(connection);
+            runner.setAutoCommit(true);
+            runner.setStopOnError(true);
+            runner.setLogWriter(null);
+            runner.runScript(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void insertData(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        PreparedStatement authors = connection.prepareStatement("insert into author values (?, ?, ?, ?, ?, ?)");
+        for (int id = 1; id <= AUTHORS; id++) {
+            authors.setInt(1, id);
+            authors.setString(2, "author" + id);
+            authors.setString(3, "******");
+            authors.setString(4, "author" + id + "@example.org");
+            authors.setString(5, "Biography of author " + id);
+            authors.setString(6, SECTIONS[id % SECTIONS.length]);
+            authors.addBatch();
+        }
+        authors.executeBatch();
+        authors.close();
+
+        PreparedStatement blogs = connection.prepareStatement("insert into blog values (?, ?, ?)");
+        PreparedStatement posts = connection.prepareStatement(
+                "insert into post (blog_id, author_id, created_on, section, subject, body) values (?, ?, ?, ?, ?, ?)");
+        for (int id = 1; id <= BLOGS; id++) {
+            blogs.setInt(1, id);
+            blogs.setInt(2, id % AUTHORS + 1);
+            blogs.setString(3, "Blog " + id);
+            blogs.addBatch();
+            for (int i = 0; i < POSTS_PER_BLOG; i++) {
+                Post post = newPost(id, i);
+                posts.setInt(1, post.getBlogId());
+                posts.setInt(2, post.getAuthorId());
+                posts.setTimestamp(3, (Timestamp) post.getCreatedOn());
+                posts.setString(4, post.getSection());
+                posts.setString(5, post.getSubject());
+                posts.setString(6, post.getBody());
+                posts.addBatch();
+            }
+        }
+        blogs.executeBatch();
+        blogs.close();
+        posts.executeBatch();
+        posts.close();
+
+        PreparedStatement products = connection.prepareStatement(
+                "insert into product values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        Timestamp now = new Timestamp(1500000000000L);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            int column = 1;
+            products.setInt(column++, id);
+            products.setString(column++, "P" + id);
+            products.setString(column++, "Product " + id);
+            products.setString(column++, "Description of product " + id);
+            products.setInt(column++, id % 50);
+            products.setBigDecimal(column++, BigDecimal.valueOf(id * 199L, 2));
+            products.setBigDecimal(column++, BigDecimal.valueOf(id % 30, 2));
+            products.setDouble(column++, id * 0.25);
+            products.setBoolean(column++, id % 7 != 0);
+            products.setTimestamp(column++, now);
+            products.setTimestamp(column++, now);
+            products.setString(column++, "category" + id % 20);
+            products.setString(column++, "brand" + id % 40);
+            products.setString(column++, "color" + id % 10);
+            products.setString(column++, "box");
+            products.setLong(column++, id * 1000L);
+            products.setDouble(column++, id % 5 + 0.5);
+            products.setInt(column++, id % 300);
+            products.setString(column++, "supplier" + id % 25);
+            products.setString(column++, "country" + id % 15);
+            products.setString(column++, "400" + id);
+            products.setString(column++, "SKU-" + id);
+            products.setString(column++, "Notes about product " + id);
+            products.setInt(column, 1);
+            products.addBatch();
+        }
+        products.executeBatch();
+        products.close();
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+}
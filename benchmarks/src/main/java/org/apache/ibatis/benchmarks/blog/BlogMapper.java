@@ -0,0 +1,37 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.blog;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * Statements of the benchmarks, defined in {@code BlogMapper.xml}.
+ */
+public interface BlogMapper {
+
+    Author selectAuthor(int id);
+
+    List<Product> selectProducts(@Param("from") int from, @Param("to") int to);
+
+    Blog selectBlogWithPosts(int id);
+
+    List<Post> findPosts(@Param("blogId") Integer blogId, @Param("subject") String subject, @Param("sections") List<String> sections);
+
+    int insertPost(Post post);
+
+}
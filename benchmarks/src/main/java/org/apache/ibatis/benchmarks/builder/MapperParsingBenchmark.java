@@ -0,0 +1,158 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.builder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.NodeList;
+
+/**
+ * Startup cost of a corpus of generated mapper files: reading the documents, selecting their elements with the
+ * element path fast path of {@link XPathParser} versus javax.xml.xpath, and building a whole configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperParsingBenchmark {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Param({"10", "100"})
+    public int mappers;
+
+    @Param({"20"})
+    public int statements;
+
+    private List<byte[]> corpus;
+    private List<XPathParser> documents;
+
+    @Setup
+    public void setup() {
+        corpus = new ArrayList<byte[]>(mappers);
+        documents = new ArrayList<XPathParser>(mappers);
+        for (int i = 0; i < mappers; i++) {
+            byte[] xml = mapperXml(i).getBytes(UTF8);
+            corpus.add(xml);
+            documents.add(read(xml));
+        }
+    }
+
+    @Benchmark
+    public List<XPathParser> readDocuments() {
+        List<XPathParser> parsers = new ArrayList<XPathParser>(mappers);
+        for (byte[] xml : corpus) {
+            parsers.add(read(xml));
+        }
+        return parsers;
+    }
+
+    @Benchmark
+    public int selectElements() {
+        int count = 0;
+        for (XPathParser parser : documents) {
+            XNode mapper = parser.evalNode("/mapper");
+            count += parser.evalNodes("/mapper/resultMap").size();
+            count += parser.evalNodes("/mapper/sql").size();
+            count += mapper.evalNodes("select|insert|update|delete").size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int selectElementsWithXPath() throws Exception {
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        int count = 0;
+        for (XPathParser parser : documents) {
+            Object document = parser.evalNode("/mapper").getNode().getOwnerDocument();
+            Object mapper = xpath.evaluate("/mapper", document, XPathConstants.NODE);
+            count += ((NodeList) xpath.evaluate("/mapper/resultMap", document, XPathConstants.NODESET)).getLength();
+            count += ((NodeList) xpath.evaluate("/mapper/sql", document, XPathConstants.NODESET)).getLength();
+            count += ((NodeList) xpath.evaluate("select|insert|update|delete", mapper, XPathConstants.NODESET)).getLength();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public Configuration buildConfiguration() {
+        Configuration configuration = new Configuration();
+        for (int i = 0; i < mappers; i++) {
+            String resource = "mapper" + i + ".xml";
+            new XMLMapperBuilder(new ByteArrayInputStream(corpus.get(i)), configuration, resource,
+                    configuration.getSqlFragments()).parse();
+        }
+        return configuration;
+    }
+
+    private XPathParser read(byte[] xml) {
+        return new XPathParser(new ByteArrayInputStream(xml), true, null, new XMLMapperEntityResolver());
+    }
+
+    private String mapperXml(int index) {
+        String namespace = "benchmark.Mapper" + index;
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
+        xml.append("<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n");
+        xml.append("<mapper namespace=\"").append(namespace).append("\">\n");
+        xml.append("  <resultMap id=\"row\" type=\"map\">\n");
+        xml.append("    <id property=\"id\" column=\"id\"/>\n");
+        xml.append("    <result property=\"name\" column=\"name\"/>\n");
+        xml.append("    <result property=\"createdOn\" column=\"created_on\"/>\n");
+        xml.append("  </resultMap>\n");
+        xml.append("  <sql id=\"columns\">id, name, created_on</sql>\n");
+        for (int i = 0; i < statements; i++) {
+            xml.append("  <select id=\"select").append(i).append("\" resultMap=\"row\">\n");
+            xml.append("    select <include refid=\"columns\"/> from table").append(index).append('\n');
+            xml.append("    <where>\n");
+            xml.append("      <if test=\"id != null\">id = #{id}</if>\n");
+            xml.append("      <if test=\"name != null\">and name like #{name}</if>\n");
+            xml.append("    </where>\n");
+            xml.append("  </select>\n");
+            xml.append("  <update id=\"update").append(i).append("\">\n");
+            xml.append("    update table").append(index).append(" set name = #{name} where id = #{id}\n");
+            xml.append("  </update>\n");
+        }
+        xml.append("</mapper>\n");
+        return xml.toString();
+    }
+
+}
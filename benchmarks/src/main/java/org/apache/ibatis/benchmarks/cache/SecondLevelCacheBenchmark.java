@@ -0,0 +1,90 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.benchmarks.blog.BlogDatabase;
+import org.apache.ibatis.benchmarks.blog.BlogMapper;
+import org.apache.ibatis.benchmarks.blog.CachedAuthorMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Author lookups answered by a read only second level cache, each in its own session, against the same lookup
+ * reaching HSQLDB.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    private static final int AUTHORS = 100;
+
+    private int next;
+
+    @Setup
+    public void setup(BlogDatabase database) {
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession();
+        try {
+            CachedAuthorMapper mapper = sqlSession.getMapper(CachedAuthorMapper.class);
+            for (int id = 1; id <= AUTHORS; id++) {
+                mapper.selectAuthor(id);
+            }
+            sqlSession.commit();
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Benchmark
+    public Object cacheHit(BlogDatabase database) {
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession();
+        try {
+            return sqlSession.getMapper(CachedAuthorMapper.class).selectAuthor(nextId());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Benchmark
+    public Object uncached(BlogDatabase database) {
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession();
+        try {
+            return sqlSession.getMapper(BlogMapper.class).selectAuthor(nextId());
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    private int nextId() {
+        next = next % AUTHORS + 1;
+        return next;
+    }
+
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.cache;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
+import org.apache.ibatis.cache.codec.ReflectiveCodec;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the codecs of a read/write cache on a typical cached select result: a list of mapped beans with a
+ * nested association and a few JDK value types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializedCacheBenchmark {
+
+    @Param({"jdk", "reflective"})
+    public String codec;
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private Cache cache;
+    private CacheCodec cacheCodec;
+    private List<Post> result;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        cacheCodec = "jdk".equals(codec) ? new JdkSerializationCodec() : new ReflectiveCodec();
+        cache = new SerializedCache(new PerpetualCache("benchmark"), cacheCodec);
+        Author author = new Author();
+        author.setId(101);
+        author.setUsername("jim");
+        author.setEmail("jim@ibatis.apache.org");
+        author.setBio("Something about jim");
+        result = new ArrayList<Post>();
+        for (int i = 0; i < rows; i++) {
+            Post post = new Post();
+            post.setId(i);
+            post.setAuthor(author);
+            post.setCreatedOn(new Date(1000000L + i));
+            post.setSubject("Subject " + i);
+            post.setBody("A body that is a bit longer than the subject of post number " + i);
+            post.setRating(new BigDecimal("4.5"));
+            post.setDraft(i % 2 == 0);
+            result.add(post);
+        }
+        encoded = cacheCodec.encode(result);
+        cache.putObject("key", result);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return cacheCodec.encode(result);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return cacheCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public Object cacheHit() {
+        return cache.getObject("key");
+    }
+
+    @Benchmark
+    public Object cachePut() {
+        cache.putObject("key", result);
+        return cache;
+    }
+
+    public static class Author implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int id;
+        private String username;
+        private String email;
+        private String bio;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getBio() {
+            return bio;
+        }
+
+        public void setBio(String bio) {
+            this.bio = bio;
+        }
+    }
+
+    public static class Post implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int id;
+        private Author author;
+        private Date createdOn;
+        private String subject;
+        private String body;
+        private BigDecimal rating;
+        private boolean draft;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public Author getAuthor() {
+            return author;
+        }
+
+        public void setAuthor(Author author) {
+            this.author = author;
+        }
+
+        public Date getCreatedOn() {
+            return createdOn;
+        }
+
+        public void setCreatedOn(Date createdOn) {
+            this.createdOn = createdOn;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public void setSubject(String subject) {
+            this.subject = subject;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public void setBody(String body) {
+            this.body = body;
+        }
+
+        public BigDecimal getRating() {
+            return rating;
+        }
+
+        public void setRating(BigDecimal rating) {
+            this.rating = rating;
+        }
+
+        public boolean isDraft() {
+            return draft;
+        }
+
+        public void setDraft(boolean draft) {
+            this.draft = draft;
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.executor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.benchmarks.blog.BlogDatabase;
+import org.apache.ibatis.benchmarks.blog.BlogMapper;
+import org.apache.ibatis.benchmarks.blog.Post;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserts of 100 posts in one session, flushed and rolled back so the table keeps its size. Scores are rows per
+ * second, with the batch executor versus one execution per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    private static final int ROWS = 100;
+
+    @Param({"BATCH", "SIMPLE"})
+    public ExecutorType executorType;
+
+    private Post[] posts;
+
+    @Setup
+    public void setup() {
+        posts = new Post[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            posts[i] = BlogDatabase.newPost(i % BlogDatabase.BLOGS + 1, i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object insert(BlogDatabase database) {
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession(executorType);
+        try {
+            BlogMapper mapper = sqlSession.getMapper(BlogMapper.class);
+            for (Post post : posts) {
+                mapper.insertPost(post);
+            }
+            return sqlSession.flushStatements();
+        } finally {
+            sqlSession.rollback(true);
+            sqlSession.close();
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.executor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.benchmarks.blog.BlogDatabase;
+import org.apache.ibatis.benchmarks.blog.BlogMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapper queries against in-memory HSQLDB, each in its own session: a single row by id, 100 rows of a 24 column
+ * table, and a blog joined to its author and 20 posts through a nested result map.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectBenchmark {
+
+    private static final int WIDE_ROWS = 100;
+
+    private int next;
+
+    @Benchmark
+    public Object selectById(BlogDatabase database) {
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession();
+        try {
+            return sqlSession.getMapper(BlogMapper.class).selectAuthor(nextId(BlogDatabase.AUTHORS));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Benchmark
+    public Object selectWideRows(BlogDatabase database) {
+        int from = nextId(BlogDatabase.PRODUCTS - WIDE_ROWS);
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession();
+        try {
+            return sqlSession.getMapper(BlogMapper.class).selectProducts(from, from + WIDE_ROWS - 1);
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Benchmark
+    public Object selectNestedResultMap(BlogDatabase database) {
+        SqlSession sqlSession = database.getSqlSessionFactory().openSession();
+        try {
+            return sqlSession.getMapper(BlogMapper.class).selectBlogWithPosts(nextId(BlogDatabase.BLOGS));
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    private int nextId(int max) {
+        next = next % max + 1;
+        return next;
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.executor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording the per statement metrics ({@code statementMetricsEnabled}) on a query and on a local cache hit.
+ * The JDBC driver is a stub returning constant rows, so the relative overhead is an upper bound of what a real
+ * database would show.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementMetricsBenchmark {
+
+    private static final String[] COLUMNS = {"id", "username"};
+    private static final int ROWS = 10;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private SqlSessionFactory sqlSessionFactory;
+    private SqlSession cachingSession;
+
+    @Setup
+    public void setup() {
+        Configuration configuration = new Configuration(new Environment("stub", new JdbcTransactionFactory(), stubDataSource()));
+        configuration.setStatementMetricsEnabled(metrics);
+        configuration.addMapper(AuthorMapper.class);
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        cachingSession = sqlSessionFactory.openSession();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cachingSession.close();
+    }
+
+    @Benchmark
+    public Object select() {
+        SqlSession sqlSession = sqlSessionFactory.openSession();
+        try {
+            return sqlSession.getMapper(AuthorMapper.class).selectAuthors(0);
+        } finally {
+            sqlSession.close();
+        }
+    }
+
+    @Benchmark
+    public Object selectLocalCacheHit() {
+        return cachingSession.getMapper(AuthorMapper.class).selectAuthors(0);
+    }
+
+    public interface AuthorMapper {
+        @Select("select id, username from author where id > #{id}")
+        List<Author> selectAuthors(int id);
+    }
+
+    public static class Author {
+        private int id;
+        private String username;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+    }
+
+    private static DataSource stubDataSource() {
+        return stub(DataSource.class, (proxy, method, args) ->
+                "getConnection".equals(method.getName()) ? stubConnection() : defaultValue(method));
+    }
+
+    private static Connection stubConnection() {
+        return stub(Connection.class, (proxy, method, args) ->
+                "prepareStatement".equals(method.getName()) ? stubStatement() : defaultValue(method));
+    }
+
+    private static PreparedStatement stubStatement() {
+        ResultSet resultSet = stubResultSet();
+        return stub(PreparedStatement.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "execute":
+                    return true;
+                case "getResultSet":
+                    return resultSet;
+                case "getUpdateCount":
+                    return -1;
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    private static ResultSet stubResultSet() {
+        ResultSetMetaData metaData = stub(ResultSetMetaData.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return COLUMNS.length;
+                case "getColumnLabel":
+                case "getColumnName":
+                    return COLUMNS[(Integer) args[0] - 1];
+                case "getColumnType":
+                    return (Integer) args[0] == 1 ? Types.INTEGER : Types.VARCHAR;
+                case "getColumnClassName":
+                    return (Integer) args[0] == 1 ? Integer.class.getName() : String.class.getName();
+                default:
+                    return defaultValue(method);
+            }
+        });
+        int[] row = {0};
+        return stub(ResultSet.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getMetaData":
+                    return metaData;
+                case "next":
+                    return ++row[0] <= ROWS;
+                case "getInt":
+                    return row[0];
+                case "getString":
+                    return "user" + row[0];
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementMetricsBenchmark.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.scripting;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.benchmarks.blog.BlogDatabase;
+import org.apache.ibatis.benchmarks.blog.BlogMapper;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of the {@code <where>}, {@code <if>} and {@code <foreach>} statement of {@link BlogMapper#findPosts}
+ * to a {@code BoundSql}, without executing it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicSqlBenchmark {
+
+    private MappedStatement findPosts;
+    private Map<String, Object> noCriteria;
+    private Map<String, Object> allCriteria;
+
+    @Setup
+    public void setup(BlogDatabase database) {
+        findPosts = database.getSqlSessionFactory().getConfiguration()
+                .getMappedStatement(BlogMapper.class.getName() + ".findPosts");
+        noCriteria = criteria(null, null, null);
+        allCriteria = criteria(7, "Post%", new String[] {"NEWS", "VIDEOS", "IMAGES"});
+    }
+
+    @Benchmark
+    public Object renderNoCriteria() {
+        return findPosts.getBoundSql(noCriteria);
+    }
+
+    @Benchmark
+    public Object renderAllCriteria() {
+        return findPosts.getBoundSql(allCriteria);
+    }
+
+    private static Map<String, Object> criteria(Integer blogId, String subject, String[] sections) {
+        Map<String, Object> criteria = new HashMap<String, Object>();
+        criteria.put("blogId", blogId);
+        criteria.put("subject", subject);
+        criteria.put("sections", sections == null ? null : Arrays.asList(sections));
+        return criteria;
+    }
+
+}
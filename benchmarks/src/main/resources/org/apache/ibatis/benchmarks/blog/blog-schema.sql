@@ -0,0 +1,69 @@
+--
+--    Copyright ${license.git.copyrightYears} the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+CREATE TABLE author (
+  id INT NOT NULL PRIMARY KEY,
+  username VARCHAR(64) NOT NULL,
+  password VARCHAR(64) NOT NULL,
+  email VARCHAR(128) NOT NULL,
+  bio VARCHAR(512),
+  favourite_section VARCHAR(16)
+);
+
+CREATE TABLE blog (
+  id INT NOT NULL PRIMARY KEY,
+  author_id INT NOT NULL,
+  title VARCHAR(128)
+);
+
+CREATE TABLE post (
+  id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  blog_id INT NOT NULL,
+  author_id INT NOT NULL,
+  created_on TIMESTAMP NOT NULL,
+  section VARCHAR(16) NOT NULL,
+  subject VARCHAR(128) NOT NULL,
+  body VARCHAR(2048) NOT NULL
+);
+
+CREATE INDEX post_blog ON post (blog_id);
+
+CREATE TABLE product (
+  id INT NOT NULL PRIMARY KEY,
+  code VARCHAR(16),
+  name VARCHAR(64),
+  description VARCHAR(256),
+  quantity INT,
+  price DECIMAL(12,2),
+  discount DECIMAL(5,2),
+  weight DOUBLE,
+  active BOOLEAN,
+  created TIMESTAMP,
+  updated TIMESTAMP,
+  category VARCHAR(32),
+  brand VARCHAR(32),
+  color VARCHAR(16),
+  packaging VARCHAR(16),
+  stock BIGINT,
+  rating DOUBLE,
+  reviews INT,
+  supplier VARCHAR(64),
+  country VARCHAR(32),
+  barcode VARCHAR(32),
+  sku VARCHAR(32),
+  notes VARCHAR(256),
+  version INT
+);
@@ -21,6 +21,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 
@@ -44,6 +46,26 @@ public @interface CacheNamespace {
 
     boolean blocking() default false;
 
+    /**
+     * Codec used to copy values of a read/write cache.
+     * @since 3.4.3
+     */
+    Class<? extends CacheCodec> codec() default JdkSerializationCodec.class;
+
+    /**
+     * Time in milliseconds each entry stays in the cache. 0 means entries do not expire on their own.
+     * Only applies to the default {@code PerpetualCache} implementation, other implementations ignore it.
+     * @since 3.4.3
+     */
+    long timeToLive() default 0;
+
+    /**
+     * Fraction of the time to live after which the next reader refreshes an entry. 0 disables refresh-ahead.
+     * Only applies to the default {@code PerpetualCache} implementation, other implementations ignore it.
+     * @since 3.4.3
+     */
+    double refreshAhead() default 0;
+
     /**
      * Property values for a implementation object.
      * @since 3.4.2
@@ -63,4 +63,10 @@ public @interface Options {
     String keyColumn() default "";
 
     String resultSets() default "";
+
+    /**
+     * Comma separated tables the statement reads or writes. Derived from the SQL when empty.
+     * @since 3.4.3
+     */
+    String tables() default "";
 }
@@ -0,0 +1,169 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * Generates a class implementing a mapper interface whose methods call {@link MapperMethodTable#execute} with a
+ * constant index, instead of going through {@link java.lang.reflect.Proxy} and the method cache.
+ *
+ * @since 3.4.3
+ */
+final class MapperClassGenerator {
+
+    private static final String SUFFIX = "$$GeneratedMapper";
+
+    private final Class<?> mapperInterface;
+    private final List<Method> methods = new ArrayList<Method>();
+
+    MapperClassGenerator(Class<?> mapperInterface) {
+        this.mapperInterface = mapperInterface;
+    }
+
+    /**
+     * @return whether the interface can be implemented by a class of another class loader
+     */
+    boolean isSupported() {
+        if (!isPublic(mapperInterface)) {
+            return false;
+        }
+        Map<String, Method> signatures = new HashMap<String, Method>();
+        for (Method method : mapperInterface.getMethods()) {
+            // default 方法和静态方法不需要实现
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+            String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+            Method declared = signatures.get(signature);
+            if (declared != null) {
+                // 协变返回类型需要桥接方法，交给代理处理
+                if (!declared.getReturnType().equals(method.getReturnType())) {
+                    return false;
+                }
+                continue;
+            }
+            if (!isPublic(method.getReturnType())) {
+                return false;
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (!isPublic(parameterType)) {
+                    return false;
+                }
+            }
+            signatures.put(signature, method);
+            methods.add(method);
+        }
+        return true;
+    }
+
+    private static boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!current.isPrimitive() && !Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Method[] getMethods() {
+        return methods.toArray(new Method[methods.size()]);
+    }
+
+    /**
+     * @return the {@code (SqlSession, MapperMethodTable)} constructor of the generated class
+     */
+    @SuppressWarnings("unchecked")
+    <T> Constructor<T> generate() throws Exception {
+        ClassPool pool = new ClassPool(false);
+        pool.appendClassPath(new LoaderClassPath(mapperInterface.getClassLoader()));
+        pool.appendClassPath(new LoaderClassPath(MapperClassGenerator.class.getClassLoader()));
+
+        String className = mapperInterface.getName() + SUFFIX;
+        CtClass ctClass = pool.makeClass(className);
+        ctClass.setModifiers(javassist.Modifier.PUBLIC | javassist.Modifier.FINAL);
+        ctClass.addInterface(pool.get(mapperInterface.getName()));
+        ctClass.addField(CtField.make("private final " + SqlSession.class.getName() + " sqlSession;", ctClass));
+        ctClass.addField(CtField.make("private final " + MapperMethodTable.class.getName() + " methods;", ctClass));
+        ctClass.addConstructor(CtNewConstructor.make("public " + ctClass.getSimpleName() + "("
+                + SqlSession.class.getName() + " sqlSession, " + MapperMethodTable.class.getName() + " methods) {"
+                + " this.sqlSession = sqlSession; this.methods = methods; }", ctClass));
+
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            CtClass[] ctParameterTypes = new CtClass[parameterTypes.length];
+            for (int j = 0; j < parameterTypes.length; j++) {
+                ctParameterTypes[j] = pool.get(typeName(parameterTypes[j]));
+            }
+            // ($r) 按返回类型转换结果，基本类型会自动拆箱，void 方法忽略结果
+            String body = "{ return ($r) this.methods.execute(" + i + ", this.sqlSession, $args); }";
+            ctClass.addMethod(CtNewMethod.make(javassist.Modifier.PUBLIC, pool.get(typeName(method.getReturnType())),
+                    method.getName(), ctParameterTypes, null, body, ctClass));
+        }
+
+        byte[] bytecode = ctClass.toBytecode();
+        ctClass.detach();
+        Class<?> type = new GeneratedMapperClassLoader(mapperInterface.getClassLoader()).define(className, bytecode);
+        return (Constructor<T>) type.getConstructor(SqlSession.class, MapperMethodTable.class);
+    }
+
+    private static String typeName(Class<?> type) {
+        // javassist 使用 String[] 形式的数组类型名
+        return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    /**
+     * Defines a generated class next to the mapper interface, and resolves the MyBatis classes it uses from the class
+     * loader of MyBatis if the mapper class loader can not see them.
+     */
+    private static final class GeneratedMapperClassLoader extends ClassLoader {
+
+        GeneratedMapperClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            return MapperClassGenerator.class.getClassLoader().loadClass(name);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length, MapperClassGenerator.class.getProtectionDomain());
+        }
+    }
+
+}
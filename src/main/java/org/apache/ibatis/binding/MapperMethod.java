@@ -28,6 +28,7 @@ import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 
+import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -192,16 +193,158 @@ public class MapperMethod {
         return result;
     }
 
-    public static class ParamMap<V> extends HashMap<String, V> {
+    /**
+     * The parameter object of a mapper method with several parameters. The entries of the method parameters are
+     * resolved through the {@link ParamKeys} of the method and read from the argument array, so no entry is copied
+     * until the map is modified or iterated.
+     */
+    public static class ParamMap<V> extends AbstractMap<String, V> implements Serializable {
 
         private static final long serialVersionUID = -2212268410512043556L;
 
+        private ParamKeys keys;
+        private Object[] args;
+        private HashMap<String, V> entries;
+
+        public ParamMap() {
+            this.entries = new HashMap<String, V>();
+        }
+
+        /**
+         * @param keys the names of the method parameters
+         * @param args the arguments of the call, not copied
+         * @since 3.4.3
+         */
+        public ParamMap(ParamKeys keys, Object[] args) {
+            this.keys = keys;
+            this.args = args;
+        }
+
+        @SuppressWarnings("unchecked")
         @Override
         public V get(Object key) {
-            if (!super.containsKey(key)) {
+            if (keys != null) {
+                int argIndex = keys.argIndexOf(key);
+                if (argIndex >= 0) {
+                    return (V) args[argIndex];
+                }
+            }
+            if (entries == null || !entries.containsKey(key)) {
                 throw new BindingException("Parameter '" + key + "' not found. Available parameters are " + keySet());
             }
-            return super.get(key);
+            return entries.get(key);
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue) {
+            return containsKey(key) ? get(key) : defaultValue;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (keys != null && keys.argIndexOf(key) >= 0) || (entries != null && entries.containsKey(key));
+        }
+
+        @Override
+        public int size() {
+            return (keys == null ? 0 : keys.size()) + (entries == null ? 0 : entries.size());
+        }
+
+        @Override
+        public V put(String key, V value) {
+            if (keys != null && keys.argIndexOf(key) >= 0) {
+                // 修改方法参数对应的条目时先复制出全部条目，之后与 HashMap 行为一致
+                inflate();
+            } else if (entries == null) {
+                entries = new HashMap<String, V>();
+            }
+            return entries.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            inflate();
+            return entries.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            keys = null;
+            args = null;
+            entries = new HashMap<String, V>();
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            inflate();
+            return entries.entrySet();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void inflate() {
+            if (keys != null) {
+                HashMap<String, V> all = new HashMap<String, V>();
+                for (int i = 0; i < keys.size(); i++) {
+                    all.put(keys.getName(i), (V) args[keys.getArgIndex(i)]);
+                }
+                if (entries != null) {
+                    all.putAll(entries);
+                }
+                entries = all;
+                keys = null;
+                args = null;
+            }
+        }
+
+    }
+
+    /**
+     * The keys of the {@link ParamMap} of a mapper method and the index of the argument each one refers to. Computed
+     * once per method by {@link ParamNameResolver}.
+     *
+     * @since 3.4.3
+     */
+    public static final class ParamKeys implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] names;
+        private final int[] argIndexes;
+        private final HashMap<String, Integer> positions = new HashMap<String, Integer>();
+
+        /**
+         * @param keys the keys in map order, and the index of the argument each one refers to
+         */
+        public ParamKeys(LinkedHashMap<String, Integer> keys) {
+            this.names = new String[keys.size()];
+            this.argIndexes = new int[keys.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : keys.entrySet()) {
+                names[i] = entry.getKey();
+                argIndexes[i] = entry.getValue();
+                positions.put(entry.getKey(), i);
+                i++;
+            }
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public String getName(int position) {
+            return names[position];
+        }
+
+        public int getArgIndex(int position) {
+            return argIndexes[position];
+        }
+
+        /**
+         * @return the index of the argument the key refers to, or -1
+         */
+        public int argIndexOf(Object key) {
+            Integer position = positions.get(key);
+            return position == null ? -1 : argIndexes[position];
         }
 
     }
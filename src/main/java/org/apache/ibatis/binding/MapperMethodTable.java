@@ -0,0 +1,58 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * The mapper methods of a generated mapper class, addressed by the index compiled into each generated method. A
+ * table is shared by all instances of the mapper and by the proxies of the same {@link MapperProxyFactory}.
+ *
+ * @since 3.4.3
+ */
+public final class MapperMethodTable {
+
+    private final Class<?> mapperInterface;
+    private final Method[] methods;
+    private final MapperMethod[] mapperMethods;
+    private final Map<Method, MapperMethod> methodCache;
+
+    MapperMethodTable(Class<?> mapperInterface, Method[] methods, Map<Method, MapperMethod> methodCache) {
+        this.mapperInterface = mapperInterface;
+        this.methods = methods;
+        this.mapperMethods = new MapperMethod[methods.length];
+        this.methodCache = methodCache;
+    }
+
+    public Object execute(int index, SqlSession sqlSession, Object[] args) {
+        // MapperMethod 不可变，并发时重复创建也没有影响
+        MapperMethod mapperMethod = mapperMethods[index];
+        if (mapperMethod == null) {
+            Method method = methods[index];
+            mapperMethod = methodCache.get(method);
+            if (mapperMethod == null) {
+                mapperMethod = new MapperMethod(mapperInterface, method, sqlSession.getConfiguration());
+                methodCache.put(method, mapperMethod);
+            }
+            mapperMethods[index] = mapperMethod;
+        }
+        return mapperMethod.execute(sqlSession, args);
+    }
+
+}
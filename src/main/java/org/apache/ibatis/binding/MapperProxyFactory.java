@@ -15,11 +15,16 @@
  */
 package org.apache.ibatis.binding;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 /**
@@ -27,8 +32,15 @@ import org.apache.ibatis.session.SqlSession;
  */
 public class MapperProxyFactory<T> {
 
+    private static final Log log = LogFactory.getLog(MapperProxyFactory.class);
+
     private final Class<T> mapperInterface;
     private final Map<Method, MapperMethod> methodCache = new ConcurrentHashMap<Method, MapperMethod>();
+    // 生成的 Mapper 实现类，生成失败时为 null 并回退到 JDK 动态代理
+    private Constructor<T> generatedConstructor;
+    private MapperMethodTable generatedMethods;
+    // 在上面两个字段赋值之后写入，读到 true 即可无锁地读取它们
+    private volatile boolean generationAttempted;
 
     public MapperProxyFactory(Class<T> mapperInterface) {
         this.mapperInterface = mapperInterface;
@@ -48,8 +60,47 @@ public class MapperProxyFactory<T> {
     }
 
     public T newInstance(SqlSession sqlSession) {
+        Configuration configuration = sqlSession.getConfiguration();
+        if (configuration != null && configuration.isUseGeneratedMappers()) {
+            Constructor<T> constructor = generatedConstructor();
+            if (constructor != null) {
+                try {
+                    return constructor.newInstance(sqlSession, generatedMethods);
+                } catch (Exception e) {
+                    throw new BindingException("Error creating generated mapper for " + mapperInterface.getName()
+                            + ". Cause: " + ExceptionUtil.unwrapThrowable(e), e);
+                }
+            }
+        }
         final MapperProxy<T> mapperProxy = new MapperProxy<T>(sqlSession, mapperInterface, methodCache);
         return newInstance(mapperProxy);
     }
 
+    private Constructor<T> generatedConstructor() {
+        if (!generationAttempted) {
+            synchronized (this) {
+                if (!generationAttempted) {
+                    generate();
+                    generationAttempted = true;
+                }
+            }
+        }
+        return generatedConstructor;
+    }
+
+    private void generate() {
+        try {
+            MapperClassGenerator generator = new MapperClassGenerator(mapperInterface);
+            if (generator.isSupported()) {
+                generatedMethods = new MapperMethodTable(mapperInterface, generator.getMethods(), methodCache);
+                generatedConstructor = generator.generate();
+            } else if (log.isDebugEnabled()) {
+                log.debug("Mapper " + mapperInterface.getName() + " can not be generated, using a proxy instead.");
+            }
+        } catch (Throwable t) {
+            // 例如 javassist 不在类路径上
+            log.warn("Could not generate mapper " + mapperInterface.getName() + ", using a proxy instead. Cause: " + t);
+        }
+    }
+
 }
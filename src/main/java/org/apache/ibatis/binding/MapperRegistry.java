@@ -16,15 +16,16 @@
 package org.apache.ibatis.binding;
 
 import org.apache.ibatis.builder.annotation.MapperAnnotationBuilder;
+import org.apache.ibatis.io.ClassFileHeader;
 import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Clinton Begin
@@ -34,7 +35,7 @@ import java.util.Set;
 public class MapperRegistry {
 
     private final Configuration config;
-    private final Map<Class<?>, MapperProxyFactory<?>> knownMappers = new HashMap<Class<?>, MapperProxyFactory<?>>();
+    private final Map<Class<?>, MapperProxyFactory<?>> knownMappers = new ConcurrentHashMap<Class<?>, MapperProxyFactory<?>>();
 
     public MapperRegistry(Configuration config) {
         this.config = config;
@@ -96,7 +97,13 @@ public class MapperRegistry {
      */
     public void addMappers(String packageName, Class<?> superType) {
         ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<Class<?>>();
-        resolverUtil.find(new ResolverUtil.IsA(superType), packageName);
+        // 只有接口会注册为 Mapper，其余的类无需加载
+        resolverUtil.find(new ResolverUtil.IsA(superType) {
+            @Override
+            public boolean mayMatch(ClassFileHeader header) {
+                return header.isInterface() && super.mayMatch(header);
+            }
+        }, packageName);
         Set<Class<? extends Class<?>>> mapperSet = resolverUtil.getClasses();
         for (Class<?> mapperClass : mapperSet) {
             addMapper(mapperClass);
@@ -15,17 +15,21 @@
  */
 package org.apache.ibatis.builder;
 
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.codec.CacheCodec;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.executor.ErrorContext;
@@ -59,6 +63,8 @@ public class MapperBuilderAssistant extends BaseBuilder {
     private String resource;
     private Cache currentCache;
     private boolean unresolvedCacheRef; // issue #676
+    private byte[] mapperSource;
+    private String mapperChecksum;
 
     public MapperBuilderAssistant(Configuration configuration, String resource) {
         super(configuration);
@@ -66,6 +72,41 @@ public class MapperBuilderAssistant extends BaseBuilder {
         this.resource = resource;
     }
 
+    /**
+     * 记录映射文件(或 Mapper 接口)的内容，声明了 mapperChecksum 属性的缓存实现以其校验和判断持久化的数据是否过期
+     */
+    public void setMapperSource(byte[] source) {
+        this.mapperSource = source;
+        this.mapperChecksum = null;
+    }
+
+    public void setMapperSource(String source) {
+        try {
+            setMapperSource(source.getBytes("UTF-8"));
+        } catch (Exception e) {
+            throw new BuilderException("Error reading mapper source. Cause: " + e, e);
+        }
+    }
+
+    /**
+     * @return SHA-1 of the mapper source, null if no source was set
+     */
+    public String getMapperChecksum() {
+        if (mapperChecksum == null && mapperSource != null) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-1").digest(mapperSource);
+                StringBuilder sb = new StringBuilder(hash.length * 2);
+                for (byte b : hash) {
+                    sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                mapperChecksum = sb.toString();
+            } catch (Exception e) {
+                throw new BuilderException("Error computing mapper checksum. Cause: " + e, e);
+            }
+        }
+        return mapperChecksum;
+    }
+
     public String getCurrentNamespace() {
         return currentNamespace;
     }
@@ -143,6 +184,40 @@ public class MapperBuilderAssistant extends BaseBuilder {
                              boolean readWrite,
                              boolean blocking,
                              Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, null, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Integer size,
+                             boolean readWrite,
+                             boolean blocking,
+                             Class<? extends CacheCodec> codecClass,
+                             Properties props) {
+        return useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, codecClass, null, null, props);
+    }
+
+    public Cache useNewCache(Class<? extends Cache> typeClass,
+                             Class<? extends Cache> evictionClass,
+                             Long flushInterval,
+                             Integer size,
+                             boolean readWrite,
+                             boolean blocking,
+                             Class<? extends CacheCodec> codecClass,
+                             Long timeToLive,
+                             Double refreshAhead,
+                             Properties props) {
+        if (mapperSource != null && (props == null || !props.containsKey("mapperChecksum"))
+                && MetaClass.forClass(valueOrDefault(typeClass, PerpetualCache.class), configuration.getReflectorFactory()).hasSetter("mapperChecksum")) {
+            // 只为声明了 mapperChecksum 属性的(持久化)缓存实现计算校验和
+            Properties merged = new Properties();
+            if (props != null) {
+                merged.putAll(props);
+            }
+            merged.setProperty("mapperChecksum", getMapperChecksum());
+            props = merged;
+        }
         // 创建 Cache 对象，这里使用了建造者模式， CacheBuilder 是建造者的角色 ，而 Cache 是生成的产品
         Cache cache = new CacheBuilder(currentNamespace)
                 .implementation(valueOrDefault(typeClass, PerpetualCache.class))
@@ -151,6 +226,9 @@ public class MapperBuilderAssistant extends BaseBuilder {
                 .size(size)
                 .readWrite(readWrite)
                 .blocking(blocking)
+                .codec(codecClass)
+                .timeToLive(timeToLive)
+                .refreshAhead(refreshAhead)
                 .properties(props)
                 .build();
         configuration.addCache(cache);
@@ -295,6 +373,35 @@ public class MapperBuilderAssistant extends BaseBuilder {
             String databaseId,
             LanguageDriver lang,
             String resultSets) {
+        return addMappedStatement(
+                id, sqlSource, statementType, sqlCommandType, fetchSize, timeout,
+                parameterMap, parameterType, resultMap, resultType, resultSetType,
+                flushCache, useCache, resultOrdered, keyGenerator, keyProperty,
+                keyColumn, databaseId, lang, resultSets, null);
+    }
+
+    public MappedStatement addMappedStatement(
+            String id,
+            SqlSource sqlSource,
+            StatementType statementType,
+            SqlCommandType sqlCommandType,
+            Integer fetchSize,
+            Integer timeout,
+            String parameterMap,
+            Class<?> parameterType,
+            String resultMap,
+            Class<?> resultType,
+            ResultSetType resultSetType,
+            boolean flushCache,
+            boolean useCache,
+            boolean resultOrdered,
+            KeyGenerator keyGenerator,
+            String keyProperty,
+            String keyColumn,
+            String databaseId,
+            LanguageDriver lang,
+            String resultSets,
+            Set<String> tables) {
 
         if (unresolvedCacheRef) {
             throw new IncompleteElementException("Cache-ref not yet resolved");
@@ -319,6 +426,7 @@ public class MapperBuilderAssistant extends BaseBuilder {
                 .resultSetType(resultSetType)
                 .flushCacheRequired(valueOrDefault(flushCache, !isSelect))
                 .useCache(valueOrDefault(useCache, isSelect))
+                .tables(tables)
                 .cache(currentCache);
 
         ParameterMap statementParameterMap = getStatementParameterMap(parameterMap, parameterType, id);
@@ -331,6 +439,26 @@ public class MapperBuilderAssistant extends BaseBuilder {
         return statement;
     }
 
+    /**
+     * 解析语句读写的数据表：优先使用声明的 tables 属性(逗号分隔)，否则从 SQL 文本中提取
+     *
+     * @param declared tables 属性的值，可以为 null
+     * @param sql 语句的 SQL 文本，动态 SQL 为其所有分支的文本
+     * @return 小写的表名集合，为空表示未知
+     */
+    public Set<String> resolveTables(String declared, String sql) {
+        if (declared != null && declared.trim().length() > 0) {
+            Set<String> tables = new LinkedHashSet<String>();
+            for (String table : declared.split(",")) {
+                if (table.trim().length() > 0) {
+                    tables.add(table.trim().toLowerCase(Locale.ENGLISH));
+                }
+            }
+            return tables;
+        }
+        return SqlTableExtractor.extractTables(sql);
+    }
+
     private <T> T valueOrDefault(T value, T defaultValue) {
         return value == null ? defaultValue : value;
     }
@@ -0,0 +1,168 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Derives the tables a statement reads or writes from its SQL text.
+ *
+ * The scan is lexical: table names are taken after {@code FROM}, {@code JOIN}, {@code UPDATE}, {@code INTO},
+ * {@code USING} and {@code TABLE}, including comma separated {@code FROM} lists. Comments, string literals and
+ * parameter placeholders are skipped. Dynamic SQL is scanned with the text of all its branches, so the result may
+ * include more tables than a given execution touches, which is safe for cache invalidation.
+ *
+ * An empty set means the tables could not be determined, e.g. a table name given by a {@code ${}} substitution.
+ *
+ * @since 3.4.3
+ */
+public final class SqlTableExtractor {
+
+    private static final Set<String> TABLE_KEYWORDS = new HashSet<String>();
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<String>();
+
+    static {
+        Collections.addAll(TABLE_KEYWORDS, "from", "join", "update", "into", "using", "table");
+        Collections.addAll(CLAUSE_KEYWORDS, "where", "join", "inner", "left", "right", "full", "outer", "cross",
+                "natural", "on", "using", "group", "order", "having", "limit", "offset", "union", "intersect",
+                "except", "minus", "set", "values", "select", "for", "fetch", "window", "start", "connect", "as",
+                "returning", "when", "then", "straight_join", "lateral", "of", "nowait", "skip", "wait");
+    }
+
+    private static final String UNKNOWN = "${";
+
+    private SqlTableExtractor() {
+        // Prevent Instantiation of Static Class
+    }
+
+    /**
+     * @param sql statement text, may contain placeholders and the text of dynamic SQL branches
+     * @return lower case unqualified table names, or an empty set if they cannot be determined
+     */
+    public static Set<String> extractTables(String sql) {
+        if (sql == null) {
+            return Collections.emptySet();
+        }
+        List<String> tokens = tokenize(sql);
+        Set<String> tables = new LinkedHashSet<String>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String keyword = tokens.get(i);
+            if (!TABLE_KEYWORDS.contains(keyword)) {
+                continue;
+            }
+            int next = i + 1;
+            while (next < tokens.size()) {
+                String name = tokens.get(next);
+                if (UNKNOWN.equals(name)) {
+                    return Collections.emptySet();
+                }
+                if (!isIdentifier(name) || CLAUSE_KEYWORDS.contains(name)) {
+                    // sub query, derived table or no table at all
+                    break;
+                }
+                tables.add(unqualified(name));
+                if (!"from".equals(keyword)) {
+                    break;
+                }
+                // FROM a x, b AS y
+                next++;
+                if (next < tokens.size() && "as".equals(tokens.get(next))) {
+                    next++;
+                }
+                if (next < tokens.size() && isIdentifier(tokens.get(next)) && !CLAUSE_KEYWORDS.contains(tokens.get(next))) {
+                    next++;
+                }
+                if (next < tokens.size() && ",".equals(tokens.get(next))) {
+                    next++;
+                } else {
+                    break;
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<String>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = skipTo(sql, i + 2, "\n");
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = skipTo(sql, i + 2, "*/");
+            } else if (c == '\'') {
+                i = skipTo(sql, i + 1, "'");
+            } else if ((c == '#' || c == '$') && i + 1 < length && sql.charAt(i + 1) == '{') {
+                int end = skipTo(sql, i + 2, "}");
+                tokens.add(c == '$' ? UNKNOWN : "?");
+                i = end;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '"' || c == '`' || c == '[') {
+                StringBuilder name = new StringBuilder();
+                boolean substituted = false;
+                while (i < length) {
+                    c = sql.charAt(i);
+                    if (c == '"' || c == '`' || c == '[') {
+                        char close = c == '[' ? ']' : c;
+                        int end = sql.indexOf(close, i + 1);
+                        end = end < 0 ? length : end;
+                        name.append(sql, i + 1, end);
+                        i = Math.min(end + 1, length);
+                    } else if (c == '$' && i + 1 < length && sql.charAt(i + 1) == '{') {
+                        // table name built by substitution, e.g. log_${month}
+                        substituted = true;
+                        i = skipTo(sql, i + 2, "}");
+                    } else if (Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$' || c == '#' || c == '@') {
+                        name.append(c);
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(substituted ? UNKNOWN : name.toString().toLowerCase(Locale.ENGLISH));
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static int skipTo(String sql, int from, String end) {
+        int index = sql.indexOf(end, from);
+        return index < 0 ? sql.length() : index + end.length();
+    }
+
+    private static boolean isIdentifier(String token) {
+        return token.length() > 0 && !UNKNOWN.equals(token)
+                && (Character.isLetter(token.charAt(0)) || token.charAt(0) == '_');
+    }
+
+    private static String unqualified(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(dot + 1);
+    }
+
+}
@@ -24,7 +24,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -178,13 +180,33 @@ public class MapperAnnotationBuilder {
     private void parseCache() {
         CacheNamespace cacheDomain = type.getAnnotation(CacheNamespace.class);
         if (cacheDomain != null) {
+            assistant.setMapperSource(mapperSource());
             Integer size = cacheDomain.size() == 0 ? null : cacheDomain.size();
             Long flushInterval = cacheDomain.flushInterval() == 0 ? null : cacheDomain.flushInterval();
+            Long timeToLive = cacheDomain.timeToLive() == 0 ? null : cacheDomain.timeToLive();
+            Double refreshAhead = cacheDomain.refreshAhead() == 0 ? null : cacheDomain.refreshAhead();
             Properties props = convertToProperties(cacheDomain.properties());
-            assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), props);
+            assistant.useNewCache(cacheDomain.implementation(), cacheDomain.eviction(), flushInterval, size, cacheDomain.readWrite(), cacheDomain.blocking(), cacheDomain.codec(), timeToLive, refreshAhead, props);
         }
     }
 
+    /**
+     * 由类型上的注解以及各方法签名、注解拼成的文本，用于计算 Mapper 接口的校验和
+     */
+    private String mapperSource() {
+        List<String> methods = new ArrayList<String>();
+        for (Method method : type.getMethods()) {
+            methods.add(method.toGenericString() + Arrays.toString(method.getAnnotations()));
+        }
+        Collections.sort(methods);
+        StringBuilder source = new StringBuilder(type.getName());
+        source.append(Arrays.toString(type.getAnnotations()));
+        for (String method : methods) {
+            source.append('\n').append(method);
+        }
+        return source.toString();
+    }
+
     private Properties convertToProperties(Property[] properties) {
         if (properties.length == 0) {
             return null;
@@ -372,7 +394,8 @@ public class MapperAnnotationBuilder {
                     null,
                     languageDriver,
                     // ResultSets
-                    options != null ? nullOrEmpty(options.resultSets()) : null);
+                    options != null ? nullOrEmpty(options.resultSets()) : null,
+                    assistant.resolveTables(options != null ? options.tables() : null, getSqlText(method)));
         }
     }
 
@@ -473,6 +496,27 @@ public class MapperAnnotationBuilder {
         }
     }
 
+    /**
+     * 获取 SQL 注解中的语句文本，SqlProvider 方式返回 null
+     */
+    private String getSqlText(Method method) {
+        Class<? extends Annotation> sqlAnnotationType = getSqlAnnotationType(method);
+        if (sqlAnnotationType == null) {
+            return null;
+        }
+        try {
+            Annotation sqlAnnotation = method.getAnnotation(sqlAnnotationType);
+            final String[] strings = (String[]) sqlAnnotation.getClass().getMethod("value").invoke(sqlAnnotation);
+            StringBuilder sql = new StringBuilder();
+            for (String fragment : strings) {
+                sql.append(fragment).append(' ');
+            }
+            return sql.toString();
+        } catch (Exception e) {
+            throw new BuilderException("Could not find value method on SQL annotation.  Cause: " + e, e);
+        }
+    }
+
     private SqlSource buildSqlSourceFromStrings(String[] strings, Class<?> parameterTypeClass, LanguageDriver languageDriver) {
         final StringBuilder sql = new StringBuilder();
         for (String fragment : strings) {
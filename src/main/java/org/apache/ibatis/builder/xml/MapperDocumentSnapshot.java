@@ -0,0 +1,363 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.parsing.XPathParser;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+/**
+ * Binary snapshot of parsed and validated mapper documents, keyed by location and by a checksum of the mapper file.
+ * A mapper whose content did not change since the snapshot was written is rebuilt from it without XML parsing and
+ * DTD validation; any other mapper is parsed as usual and recorded for the next start.
+ *
+ * @since 3.4.3
+ */
+public class MapperDocumentSnapshot {
+
+    private static final Log log = LogFactory.getLog(MapperDocumentSnapshot.class);
+
+    private static final int MAGIC = 0x4D425344;
+    private static final int VERSION = 1;
+
+    private static final byte END = 0;
+    private static final byte ELEMENT = 1;
+    private static final byte TEXT = 2;
+    private static final byte CDATA = 3;
+
+    private final File file;
+    /**
+     * 上次保存的快照: 映射文件位置 -> 条目
+     */
+    private final Map<String, Entry> previous;
+    /**
+     * 本次启动用到的条目，保存时只写入这些条目
+     */
+    private final ConcurrentMap<String, Entry> current = new ConcurrentHashMap<String, Entry>();
+    private volatile boolean changed;
+
+    private MapperDocumentSnapshot(File file, Map<String, Entry> previous) {
+        this.file = file;
+        this.previous = previous;
+        this.changed = false;
+    }
+
+    /**
+     * Loads the snapshot stored in the file; a missing, unreadable or outdated file gives an empty snapshot.
+     */
+    public static MapperDocumentSnapshot load(File file) {
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        if (file.isFile()) {
+            DataInputStream in = null;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String location = in.readUTF();
+                        String checksum = in.readUTF();
+                        byte[] document = new byte[in.readInt()];
+                        in.readFully(document);
+                        entries.put(location, new Entry(checksum, document));
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Ignoring unreadable mapper snapshot " + file + ". Cause: " + e);
+                entries.clear();
+            } finally {
+                closeQuietly(in);
+            }
+        }
+        return new MapperDocumentSnapshot(file, entries);
+    }
+
+    /**
+     * Returns a parser over the mapper document, taken from the snapshot when the content is unchanged.
+     */
+    public XPathParser parser(String location, InputStream inputStream, Properties variables) {
+        return parser(location, readFully(inputStream), variables);
+    }
+
+    /**
+     * Returns a parser over the mapper document read from the given bytes, taken from the snapshot when the content
+     * is unchanged.
+     */
+    public XPathParser parser(String location, byte[] content, Properties variables) {
+        String checksum = checksum(content);
+        Entry entry = previous.get(location);
+        if (entry != null && entry.checksum.equals(checksum)) {
+            try {
+                Document document = decode(entry.document);
+                current.put(location, entry);
+                return new XPathParser(document, true, variables, new XMLMapperEntityResolver());
+            } catch (IOException e) {
+                log.debug("Ignoring corrupted snapshot of " + location + ". Cause: " + e);
+            }
+        }
+        XPathParser parser = new XPathParser(new ByteArrayInputStream(content), true, variables, new XMLMapperEntityResolver());
+        current.put(location, new Entry(checksum, encode(parser.evalNode("/mapper").getNode().getOwnerDocument())));
+        changed = true;
+        return parser;
+    }
+
+    /**
+     * Writes the snapshot if a mapper was added, changed or removed since it was loaded.
+     */
+    public void save() {
+        if (!changed && current.keySet().equals(previous.keySet())) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Could not create directory " + parent);
+            }
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(current.size());
+            for (Map.Entry<String, Entry> each : current.entrySet()) {
+                out.writeUTF(each.getKey());
+                out.writeUTF(each.getValue().checksum);
+                out.writeInt(each.getValue().document.length);
+                out.write(each.getValue().document);
+            }
+            out.close();
+            out = null;
+            if (file.exists() && !file.delete() || !temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        } catch (IOException e) {
+            // 快照只用于加速启动，写入失败不影响配置
+            log.warn("Could not write mapper snapshot " + file + ". Cause: " + e);
+            temp.delete();
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private static byte[] encode(Document document) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            encodeElement(out, document.getDocumentElement(), new HashMap<String, Integer>());
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new BuilderException("Error encoding mapper snapshot. Cause: " + e, e);
+        }
+    }
+
+    private static void encodeElement(DataOutputStream out, Element element, Map<String, Integer> names) throws IOException {
+        out.writeByte(ELEMENT);
+        writeName(out, element.getTagName(), names);
+        NamedNodeMap attributes = element.getAttributes();
+        out.writeShort(attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            writeName(out, attribute.getName(), names);
+            writeString(out, attribute.getValue());
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    encodeElement(out, (Element) child, names);
+                    break;
+                case Node.TEXT_NODE:
+                    if (((Text) child).isElementContentWhitespace()) {
+                        // 校验时识别出的可忽略空白，构建时不会用到
+                        break;
+                    }
+                    out.writeByte(TEXT);
+                    writeString(out, child.getNodeValue());
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    out.writeByte(CDATA);
+                    writeString(out, child.getNodeValue());
+                    break;
+                default:
+                    // 注释、处理指令等节点不参与构建
+                    break;
+            }
+        }
+        out.writeByte(END);
+    }
+
+    private static Document decode(byte[] encoded) throws IOException {
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (Exception e) {
+            throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        if (in.readByte() != ELEMENT) {
+            throw new IOException("Snapshot does not start with an element");
+        }
+        document.appendChild(decodeElement(in, document, new ArrayList<String>()));
+        return document;
+    }
+
+    private static Element decodeElement(DataInputStream in, Document document, List<String> names) throws IOException {
+        Element element = document.createElement(readName(in, names));
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            element.setAttribute(readName(in, names), readString(in));
+        }
+        while (true) {
+            byte type = in.readByte();
+            switch (type) {
+                case END:
+                    return element;
+                case ELEMENT:
+                    element.appendChild(decodeElement(in, document, names));
+                    break;
+                case TEXT:
+                    element.appendChild(document.createTextNode(readString(in)));
+                    break;
+                case CDATA:
+                    element.appendChild(document.createCDATASection(readString(in)));
+                    break;
+                default:
+                    throw new IOException("Unknown node type " + type);
+            }
+        }
+    }
+
+    /**
+     * 元素名和属性名重复出现，首次写入名字，之后只写其序号
+     */
+    private static void writeName(DataOutputStream out, String name, Map<String, Integer> names) throws IOException {
+        Integer index = names.get(name);
+        if (index != null) {
+            out.writeShort(index);
+        } else {
+            names.put(name, names.size());
+            out.writeShort(-1);
+            out.writeUTF(name);
+        }
+    }
+
+    private static String readName(DataInputStream in, List<String> names) throws IOException {
+        short index = in.readShort();
+        if (index >= 0) {
+            return names.get(index);
+        }
+        String name = in.readUTF();
+        names.add(name);
+        return name;
+    }
+
+    /**
+     * SQL 文本可能超过 writeUTF 的 64K 限制，按长度加 UTF-8 字节写入
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    static byte[] readFully(InputStream inputStream) {
+        try {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+                return bytes.toByteArray();
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new BuilderException("Error reading mapper. Cause: " + e, e);
+        }
+    }
+
+    private static String checksum(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            throw new BuilderException("Error computing mapper checksum. Cause: " + e, e);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final String checksum;
+        private final byte[] document;
+
+        Entry(String checksum, byte[] document) {
+            this.checksum = checksum;
+            this.document = document;
+        }
+    }
+
+}
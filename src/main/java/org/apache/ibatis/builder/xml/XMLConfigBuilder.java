@@ -15,21 +15,39 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import javax.sql.DataSource;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.invalidation.InvalidationTransport;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.instrumentation.ExecutionListener;
 import org.apache.ibatis.executor.loader.ProxyFactory;
+import org.apache.ibatis.io.ClassFileHeader;
+import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.parsing.PropertyParser;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -71,6 +89,10 @@ public class XMLConfigBuilder extends BaseBuilder {
      *  负责创建和缓存 Reflector 对象
      */
     private ReflectorFactory localReflectorFactory = new DefaultReflectorFactory();
+    /**
+     * 映射文件快照，未配置 mapperSnapshotFile 时为 null
+     */
+    private MapperDocumentSnapshot mapperSnapshot;
 
     public XMLConfigBuilder(Reader reader) {
         this(reader, null, null);
@@ -347,6 +369,21 @@ public class XMLConfigBuilder extends BaseBuilder {
         configuration.setCallSettersOnNulls(booleanValueOf(props.getProperty("callSettersOnNulls"), false));
         configuration.setUseActualParamName(booleanValueOf(props.getProperty("useActualParamName"), true));
         configuration.setReturnInstanceForEmptyRow(booleanValueOf(props.getProperty("returnInstanceForEmptyRow"), false));
+        configuration.setTableCacheInvalidation(booleanValueOf(props.getProperty("tableCacheInvalidation"), false));
+        configuration.setParallelMapperParsing(booleanValueOf(props.getProperty("parallelMapperParsing"), false));
+        configuration.setMapperSnapshotFile(props.getProperty("mapperSnapshotFile"));
+        configuration.setLazyMapperLoading(booleanValueOf(props.getProperty("lazyMapperLoading"), false));
+        configuration.setUseGeneratedMappers(booleanValueOf(props.getProperty("useGeneratedMappers"), false));
+        configuration.setCacheInvalidationTransport((InvalidationTransport) createInstance(props.getProperty("cacheInvalidationTransport")));
+        String executionListeners = props.getProperty("executionListeners");
+        if (executionListeners != null) {
+            for (String type : executionListeners.split(",")) {
+                configuration.addExecutionListener((ExecutionListener) createInstance(type.trim()));
+            }
+        }
+        configuration.setStatementMetricsEnabled(booleanValueOf(props.getProperty("statementMetricsEnabled"), false));
+        configuration.setSlowStatementCapacity(integerValueOf(props.getProperty("slowStatementCapacity"), 100));
+        configuration.setSlowStatementThreshold(integerValueOf(props.getProperty("slowStatementThreshold"), null));
         configuration.setLogPrefix(props.getProperty("logPrefix"));
         @SuppressWarnings("unchecked")
         Class<? extends Log> logImpl = (Class<? extends Log>) resolveClass(props.getProperty("logImpl"));
@@ -536,40 +573,260 @@ public class XMLConfigBuilder extends BaseBuilder {
      * @throws Exception
      */
     private void mapperElement(XNode parent) throws Exception {
-        if (parent != null) {
+        if (parent == null) {
+            return;
+        }
+        if (configuration.isLazyMapperLoading()) {
             for (XNode child : parent.getChildren()) {
-                if ("package".equals(child.getName())) {
-                    String mapperPackage = child.getStringAttribute("name");
-                    // 扫描指定的包，查找mapper接口,并向 MapperRegistry 注册 Mapper 接口
-                    configuration.addMappers(mapperPackage);
-                } else {
-                    // 获取<mapper>节点的 resource 、 url 、 class 属性，这三个属性互斥
-                    String resource = child.getStringAttribute("resource");
-                    String url = child.getStringAttribute("url");
-                    String mapperClass = child.getStringAttribute("class");
-                    if (resource != null && url == null && mapperClass == null) {
-                        ErrorContext.instance().resource(resource);
-                        InputStream inputStream = Resources.getResourceAsStream(resource);
-                        // 创建XMLMapperBuilder 对象，解析映射配置文件
-                        XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
-                        // 解析映射文件 XMLMapperBuilder#parse 解析mapper文件入口
-                        mapperParser.parse();
-                    } else if (resource == null && url != null && mapperClass == null) {
-                        ErrorContext.instance().resource(url);
-                        InputStream inputStream = Resources.getUrlAsStream(url);
-                        // 通过url加载配置, 创建XMLMapperBuilder 对象，解析映射配置文件
-                        XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
-                        mapperParser.parse();
-                    } else if (resource == null && url == null && mapperClass != null) {
-                        // 如果<mapper>节点指定了 class 属性 ，则向 MapperRegistry 注册该 Mapper 接口
-                        // 通过 mapperClass 解析映射配置
-                        Class<?> mapperInterface = Resources.classForName(mapperClass);
-                        configuration.addMapper(mapperInterface);
-                    } else {
-                        throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+                lazyMapperChildElement(child);
+            }
+            return;
+        }
+        if (configuration.getMapperSnapshotFile() != null) {
+            mapperSnapshot = MapperDocumentSnapshot.load(new File(configuration.getMapperSnapshotFile()));
+        }
+        if (configuration.isParallelMapperParsing()) {
+            parallelMapperElement(parent);
+        } else {
+            for (XNode child : parent.getChildren()) {
+                mapperChildElement(child);
+            }
+        }
+        if (mapperSnapshot != null) {
+            mapperSnapshot.save();
+        }
+    }
+
+    private void mapperChildElement(XNode child) throws Exception {
+        if ("package".equals(child.getName())) {
+            String mapperPackage = child.getStringAttribute("name");
+            // 扫描指定的包，查找mapper接口,并向 MapperRegistry 注册 Mapper 接口
+            configuration.addMappers(mapperPackage);
+        } else {
+            // 获取<mapper>节点的 resource 、 url 、 class 属性，这三个属性互斥
+            String resource = child.getStringAttribute("resource");
+            String url = child.getStringAttribute("url");
+            String mapperClass = child.getStringAttribute("class");
+            if (resource != null && url == null && mapperClass == null) {
+                ErrorContext.instance().resource(resource);
+                InputStream inputStream = Resources.getResourceAsStream(resource);
+                // 创建XMLMapperBuilder 对象，解析映射配置文件
+                XMLMapperBuilder mapperParser = readMapper(resource, inputStream).builder(configuration, resource);
+                // 解析映射文件 XMLMapperBuilder#parse 解析mapper文件入口
+                mapperParser.parse();
+            } else if (resource == null && url != null && mapperClass == null) {
+                ErrorContext.instance().resource(url);
+                InputStream inputStream = Resources.getUrlAsStream(url);
+                // 通过url加载配置, 创建XMLMapperBuilder 对象，解析映射配置文件
+                XMLMapperBuilder mapperParser = readMapper(url, inputStream).builder(configuration, url);
+                mapperParser.parse();
+            } else if (resource == null && url == null && mapperClass != null) {
+                // 如果<mapper>节点指定了 class 属性 ，则向 MapperRegistry 注册该 Mapper 接口
+                // 通过 mapperClass 解析映射配置
+                Class<?> mapperInterface = Resources.classForName(mapperClass);
+                configuration.addMapper(mapperInterface);
+            } else {
+                throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+            }
+        }
+    }
+
+    /**
+     * 延迟加载模式: 只读取映射文件的 namespace 或 Mapper 接口名建立索引，首次访问该命名空间时才解析
+     */
+    private void lazyMapperChildElement(XNode child) throws Exception {
+        if ("package".equals(child.getName())) {
+            ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<Class<?>>();
+            // 与 MapperRegistry#addMappers 相同，只加载接口
+            resolverUtil.find(new ResolverUtil.IsA(Object.class) {
+                @Override
+                public boolean mayMatch(ClassFileHeader header) {
+                    return header.isInterface();
+                }
+            }, child.getStringAttribute("name"));
+            for (Class<?> mapperInterface : resolverUtil.getClasses()) {
+                if (mapperInterface.isInterface()) {
+                    configuration.addLazyNamespace(mapperInterface.getName(), new LazyMapperLoader(null, null, mapperInterface));
+                }
+            }
+            return;
+        }
+        String resource = child.getStringAttribute("resource");
+        String url = child.getStringAttribute("url");
+        String mapperClass = child.getStringAttribute("class");
+        if (resource == null && url == null && mapperClass != null) {
+            Class<?> mapperInterface = Resources.classForName(mapperClass);
+            if (mapperInterface.isInterface()) {
+                configuration.addLazyNamespace(mapperInterface.getName(), new LazyMapperLoader(null, null, mapperInterface));
+            }
+            return;
+        }
+        if (mapperClass != null || (resource == null) == (url == null)) {
+            // 非法配置，按原有方式处理以抛出相同的异常
+            mapperChildElement(child);
+            return;
+        }
+        String location = resource != null ? resource : url;
+        ErrorContext.instance().resource(location);
+        String namespace = readNamespace(resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url));
+        if (namespace == null || namespace.isEmpty()) {
+            // 缺少 namespace 的映射文件立即解析，在启动时报告错误
+            mapperChildElement(child);
+        } else {
+            configuration.addLazyNamespace(namespace, new LazyMapperLoader(resource, url, null));
+        }
+    }
+
+    /**
+     * 使用 StAX 读取根元素的 namespace 属性，不构建 DOM，也不加载 DTD
+     */
+    private String readNamespace(InputStream inputStream) throws IOException {
+        try {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        return PropertyParser.parse(reader.getAttributeValue(null, "namespace"), configuration.getVariables());
                     }
                 }
+                return null;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new BuilderException("Error reading mapper namespace. Cause: " + e, e);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * 在 fork-join 线程池中并发读取 resource / url 指定的映射文件(DOM 解析)，
+     * 然后按照声明顺序依次构建，保证向 Configuration 注册的顺序以及未完成元素的处理与串行解析一致
+     */
+    private void parallelMapperElement(XNode parent) throws Exception {
+        List<XNode> children = parent.getChildren();
+        List<Future<MapperDocument>> documents = new ArrayList<Future<MapperDocument>>(children.size());
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            for (XNode child : children) {
+                String resource = child.getStringAttribute("resource");
+                String url = child.getStringAttribute("url");
+                String mapperClass = child.getStringAttribute("class");
+                if (!"package".equals(child.getName()) && mapperClass == null && (resource == null) != (url == null)) {
+                    documents.add(pool.submit(new MapperDocumentReader(resource, url)));
+                } else {
+                    documents.add(null);
+                }
+            }
+            for (int i = 0; i < children.size(); i++) {
+                XNode child = children.get(i);
+                Future<MapperDocument> document = documents.get(i);
+                if (document == null) {
+                    mapperChildElement(child);
+                    continue;
+                }
+                String location = child.getStringAttribute("resource", child.getStringAttribute("url"));
+                ErrorContext.instance().resource(location);
+                XMLMapperBuilder mapperParser = readDocument(document).builder(configuration, location);
+                mapperParser.parse();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private MapperDocument readDocument(Future<MapperDocument> document) throws Exception {
+        try {
+            return document.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    private class MapperDocumentReader implements Callable<MapperDocument> {
+
+        private final String resource;
+        private final String url;
+
+        MapperDocumentReader(String resource, String url) {
+            this.resource = resource;
+            this.url = url;
+        }
+
+        @Override
+        public MapperDocument call() throws Exception {
+            InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url);
+            return readMapper(resource != null ? resource : url, inputStream);
+        }
+    }
+
+    /**
+     * 首次访问命名空间时解析映射文件或 Mapper 接口
+     */
+    private class LazyMapperLoader implements Runnable {
+
+        private final String resource;
+        private final String url;
+        private final Class<?> type;
+
+        LazyMapperLoader(String resource, String url, Class<?> type) {
+            this.resource = resource;
+            this.url = url;
+            this.type = type;
+        }
+
+        @Override
+        public void run() {
+            if (type != null) {
+                configuration.addMapper(type);
+                return;
+            }
+            String location = resource != null ? resource : url;
+            ErrorContext.instance().resource(location);
+            try {
+                InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url);
+                new XMLMapperBuilder(inputStream, configuration, location, configuration.getSqlFragments()).parse();
+            } catch (IOException e) {
+                throw new BuilderException("Error loading mapper " + location + ". Cause: " + e, e);
             }
+            ErrorContext.instance().reset();
+        }
+    }
+
+    /**
+     * 读取映射文件，配置了快照时未修改的映射文件直接从快照恢复
+     */
+    private MapperDocument readMapper(String location, InputStream inputStream) {
+        byte[] content = MapperDocumentSnapshot.readFully(inputStream);
+        XPathParser parser = mapperSnapshot != null
+                ? mapperSnapshot.parser(location, content, configuration.getVariables())
+                : new XPathParser(new ByteArrayInputStream(content), true, configuration.getVariables(), new XMLMapperEntityResolver());
+        return new MapperDocument(parser, content);
+    }
+
+    /**
+     * 已读取的映射文件及其原始内容
+     */
+    private static class MapperDocument {
+
+        private final XPathParser parser;
+        private final byte[] content;
+
+        MapperDocument(XPathParser parser, byte[] content) {
+            this.parser = parser;
+            this.content = content;
+        }
+
+        XMLMapperBuilder builder(Configuration configuration, String location) {
+            return new XMLMapperBuilder(parser, content, configuration, location, configuration.getSqlFragments());
         }
     }
 
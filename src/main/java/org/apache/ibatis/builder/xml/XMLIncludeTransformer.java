@@ -98,6 +98,7 @@ public class XMLIncludeTransformer {
     private Node findSqlFragment(String refid, Properties variables) {
         refid = PropertyParser.parse(refid, variables);
         refid = builderAssistant.applyCurrentNamespace(refid, true);
+        configuration.loadLazyNamespace(refid);
         try {
             XNode nodeToInclude = configuration.getSqlFragments().get(refid);
             return nodeToInclude.getNode().cloneNode(true);
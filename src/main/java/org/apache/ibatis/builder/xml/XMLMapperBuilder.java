@@ -15,8 +15,12 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +37,7 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.codec.CacheCodec;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.Discriminator;
@@ -54,6 +59,10 @@ import org.apache.ibatis.type.TypeHandler;
 public class XMLMapperBuilder extends BaseBuilder {
 
     private XPathParser parser;
+    /**
+     * 映射文件的原始内容，用于计算持久化二级缓存的校验和
+     */
+    private byte[] content;
     private MapperBuilderAssistant builderAssistant;
     private Map<String, XNode> sqlFragments;
     private String resource;
@@ -66,8 +75,12 @@ public class XMLMapperBuilder extends BaseBuilder {
 
     @Deprecated
     public XMLMapperBuilder(Reader reader, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
-        this(new XPathParser(reader, true, configuration.getVariables(), new XMLMapperEntityResolver()),
-                configuration, resource, sqlFragments);
+        this(readFully(reader), configuration, resource, sqlFragments);
+    }
+
+    private XMLMapperBuilder(String source, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+        this(new XPathParser(new StringReader(source), true, configuration.getVariables(), new XMLMapperEntityResolver()),
+                utf8(source), configuration, resource, sqlFragments);
     }
 
     public XMLMapperBuilder(InputStream inputStream, Configuration configuration, String resource, Map<String, XNode> sqlFragments, String namespace) {
@@ -76,18 +89,62 @@ public class XMLMapperBuilder extends BaseBuilder {
     }
 
     public XMLMapperBuilder(InputStream inputStream, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
-        this(new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver()),
-                configuration, resource, sqlFragments);
+        this(MapperDocumentSnapshot.readFully(inputStream), configuration, resource, sqlFragments);
+    }
+
+    private XMLMapperBuilder(byte[] content, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+        this(new XPathParser(new ByteArrayInputStream(content), true, configuration.getVariables(), new XMLMapperEntityResolver()),
+                content, configuration, resource, sqlFragments);
     }
 
-    private XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+    /**
+     * @param parser parser of an already read mapper document
+     * @since 3.4.3
+     */
+    public XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+        this(parser, null, configuration, resource, sqlFragments);
+    }
+
+    /**
+     * @param parser parser of an already read mapper document
+     * @param content raw bytes of the mapper document, their checksum is given to persistent caches; may be null
+     * @since 3.4.3
+     */
+    public XMLMapperBuilder(XPathParser parser, byte[] content, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
         super(configuration);
         this.builderAssistant = new MapperBuilderAssistant(configuration, resource);
         this.parser = parser;
+        this.content = content;
         this.sqlFragments = sqlFragments;
         this.resource = resource;
     }
 
+    private static String readFully(Reader reader) {
+        try {
+            try {
+                StringBuilder sb = new StringBuilder();
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    sb.append(buffer, 0, read);
+                }
+                return sb.toString();
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new BuilderException("Error reading mapper. Cause: " + e, e);
+        }
+    }
+
+    private static byte[] utf8(String source) {
+        try {
+            return source.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new BuilderException("Error reading mapper. Cause: " + e, e);
+        }
+    }
+
     /**
      * 解析映射文件入口
      */
@@ -126,6 +183,9 @@ public class XMLMapperBuilder extends BaseBuilder {
             }
             // 设置 MapperBuilderAssistant 的 currentNamespace 字段，记录当前命名空间
             builderAssistant.setCurrentNamespace(namespace);
+            if (content != null) {
+                builderAssistant.setMapperSource(content);
+            }
             // MyBatis 提供了一、二级缓存，其中一级缓存是 SqlSession 级别的，默认为开启状态。二级缓存配置在映射文件中，使用者需要显示配置才能开启
             // 解析cache-ref节点 是否公用二级缓存
             cacheRefElement(context.evalNode("cache-ref"));
@@ -252,7 +312,10 @@ public class XMLMapperBuilder extends BaseBuilder {
      *   eviction="FIFO"
      *   flushInterval="60000"
      *   size="512"
-     *   readOnly="true"/>
+     *   readOnly="true"
+     *   codec="REFLECTIVE"
+     *   timeToLive="600000"
+     *   refreshAhead="0.8"/>
      *
      * @param context
      * @throws Exception
@@ -275,10 +338,16 @@ public class XMLMapperBuilder extends BaseBuilder {
             boolean readWrite = !context.getBooleanAttribute("readOnly", false);
             // 获取节点的 blocking 属性，默认值是 false
             boolean blocking = context.getBooleanAttribute("blocking", false);
+            // 获取节点的 codec 属性，可读写缓存复制对象时使用的序列化方式，默认是 java 序列化
+            Class<? extends CacheCodec> codecClass = typeAliasRegistry.resolveAlias(context.getStringAttribute("codec"));
+            // 获取节点的 timeToLive 属性，每个缓存项的存活时间(毫秒)，默认值是 null
+            Long timeToLive = context.getLongAttribute("timeToLive");
+            // 获取节点的 refreshAhead 属性，缓存项存活超过该比例的时间后由下一次读取刷新，默认值是 null
+            Double refreshAhead = context.getDoubleAttribute("refreshAhead");
             // 获取<cache>节点下的子节点，将用于初始化二级缓存
             Properties props = context.getChildrenAsProperties();
             // 通过 MapperBuilderAssistant 创建 Cache 对象，并添加到 Configuration.caches 集合中保存
-            builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, props);
+            builderAssistant.useNewCache(typeClass, evictionClass, flushInterval, size, readWrite, blocking, codecClass, timeToLive, refreshAhead, props);
         }
     }
 
@@ -17,6 +17,7 @@ package org.apache.ibatis.builder.xml;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
@@ -107,6 +108,8 @@ public class XMLStatementBuilder extends BaseBuilder {
         // Parse the SQL (pre: <selectKey> and <include> were parsed and removed)
         // 解析 SQL 语句
         SqlSource sqlSource = langDriver.createSqlSource(configuration, context, parameterTypeClass);
+        // 获取语句读写的数据表，未声明 tables 属性时从 SQL 文本(包含动态 SQL 的所有分支)中提取
+        Set<String> tables = builderAssistant.resolveTables(context.getStringAttribute("tables"), context.getNode().getTextContent());
         String resultSets = context.getStringAttribute("resultSets");
         String keyProperty = context.getStringAttribute("keyProperty");
         String keyColumn = context.getStringAttribute("keyColumn");
@@ -126,7 +129,7 @@ public class XMLStatementBuilder extends BaseBuilder {
         builderAssistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType,
                 fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
                 resultSetTypeEnum, flushCache, useCache, resultOrdered,
-                keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+                keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets, tables);
     }
 
     private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
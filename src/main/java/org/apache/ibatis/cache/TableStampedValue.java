@@ -0,0 +1,92 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * A second level cache value together with the versions of the tables it was read from.
+ *
+ * Stored by {@link org.apache.ibatis.executor.CachingExecutor} when table level invalidation is enabled and checked
+ * against {@link TableVersions} on every hit. It is a plain JavaBean so cache codecs can copy it field by field.
+ *
+ * @since 3.4.3
+ */
+public class TableStampedValue implements Serializable {
+
+    private static final long serialVersionUID = 4803927491326874123L;
+
+    private Object value;
+    private long epoch;
+    private String[] tables;
+    private long[] versions;
+
+    public TableStampedValue() {
+        // for cache codecs
+    }
+
+    TableStampedValue(long epoch, String[] tables, long[] versions) {
+        this.epoch = epoch;
+        this.tables = tables;
+        this.versions = versions;
+    }
+
+    /**
+     * @return true if this value was read from one of the tables
+     */
+    public boolean dependsOn(Collection<String> written) {
+        for (String table : tables) {
+            if (written.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(long epoch) {
+        this.epoch = epoch;
+    }
+
+    public String[] getTables() {
+        return tables;
+    }
+
+    public void setTables(String[] tables) {
+        this.tables = tables;
+    }
+
+    public long[] getVersions() {
+        return versions;
+    }
+
+    public void setVersions(long[] versions) {
+        this.versions = versions;
+    }
+
+}
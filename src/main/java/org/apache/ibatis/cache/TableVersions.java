@@ -0,0 +1,92 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the tables written through MyBatis, used to invalidate second level cache entries by table.
+ *
+ * A cached result is stamped with the versions of the tables it was read from before the query runs. A committed
+ * write increments the versions of the tables it touched, which makes every entry depending on them stale, in any
+ * namespace, without scanning or clearing the caches.
+ *
+ * Versions live in memory and are local to the {@link org.apache.ibatis.session.Configuration}. A stamp taken by an
+ * earlier instance (e.g. read back from a persistent cache) is current only while none of its tables were written.
+ *
+ * @since 3.4.3
+ */
+public class TableVersions {
+
+    private final long epoch = new Random().nextLong();
+    private final ConcurrentMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * @param tables lower case table names
+     * @return a stamp holding the current versions of the tables, with no value yet
+     */
+    public TableStampedValue stamp(Collection<String> tables) {
+        String[] names = tables.toArray(new String[tables.size()]);
+        long[] stamps = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            stamps[i] = versionOf(names[i]);
+        }
+        return new TableStampedValue(epoch, names, stamps);
+    }
+
+    /**
+     * @return true if none of the stamped tables has been written since the stamp was taken
+     */
+    public boolean isCurrent(TableStampedValue stamped) {
+        String[] tables = stamped.getTables();
+        long[] stamps = stamped.getVersions();
+        boolean sameEpoch = stamped.getEpoch() == epoch;
+        for (int i = 0; i < tables.length; i++) {
+            long version = versionOf(tables[i]);
+            if (sameEpoch ? version != stamps[i] : version != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks every entry that depends on one of the tables as stale.
+     */
+    public void invalidate(Collection<String> tables) {
+        for (String table : tables) {
+            AtomicLong version = versions.get(table);
+            if (version == null) {
+                AtomicLong created = new AtomicLong();
+                version = versions.putIfAbsent(table, created);
+                if (version == null) {
+                    version = created;
+                }
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    private long versionOf(String table) {
+        AtomicLong version = versions.get(table);
+        return version == null ? 0 : version.get();
+    }
+
+}
@@ -15,24 +15,94 @@
  */
 package org.apache.ibatis.cache;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 
 /**
+ * A {@link TransactionalCache} is only created for a cache once the transaction misses, writes or clears it, so a
+ * session that only reads cached results allocates nothing here.
+ *
  * @author Clinton Begin
  */
 public class TransactionalCacheManager {
 
-    private Map<Cache, TransactionalCache> transactionalCaches = new HashMap<Cache, TransactionalCache>();
+    /**
+     * 事务中用到的缓存及其 TransactionalCache，一个会话通常只涉及少数几个命名空间，线性查找即可
+     */
+    private Cache[] caches;
+    private TransactionalCache[] transactionalCaches;
+    private int size;
+    private final TableVersions tableVersions;
+    private final CacheInvalidationBus invalidationBus;
+    /**
+     * 本事务写过的表，提交时使其版本失效
+     */
+    private Set<String> tablesToInvalidateOnCommit;
+
+    public TransactionalCacheManager() {
+        this(null);
+    }
+
+    /**
+     * @param tableVersions table versions used for table level invalidation, null to disable it
+     */
+    public TransactionalCacheManager(TableVersions tableVersions) {
+        this(tableVersions, null);
+    }
+
+    /**
+     * @param tableVersions table versions used for table level invalidation, null to disable it
+     * @param invalidationBus bus notifying other nodes of committed invalidations, may be null
+     */
+    public TransactionalCacheManager(TableVersions tableVersions, CacheInvalidationBus invalidationBus) {
+        this.tableVersions = tableVersions;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public TableVersions getTableVersions() {
+        return tableVersions;
+    }
 
     public void clear(Cache cache) {
         getTransactionalCache(cache).clear();
     }
 
+    /**
+     * Invalidates the cache entries depending on the tables, in every namespace, when the transaction commits.
+     *
+     * @param tables lower case table names written by the transaction
+     */
+    public void invalidateOnCommit(Collection<String> tables) {
+        if (tableVersions == null) {
+            throw new CacheException("Table level cache invalidation is not enabled");
+        }
+        if (tablesToInvalidateOnCommit == null) {
+            tablesToInvalidateOnCommit = new HashSet<String>();
+        }
+        tablesToInvalidateOnCommit.addAll(tables);
+    }
+
     public Object getObject(Cache cache, CacheKey key) {
-        return getTransactionalCache(cache).getObject(key);
+        TransactionalCache txCache = findTransactionalCache(cache);
+        Object value;
+        if (txCache != null) {
+            value = txCache.getObject(key);
+        } else {
+            // 只读命中时不创建 TransactionalCache；未命中时需记录以便提交或回滚时释放 BlockingCache 的锁
+            value = cache.getObject(key);
+            if (value == null) {
+                getTransactionalCache(cache).entryMissed(key);
+            }
+        }
+        if (value instanceof TableStampedValue) {
+            return currentValue((TableStampedValue) value);
+        }
+        return value;
     }
 
     public void putObject(Cache cache, CacheKey key, Object value) {
@@ -40,22 +110,60 @@ public class TransactionalCacheManager {
     }
 
     public void commit() {
-        for (TransactionalCache txCache : transactionalCaches.values()) {
-            txCache.commit();
+        if (tablesToInvalidateOnCommit != null) {
+            tableVersions.invalidate(tablesToInvalidateOnCommit);
+            if (invalidationBus != null) {
+                invalidationBus.publishTables(tablesToInvalidateOnCommit);
+            }
+            tablesToInvalidateOnCommit = null;
+        }
+        for (int i = 0; i < size; i++) {
+            transactionalCaches[i].commit();
         }
     }
 
     public void rollback() {
-        for (TransactionalCache txCache : transactionalCaches.values()) {
-            txCache.rollback();
+        tablesToInvalidateOnCommit = null;
+        for (int i = 0; i < size; i++) {
+            transactionalCaches[i].rollback();
+        }
+    }
+
+    /**
+     * 检查表版本，依赖的表已被修改(包括本事务中尚未提交的修改)时视为未命中
+     */
+    private Object currentValue(TableStampedValue stamped) {
+        if (tableVersions == null) {
+            return stamped.getValue();
+        }
+        if (tablesToInvalidateOnCommit != null && stamped.dependsOn(tablesToInvalidateOnCommit)) {
+            return null;
+        }
+        return tableVersions.isCurrent(stamped) ? stamped.getValue() : null;
+    }
+
+    private TransactionalCache findTransactionalCache(Cache cache) {
+        for (int i = 0; i < size; i++) {
+            if (caches[i].equals(cache)) {
+                return transactionalCaches[i];
+            }
         }
+        return null;
     }
 
     private TransactionalCache getTransactionalCache(Cache cache) {
-        TransactionalCache txCache = transactionalCaches.get(cache);
+        TransactionalCache txCache = findTransactionalCache(cache);
         if (txCache == null) {
-            txCache = new TransactionalCache(cache);
-            transactionalCaches.put(cache, txCache);
+            txCache = new TransactionalCache(cache, tableVersions, invalidationBus);
+            if (caches == null) {
+                caches = new Cache[4];
+                transactionalCaches = new TransactionalCache[4];
+            } else if (size == caches.length) {
+                caches = Arrays.copyOf(caches, size << 1);
+                transactionalCaches = Arrays.copyOf(transactionalCaches, size << 1);
+            }
+            caches[size] = cache;
+            transactionalCaches[size++] = txCache;
         }
         return txCache;
     }
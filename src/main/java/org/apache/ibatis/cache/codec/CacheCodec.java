@@ -0,0 +1,42 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.codec;
+
+/**
+ * Turns cached values into bytes and back.
+ *
+ * A read/write cache ({@link org.apache.ibatis.cache.decorators.SerializedCache}) stores the encoded form of every
+ * value and decodes it on each hit so callers always receive a private copy.
+ *
+ * Implementations must be thread safe and must have a public no-arg constructor.
+ *
+ * @since 3.4.3
+ */
+public interface CacheCodec {
+
+    /**
+     * @param value a serializable value, never null
+     * @return the encoded value
+     */
+    byte[] encode(Object value);
+
+    /**
+     * @param data bytes produced by {@link #encode(Object)} of this codec
+     * @return a new copy of the encoded value
+     */
+    Object decode(byte[] data);
+
+}
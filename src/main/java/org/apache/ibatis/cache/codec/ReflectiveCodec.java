@@ -0,0 +1,729 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.codec;
+
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * A compact binary codec that copies mapped result objects property by property.
+ *
+ * Beans are written using the {@link Reflector} metadata MyBatis already holds for result types: every property
+ * that has both a getter and a setter (or a backing field) is copied, primitives are written without boxing and
+ * class names are written once per value. A bean with a readable property that can not be set back with the same
+ * type is serialized instead. Common JDK types (strings, numbers, dates, lists, maps and sets) have
+ * their own encoding. Anything else, and any class that customizes its serialized form, falls back to java
+ * serialization, so the codec accepts exactly the values {@link JdkSerializationCodec} accepts.
+ *
+ * Shared references and cycles inside a value are preserved.
+ *
+ * @since 3.4.3
+ */
+public class ReflectiveCodec implements CacheCodec {
+
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int REFERENCE = 1;
+    private static final int STRING = 2;
+    private static final int INTEGER = 3;
+    private static final int LONG = 4;
+    private static final int SHORT = 5;
+    private static final int BYTE = 6;
+    private static final int CHARACTER = 7;
+    private static final int TRUE = 8;
+    private static final int FALSE = 9;
+    private static final int FLOAT = 10;
+    private static final int DOUBLE = 11;
+    private static final int BIG_DECIMAL = 12;
+    private static final int BIG_INTEGER = 13;
+    private static final int DATE = 14;
+    private static final int SQL_DATE = 15;
+    private static final int SQL_TIME = 16;
+    private static final int SQL_TIMESTAMP = 17;
+    private static final int BYTES = 18;
+    private static final int ENUM = 19;
+    private static final int ARRAY_LIST = 20;
+    private static final int LINKED_LIST = 21;
+    private static final int HASH_MAP = 22;
+    private static final int LINKED_HASH_MAP = 23;
+    private static final int HASH_SET = 24;
+    private static final int LINKED_HASH_SET = 25;
+    private static final int OBJECT_ARRAY = 26;
+    private static final int BEAN = 27;
+    private static final int SERIALIZED = 28;
+
+    /**
+     * Buffers larger than this are not kept for reuse.
+     */
+    private static final int MAX_RETAINED_BUFFER = 256 * 1024;
+
+    private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    private final JdkSerializationCodec fallback = new JdkSerializationCodec();
+    private final ConcurrentMap<Class<?>, BeanLayout> layouts = new ConcurrentHashMap<Class<?>, BeanLayout>();
+    private final ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+    private final ThreadLocal<Encoder> encoders = new ThreadLocal<Encoder>() {
+        @Override
+        protected Encoder initialValue() {
+            return new Encoder();
+        }
+    };
+
+    @Override
+    public byte[] encode(Object value) {
+        Encoder encoder = encoders.get();
+        try {
+            encoder.writeVarInt(VERSION);
+            encoder.writeValue(value);
+            return encoder.toByteArray();
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("Error encoding object.  Cause: " + e, e);
+        } finally {
+            encoder.reset();
+        }
+    }
+
+    @Override
+    public Object decode(byte[] data) {
+        try {
+            Decoder decoder = new Decoder(data);
+            int version = decoder.readVarInt();
+            if (version != VERSION) {
+                throw new CacheException("Unsupported encoding version " + version + ".");
+            }
+            return decoder.readValue();
+        } catch (CacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheException("Error decoding object.  Cause: " + e, e);
+        }
+    }
+
+    private BeanLayout layoutFor(Class<?> type) {
+        BeanLayout layout = layouts.get(type);
+        if (layout == null) {
+            layout = BeanLayout.forClass(type, reflectorFactory);
+            layouts.put(type, layout);
+        }
+        return layout;
+    }
+
+    private Class<?> classForName(String name) throws ClassNotFoundException {
+        Class<?> type = classes.get(name);
+        if (type == null) {
+            type = Resources.classForName(name);
+            classes.put(name, type);
+        }
+        return type;
+    }
+
+    private static boolean isEnum(Class<?> type) {
+        return type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum());
+    }
+
+    private class Encoder {
+
+        private byte[] buffer = new byte[4096];
+        private int position;
+        private final IdentityHashMap<Object, Integer> references = new IdentityHashMap<Object, Integer>();
+        private final Map<Class<?>, Integer> classHandles = new HashMap<Class<?>, Integer>();
+
+        void writeValue(Object value) throws Exception {
+            if (value == null) {
+                writeVarInt(NULL);
+                return;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                writeVarInt(STRING);
+                writeString((String) value);
+            } else if (type == Integer.class) {
+                writeVarInt(INTEGER);
+                writeSignedVarLong((Integer) value);
+            } else if (type == Long.class) {
+                writeVarInt(LONG);
+                writeSignedVarLong((Long) value);
+            } else if (type == Boolean.class) {
+                writeVarInt((Boolean) value ? TRUE : FALSE);
+            } else if (type == Short.class) {
+                writeVarInt(SHORT);
+                writeSignedVarLong((Short) value);
+            } else if (type == Byte.class) {
+                writeVarInt(BYTE);
+                writeByte((Byte) value);
+            } else if (type == Character.class) {
+                writeVarInt(CHARACTER);
+                writeVarInt((Character) value);
+            } else if (type == Float.class) {
+                writeVarInt(FLOAT);
+                writeInt(Float.floatToRawIntBits((Float) value));
+            } else if (type == Double.class) {
+                writeVarInt(DOUBLE);
+                writeLong(Double.doubleToRawLongBits((Double) value));
+            } else if (type == BigDecimal.class) {
+                BigDecimal decimal = (BigDecimal) value;
+                writeVarInt(BIG_DECIMAL);
+                writeSignedVarLong(decimal.scale());
+                writeBytes(decimal.unscaledValue().toByteArray());
+            } else if (type == BigInteger.class) {
+                writeVarInt(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (type == Date.class) {
+                writeVarInt(DATE);
+                writeLong(((Date) value).getTime());
+            } else if (type == java.sql.Date.class) {
+                writeVarInt(SQL_DATE);
+                writeLong(((Date) value).getTime());
+            } else if (type == java.sql.Time.class) {
+                writeVarInt(SQL_TIME);
+                writeLong(((Date) value).getTime());
+            } else if (type == java.sql.Timestamp.class) {
+                java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+                writeVarInt(SQL_TIMESTAMP);
+                writeLong(timestamp.getTime());
+                writeVarInt(timestamp.getNanos());
+            } else if (type == byte[].class) {
+                writeVarInt(BYTES);
+                writeBytes((byte[]) value);
+            } else if (isEnum(type)) {
+                writeVarInt(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                writeString(((Enum<?>) value).name());
+            } else {
+                writeReferenceType(value, type);
+            }
+        }
+
+        private void writeReferenceType(Object value, Class<?> type) throws Exception {
+            Integer handle = references.get(value);
+            if (handle != null) {
+                writeVarInt(REFERENCE);
+                writeVarInt(handle);
+                return;
+            }
+            references.put(value, references.size());
+            if (type == ArrayList.class) {
+                writeCollection(ARRAY_LIST, (Collection<?>) value);
+            } else if (type == HashMap.class) {
+                writeMap(HASH_MAP, (Map<?, ?>) value);
+            } else if (type == LinkedHashMap.class) {
+                writeMap(LINKED_HASH_MAP, (Map<?, ?>) value);
+            } else if (type == HashSet.class) {
+                writeCollection(HASH_SET, (Collection<?>) value);
+            } else if (type == LinkedHashSet.class) {
+                writeCollection(LINKED_HASH_SET, (Collection<?>) value);
+            } else if (type == LinkedList.class) {
+                writeCollection(LINKED_LIST, (Collection<?>) value);
+            } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+                Object[] array = (Object[]) value;
+                writeVarInt(OBJECT_ARRAY);
+                writeClass(type.getComponentType());
+                writeVarInt(array.length);
+                for (Object element : array) {
+                    writeValue(element);
+                }
+            } else {
+                BeanLayout layout = layoutFor(type);
+                if (layout.supported) {
+                    writeVarInt(BEAN);
+                    writeClass(type);
+                    layout.write(this, value);
+                } else {
+                    writeVarInt(SERIALIZED);
+                    writeBytes(fallback.encode(value));
+                }
+            }
+        }
+
+        private void writeCollection(int tag, Collection<?> collection) throws Exception {
+            writeVarInt(tag);
+            writeVarInt(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        }
+
+        private void writeMap(int tag, Map<?, ?> map) throws Exception {
+            writeVarInt(tag);
+            writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        void writeClass(Class<?> type) {
+            Integer handle = classHandles.get(type);
+            if (handle == null) {
+                classHandles.put(type, classHandles.size());
+                writeVarInt(0);
+                writeString(type.getName());
+            } else {
+                writeVarInt(handle + 1);
+            }
+        }
+
+        void writeString(String value) {
+            int length = value.length();
+            writeVarInt(length);
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else {
+                    // 非 ASCII 字符最多占 3 个字节，同时为其余字符保留空间
+                    ensureCapacity(length - i + 2);
+                    writeVarInt(c);
+                }
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeSignedVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[position++] = (byte) zigzag;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        void reset() {
+            position = 0;
+            references.clear();
+            classHandles.clear();
+            if (buffer.length > MAX_RETAINED_BUFFER) {
+                buffer = new byte[4096];
+            }
+        }
+    }
+
+    private class Decoder {
+
+        private final byte[] buffer;
+        private int position;
+        private final List<Object> references = new ArrayList<Object>();
+        private final List<Class<?>> classTable = new ArrayList<Class<?>>();
+
+        Decoder(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        Object readValue() throws Exception {
+            int tag = readVarInt();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case REFERENCE:
+                    return references.get(readVarInt());
+                case STRING:
+                    return readString();
+                case INTEGER:
+                    return (int) readSignedVarLong();
+                case LONG:
+                    return readSignedVarLong();
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case SHORT:
+                    return (short) readSignedVarLong();
+                case BYTE:
+                    return buffer[position++];
+                case CHARACTER:
+                    return (char) readVarInt();
+                case FLOAT:
+                    return Float.intBitsToFloat(readInt());
+                case DOUBLE:
+                    return Double.longBitsToDouble(readLong());
+                case BIG_DECIMAL: {
+                    int scale = (int) readSignedVarLong();
+                    return new BigDecimal(new BigInteger(readBytes()), scale);
+                }
+                case BIG_INTEGER:
+                    return new BigInteger(readBytes());
+                case DATE:
+                    return new Date(readLong());
+                case SQL_DATE:
+                    return new java.sql.Date(readLong());
+                case SQL_TIME:
+                    return new java.sql.Time(readLong());
+                case SQL_TIMESTAMP: {
+                    java.sql.Timestamp timestamp = new java.sql.Timestamp(readLong());
+                    timestamp.setNanos(readVarInt());
+                    return timestamp;
+                }
+                case BYTES:
+                    return readBytes();
+                case ENUM:
+                    return readEnum();
+                case ARRAY_LIST:
+                    return readCollection(new ArrayList<Object>(peekSize()));
+                case LINKED_LIST:
+                    return readCollection(new LinkedList<Object>());
+                case HASH_SET:
+                    return readCollection(new HashSet<Object>(capacityFor(peekSize())));
+                case LINKED_HASH_SET:
+                    return readCollection(new LinkedHashSet<Object>(capacityFor(peekSize())));
+                case HASH_MAP:
+                    return readMap(new HashMap<Object, Object>(capacityFor(peekSize())));
+                case LINKED_HASH_MAP:
+                    return readMap(new LinkedHashMap<Object, Object>(capacityFor(peekSize())));
+                case OBJECT_ARRAY:
+                    return readArray();
+                case BEAN:
+                    return readBean();
+                case SERIALIZED: {
+                    int handle = references.size();
+                    references.add(null);
+                    Object value = fallback.decode(readBytes());
+                    references.set(handle, value);
+                    return value;
+                }
+                default:
+                    throw new CacheException("Unknown type tag " + tag + " at position " + (position - 1) + ".");
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readEnum() throws Exception {
+            Class type = readClass();
+            return Enum.valueOf(type, readString());
+        }
+
+        private Collection<Object> readCollection(Collection<Object> collection) throws Exception {
+            references.add(collection);
+            int size = readVarInt();
+            for (int i = 0; i < size; i++) {
+                collection.add(readValue());
+            }
+            return collection;
+        }
+
+        private Map<Object, Object> readMap(Map<Object, Object> map) throws Exception {
+            references.add(map);
+            int size = readVarInt();
+            for (int i = 0; i < size; i++) {
+                Object key = readValue();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+
+        private Object[] readArray() throws Exception {
+            Class<?> componentType = readClass();
+            Object[] array = (Object[]) java.lang.reflect.Array.newInstance(componentType, readVarInt());
+            references.add(array);
+            for (int i = 0; i < array.length; i++) {
+                array[i] = readValue();
+            }
+            return array;
+        }
+
+        private Object readBean() throws Exception {
+            Class<?> type = readClass();
+            BeanLayout layout = layoutFor(type);
+            if (!layout.supported) {
+                throw new CacheException("Class " + type.getName() + " can not be decoded property by property.");
+            }
+            Object bean = layout.constructor.newInstance();
+            references.add(bean);
+            layout.read(this, bean);
+            return bean;
+        }
+
+        Class<?> readClass() throws ClassNotFoundException {
+            int handle = readVarInt();
+            if (handle == 0) {
+                Class<?> type = classForName(readString());
+                classTable.add(type);
+                return type;
+            }
+            return classTable.get(handle - 1);
+        }
+
+        String readString() {
+            int length = readVarInt();
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                byte b = buffer[position];
+                if (b >= 0) {
+                    chars[i] = (char) b;
+                    position++;
+                } else {
+                    chars[i] = (char) readVarInt();
+                }
+            }
+            return new String(chars);
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt();
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private int peekSize() {
+            int saved = position;
+            int size = readVarInt();
+            position = saved;
+            return size;
+        }
+
+        private int capacityFor(int size) {
+            return Math.max((int) (size / .75f) + 1, 16);
+        }
+
+        int readVarInt() {
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return result;
+        }
+
+        long readSignedVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        int readInt() {
+            return ((buffer[position++] & 0xFF) << 24)
+                    | ((buffer[position++] & 0xFF) << 16)
+                    | ((buffer[position++] & 0xFF) << 8)
+                    | (buffer[position++] & 0xFF);
+        }
+
+        long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+    }
+
+    /**
+     * How a bean class is written: the sorted list of its properties. A bean with a readable property that has no
+     * setter of the same type is not supported.
+     */
+    private static class BeanLayout {
+
+        private static final BeanLayout UNSUPPORTED = new BeanLayout(false, null, new Property[0]);
+
+        final boolean supported;
+        final Constructor<?> constructor;
+        final Property[] properties;
+
+        private BeanLayout(boolean supported, Constructor<?> constructor, Property[] properties) {
+            this.supported = supported;
+            this.constructor = constructor;
+            this.properties = properties;
+        }
+
+        static BeanLayout forClass(Class<?> type, ReflectorFactory reflectorFactory) {
+            if (!Serializable.class.isAssignableFrom(type)
+                    || Externalizable.class.isAssignableFrom(type)
+                    || type.getName().startsWith("java.")
+                    || type.getName().startsWith("javax.")
+                    || customizesSerialization(type)) {
+                return UNSUPPORTED;
+            }
+            Reflector reflector = reflectorFactory.findForClass(type);
+            if (!reflector.hasDefaultConstructor()) {
+                return UNSUPPORTED;
+            }
+            List<String> names = new ArrayList<String>();
+            for (String name : reflector.getGetablePropertyNames()) {
+                if (!reflector.hasSetter(name) || !reflector.getGetterType(name).equals(reflector.getSetterType(name))) {
+                    // 跳过该属性会丢失数据(如 Integer getId()/setId(int))，交给 JDK 序列化处理
+                    return UNSUPPORTED;
+                }
+                names.add(name);
+            }
+            Collections.sort(names);
+            Property[] properties = new Property[names.size()];
+            for (int i = 0; i < properties.length; i++) {
+                String name = names.get(i);
+                properties[i] = new Property(reflector.getGetInvoker(name), reflector.getSetInvoker(name), reflector.getSetterType(name));
+            }
+            return new BeanLayout(true, reflector.getDefaultConstructor(), properties);
+        }
+
+        private static boolean customizesSerialization(Class<?> type) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                if (declares(c, "writeReplace") || declares(c, "readResolve")
+                        || declares(c, "writeObject", java.io.ObjectOutputStream.class)
+                        || declares(c, "readObject", java.io.ObjectInputStream.class)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean declares(Class<?> type, String name, Class<?>... parameterTypes) {
+            try {
+                type.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+
+        void write(Encoder encoder, Object bean) throws Exception {
+            for (Property property : properties) {
+                Object value = property.getter.invoke(bean, null);
+                Class<?> type = property.type;
+                if (!type.isPrimitive()) {
+                    encoder.writeValue(value);
+                } else if (type == int.class || type == long.class || type == short.class) {
+                    encoder.writeSignedVarLong(((Number) value).longValue());
+                } else if (type == boolean.class) {
+                    encoder.writeByte((Boolean) value ? 1 : 0);
+                } else if (type == double.class) {
+                    encoder.writeLong(Double.doubleToRawLongBits((Double) value));
+                } else if (type == float.class) {
+                    encoder.writeInt(Float.floatToRawIntBits((Float) value));
+                } else if (type == byte.class) {
+                    encoder.writeByte((Byte) value);
+                } else {
+                    encoder.writeVarInt((Character) value);
+                }
+            }
+        }
+
+        void read(Decoder decoder, Object bean) throws Exception {
+            for (Property property : properties) {
+                Class<?> type = property.type;
+                Object value;
+                if (!type.isPrimitive()) {
+                    value = decoder.readValue();
+                } else if (type == int.class) {
+                    value = (int) decoder.readSignedVarLong();
+                } else if (type == long.class) {
+                    value = decoder.readSignedVarLong();
+                } else if (type == short.class) {
+                    value = (short) decoder.readSignedVarLong();
+                } else if (type == boolean.class) {
+                    value = decoder.buffer[decoder.position++] != 0;
+                } else if (type == double.class) {
+                    value = Double.longBitsToDouble(decoder.readLong());
+                } else if (type == float.class) {
+                    value = Float.intBitsToFloat(decoder.readInt());
+                } else if (type == byte.class) {
+                    value = decoder.buffer[decoder.position++];
+                } else {
+                    value = (char) decoder.readVarInt();
+                }
+                property.setter.invoke(bean, new Object[]{value});
+            }
+        }
+    }
+
+    private static class Property {
+
+        final Invoker getter;
+        final Invoker setter;
+        final Class<?> type;
+
+        Property(Invoker getter, Invoker setter, Class<?> type) {
+            this.getter = getter;
+            this.setter = setter;
+            this.type = type;
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+
+/**
+ * Expires every entry on its own, a fixed time after it was put.
+ * 按缓存项各自的写入时间过期，不像 ScheduledCache 那样定期清空整个缓存
+ *
+ * Entries are checked lazily when read, and expired entries are pruned from the head of a FIFO queue on each put, so
+ * there is never a pass over the whole cache.
+ *
+ * With refresh-ahead enabled, once an entry has lived for the given fraction of its time to live the next reader
+ * gets a single miss, reloads it from the database and puts the fresh value back, while other readers keep being
+ * served the current value. Hot entries are thus renewed before they expire instead of all missing at once.
+ *
+ * @since 3.4.3
+ */
+public class ExpiringCache implements Cache {
+
+    private final Cache delegate;
+    /**
+     * 记录每个缓存项的过期时间
+     */
+    private final Map<Object, Expiry> expiries = new HashMap<Object, Expiry>();
+    /**
+     * 按写入顺序排列，由于存活时间固定，也就是按过期时间排列
+     */
+    private final ArrayDeque<Expiry> queue = new ArrayDeque<Expiry>();
+    private long timeToLive = 60 * 60 * 1000; // 1 hour
+    private double refreshAhead;
+
+    public ExpiringCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Time in milliseconds an entry stays in the cache after it was put.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public double getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    /**
+     * Fraction of the time to live after which an entry is refreshed by the next reader, between 0 (disabled) and 1.
+     */
+    public void setRefreshAhead(double refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        pruneExpired(now);
+        delegate.putObject(key, value);
+        Expiry expiry = new Expiry(key, now + timeToLive,
+                refreshAhead > 0 && refreshAhead < 1 ? now + (long) (timeToLive * refreshAhead) : Long.MAX_VALUE);
+        expiries.put(key, expiry);
+        queue.addLast(expiry);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Expiry expiry = expiries.get(key);
+        if (expiry == null) {
+            return delegate.getObject(key);
+        }
+        long now = System.currentTimeMillis();
+        if (now >= expiry.expiresAt) {
+            expiries.remove(key);
+            delegate.removeObject(key);
+            return null;
+        }
+        if (now >= expiry.refreshAt) {
+            // 只让一个读者去刷新，其他读者继续读取当前值
+            expiry.refreshAt = Long.MAX_VALUE;
+            return null;
+        }
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        expiries.remove(key);
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        expiries.clear();
+        queue.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    private void pruneExpired(long now) {
+        Expiry head;
+        while ((head = queue.peekFirst()) != null) {
+            if (expiries.get(head.key) != head) {
+                // 已被删除或者重新写入
+                queue.pollFirst();
+            } else if (now >= head.expiresAt) {
+                queue.pollFirst();
+                expiries.remove(head.key);
+                delegate.removeObject(head.key);
+            } else {
+                break;
+            }
+        }
+        if (queue.size() > 2 * expiries.size() + 64) {
+            // 频繁重写的缓存项会留下大量失效的队列节点，此时整理一次队列
+            Iterator<Expiry> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Expiry expiry = iterator.next();
+                if (expiries.get(expiry.key) != expiry) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static class Expiry {
+        final Object key;
+        final long expiresAt;
+        long refreshAt;
+
+        Expiry(Object key, long expiresAt, long refreshAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+
+}
@@ -15,18 +15,17 @@
  */
 package org.apache.ibatis.cache.decorators;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
 import org.apache.ibatis.io.Resources;
 
 /**
@@ -35,14 +34,21 @@ import org.apache.ibatis.io.Resources;
  * 每次从缓存中获取同－ key 对应的对象时，得到的都
  * 是同一对象，任意一个线程修改该对象都会影 响到其他线程以及缓存中的对象：而
  * SerializedCache 每次从缓存中获取数据时，都会通过反序列化得到一个全新的对象。
+ * 序列化方式由 {@link CacheCodec} 决定，默认使用 java 序列化。
  * @author Clinton Begin
  */
 public class SerializedCache implements Cache {
 
     private Cache delegate;
+    private CacheCodec codec;
 
     public SerializedCache(Cache delegate) {
+        this(delegate, new JdkSerializationCodec());
+    }
+
+    public SerializedCache(Cache delegate, CacheCodec codec) {
         this.delegate = delegate;
+        this.codec = codec;
     }
 
     @Override
@@ -100,22 +106,21 @@ public class SerializedCache implements Cache {
         return delegate.equals(obj);
     }
 
+    public CacheCodec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(CacheCodec codec) {
+        this.codec = codec;
+    }
+
     /**
      * 序列化
      * @param value
      * @return
      */
     private byte[] serialize(Serializable value) {
-        try {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            ObjectOutputStream oos = new ObjectOutputStream(bos);
-            oos.writeObject(value);
-            oos.flush();
-            oos.close();
-            return bos.toByteArray();
-        } catch (Exception e) {
-            throw new CacheException("Error serializing object.  Cause: " + e, e);
-        }
+        return codec.encode(value);
     }
 
     /**
@@ -124,16 +129,7 @@ public class SerializedCache implements Cache {
      * @return
      */
     private Serializable deserialize(byte[] value) {
-        Serializable result;
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(value);
-            ObjectInputStream ois = new CustomObjectInputStream(bis);
-            result = (Serializable) ois.readObject();
-            ois.close();
-        } catch (Exception e) {
-            throw new CacheException("Error deserializing object.  Cause: " + e, e);
-        }
-        return result;
+        return (Serializable) codec.decode(value);
     }
 
     public static class CustomObjectInputStream extends ObjectInputStream {
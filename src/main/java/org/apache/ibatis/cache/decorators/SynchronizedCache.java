@@ -16,15 +16,18 @@
 package org.apache.ibatis.cache.decorators;
 
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.cache.Cache;
 
 /**
  * Cache基础上增加了同步
+ * 使用 ReentrantLock 而不是 synchronized，委托缓存阻塞时虚拟线程不会钉住载体线程
  * @author Clinton Begin
  */
 public class SynchronizedCache implements Cache {
 
+    private final ReentrantLock lock = new ReentrantLock();
     private Cache delegate;
 
     public SynchronizedCache(Cache delegate) {
@@ -37,28 +40,53 @@ public class SynchronizedCache implements Cache {
     }
 
     @Override
-    public synchronized int getSize() {
-        return delegate.getSize();
+    public int getSize() {
+        lock.lock();
+        try {
+            return delegate.getSize();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized void putObject(Object key, Object object) {
-        delegate.putObject(key, object);
+    public void putObject(Object key, Object object) {
+        lock.lock();
+        try {
+            delegate.putObject(key, object);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized Object getObject(Object key) {
-        return delegate.getObject(key);
+    public Object getObject(Object key) {
+        lock.lock();
+        try {
+            return delegate.getObject(key);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized Object removeObject(Object key) {
-        return delegate.removeObject(key);
+    public Object removeObject(Object key) {
+        lock.lock();
+        try {
+            return delegate.removeObject(key);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized void clear() {
-        delegate.clear();
+    public void clear() {
+        lock.lock();
+        try {
+            delegate.clear();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
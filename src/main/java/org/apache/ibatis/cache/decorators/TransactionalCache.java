@@ -15,13 +15,15 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TableStampedValue;
+import org.apache.ibatis.cache.TableVersions;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -33,6 +35,10 @@ import org.apache.ibatis.logging.LogFactory;
  * Blocking cache support has been added. Therefore any get() that returns a cache miss 
  * will be followed by a put() so any lock associated with the key can be released. 
  *
+ * Pending entries are kept in arrays that are only allocated on the first miss or put, and are reused by the next
+ * transaction of the same session. Each key has a single pending entry; keys are looked up by scanning the arrays
+ * until a transaction holds more than a few of them, then through an index.
+ *
  * @author Clinton Begin
  * @author Eduardo Macarron
  */
@@ -40,16 +46,50 @@ public class TransactionalCache implements Cache {
 
     private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
+    /**
+     * 标记只发生了未命中、没有待提交值的缓存项
+     */
+    private static final Object NO_VALUE = new Object();
+    /**
+     * 待提交项不超过此数量时顺序查找 key，超过后建立索引
+     */
+    private static final int SCAN_LIMIT = 8;
+
     private Cache delegate;
     private boolean clearOnCommit;
-    private Map<Object, Object> entriesToAddOnCommit;
-    private Set<Object> entriesMissedInCache;
+    /**
+     * 待提交的缓存项: key、值(或 NO_VALUE)以及是否在缓存中未命中，按发生顺序排列
+     */
+    private Object[] keys;
+    private Object[] values;
+    private boolean[] missed;
+    private int size;
+    /**
+     * key 到待提交项下标的索引，只在待提交项超过 SCAN_LIMIT 时创建
+     */
+    private Map<Object, Integer> index;
+    /**
+     * 按表失效时使用的表版本，为 null 表示未开启
+     */
+    private final TableVersions tableVersions;
+    /**
+     * 将提交时的清空操作通知其他节点，为 null 表示未配置
+     */
+    private final CacheInvalidationBus invalidationBus;
 
     public TransactionalCache(Cache delegate) {
+        this(delegate, null);
+    }
+
+    public TransactionalCache(Cache delegate, TableVersions tableVersions) {
+        this(delegate, tableVersions, null);
+    }
+
+    public TransactionalCache(Cache delegate, TableVersions tableVersions, CacheInvalidationBus invalidationBus) {
         this.delegate = delegate;
         this.clearOnCommit = false;
-        this.entriesToAddOnCommit = new HashMap<Object, Object>();
-        this.entriesMissedInCache = new HashSet<Object>();
+        this.tableVersions = tableVersions;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
@@ -67,7 +107,7 @@ public class TransactionalCache implements Cache {
         // issue #116
         Object object = delegate.getObject(key);
         if (object == null) {
-            entriesMissedInCache.add(key);
+            entryMissed(key);
         }
         // issue #146
         if (clearOnCommit) {
@@ -77,6 +117,18 @@ public class TransactionalCache implements Cache {
         }
     }
 
+    /**
+     * Records a miss of the underlying cache read without this buffer. The key will be put (or removed on rollback)
+     * so that a blocking cache releases its lock.
+     */
+    public void entryMissed(Object key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            i = append(key, NO_VALUE);
+        }
+        missed[i] = true;
+    }
+
     @Override
     public ReadWriteLock getReadWriteLock() {
         return null;
@@ -84,7 +136,12 @@ public class TransactionalCache implements Cache {
 
     @Override
     public void putObject(Object key, Object object) {
-        entriesToAddOnCommit.put(key, object);
+        int i = indexOf(key);
+        if (i < 0) {
+            append(key, object);
+        } else {
+            values[i] = object;
+        }
     }
 
     @Override
@@ -95,12 +152,18 @@ public class TransactionalCache implements Cache {
     @Override
     public void clear() {
         clearOnCommit = true;
-        entriesToAddOnCommit.clear();
+        // pending values are dropped, misses are kept to release their locks
+        for (int i = 0; i < size; i++) {
+            values[i] = NO_VALUE;
+        }
     }
 
     public void commit() {
         if (clearOnCommit) {
             delegate.clear();
+            if (invalidationBus != null) {
+                invalidationBus.publishClear(delegate.getId());
+            }
         }
         flushPendingEntries();
         reset();
@@ -113,25 +176,76 @@ public class TransactionalCache implements Cache {
 
     private void reset() {
         clearOnCommit = false;
-        entriesToAddOnCommit.clear();
-        entriesMissedInCache.clear();
+        if (size > 0) {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            Arrays.fill(missed, 0, size, false);
+            size = 0;
+        }
+        index = null;
     }
 
-    private void flushPendingEntries() {
-        for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-            delegate.putObject(entry.getKey(), entry.getValue());
+    private int indexOf(Object key) {
+        if (index != null) {
+            Integer i = index.get(key);
+            return i == null ? -1 : i;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int append(Object key, Object value) {
+        if (keys == null) {
+            keys = new Object[SCAN_LIMIT];
+            values = new Object[SCAN_LIMIT];
+            missed = new boolean[SCAN_LIMIT];
+        } else if (size == keys.length) {
+            int capacity = size << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            missed = Arrays.copyOf(missed, capacity);
         }
-        for (Object entry : entriesMissedInCache) {
-            if (!entriesToAddOnCommit.containsKey(entry)) {
-                delegate.putObject(entry, null);
+        keys[size] = key;
+        values[size] = value;
+        if (index != null) {
+            index.put(key, size);
+        } else if (size == SCAN_LIMIT) {
+            index = new HashMap<Object, Integer>();
+            for (int i = 0; i <= size; i++) {
+                index.put(keys[i], i);
             }
         }
+        return size++;
+    }
+
+    private void flushPendingEntries() {
+        for (int i = 0; i < size; i++) {
+            Object value = values[i];
+            if (value == NO_VALUE) {
+                if (!missed[i]) {
+                    // put before a clear, nothing to release
+                    continue;
+                }
+                value = null;
+            } else if (value instanceof TableStampedValue && tableVersions != null && !tableVersions.isCurrent((TableStampedValue) value)) {
+                // 读取之后依赖的表已被修改，不再缓存(写入 null 以释放 BlockingCache 的锁)
+                value = null;
+            }
+            delegate.putObject(keys[i], value);
+        }
     }
 
     private void unlockMissedEntries() {
-        for (Object entry : entriesMissedInCache) {
+        for (int i = 0; i < size; i++) {
+            if (!missed[i]) {
+                continue;
+            }
             try {
-                delegate.removeObject(entry);
+                delegate.removeObject(keys[i]);
             } catch (Exception e) {
                 log.warn("Unexpected exception while notifiying a rollback to the cache adapter."
                         + "Consider upgrading your cache adapter to the latest version.  Cause: " + e);
@@ -0,0 +1,154 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.weigher.ReflectiveWeigher;
+import org.apache.ibatis.cache.weigher.Weigher;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * Lru cache decorator bounded by the estimated memory of its entries instead of their number.
+ * 按缓存项估算的内存大小淘汰近期最少使用的缓存项
+ *
+ * <pre>
+ * &lt;cache eviction="WEIGHTED"&gt;
+ *   &lt;property name="maxBytes" value="33554432"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ *
+ * @since 3.4.3
+ */
+public class WeightedLruCache implements Cache {
+
+    private final Cache delegate;
+    /**
+     * 按访问顺序记录每个 key 的权重
+     */
+    private final Map<Object, Long> weights = new LinkedHashMap<Object, Long>(16, .75F, true);
+    private long maxBytes = 16L * 1024 * 1024;
+    private long totalWeight;
+    private Weigher weigher = new ReflectiveWeigher();
+
+    public WeightedLruCache(Cache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Byte budget of the cache. Least recently used entries are evicted to stay under it.
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Fully qualified name of the {@link Weigher} used to estimate entry sizes.
+     */
+    public void setWeigher(String weigherClassName) {
+        try {
+            this.weigher = (Weigher) Resources.classForName(weigherClassName).newInstance();
+        } catch (Exception e) {
+            throw new CacheException("Could not instantiate cache weigher (" + weigherClassName + "). Cause: " + e, e);
+        }
+    }
+
+    public Weigher getWeigher() {
+        return weigher;
+    }
+
+    /**
+     * @return sum of the estimated sizes of the entries currently held
+     */
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        long weight = value == null ? 0 : Math.max(0, weigher.weigh(key, value));
+        if (weight > maxBytes) {
+            // 超过整个预算的缓存项不保存，也不会挤掉其他缓存项
+            removeObject(key);
+            return;
+        }
+        delegate.putObject(key, value);
+        Long previous = weights.put(key, weight);
+        if (previous != null) {
+            totalWeight -= previous;
+        }
+        totalWeight += weight;
+        evict();
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        // 修改 LinkedHashMap 中记录的顺序
+        weights.get(key); //touch
+        return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Long weight = weights.remove(key);
+        if (weight != null) {
+            totalWeight -= weight;
+        }
+        return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        weights.clear();
+        totalWeight = 0;
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Object, Long>> eldest = weights.entrySet().iterator();
+        while (totalWeight > maxBytes && eldest.hasNext()) {
+            Map.Entry<Object, Long> entry = eldest.next();
+            totalWeight -= entry.getValue();
+            eldest.remove();
+            delegate.removeObject(entry.getKey());
+        }
+    }
+
+}
@@ -0,0 +1,547 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A cache persisted in a memory-mapped file, so a restarted node comes up with its cache already filled.
+ *
+ * The file is an append-only log of put and remove records behind a small header. The header holds the checksum of
+ * the mapper that declared the cache (injected by the mapper builders as the {@code mapperChecksum} property); when
+ * it does not match on open the file is discarded, so entries never outlive a change to their statements. A record
+ * becomes visible only once its length is written, so a process killed in the middle of a put leaves the log
+ * readable up to the previous record. When the file is full the live records are compacted to the front, and if
+ * they still fill it the file is cleared. An entry larger than the whole file is not cached.
+ *
+ * Keys are stored with java serialization, entries with a non serializable key are kept in memory only. Values use
+ * the configured {@link CacheCodec}; a value that can no longer be decoded (e.g. the class changed) is a miss.
+ *
+ * The file is locked while the cache uses it. Set {@code directory} to a location owned by the application: the
+ * default, {@code <java.io.tmpdir>/mybatis-cache}, is shared by every process of the host. When the file can not be
+ * opened or is already in use, for instance by another process or another {@code Configuration} of the same JVM,
+ * the cache logs a warning and keeps its entries in memory only until it is closed or initialized again.
+ *
+ * <pre>
+ * &lt;cache type="MAPPED_FILE"&gt;
+ *   &lt;property name="directory" value="/var/cache/myapp"/&gt;
+ *   &lt;property name="maxFileSize" value="268435456"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ *
+ * @since 3.4.3
+ */
+public class MappedFileCache implements Cache, InitializingObject {
+
+    private static final Log log = LogFactory.getLog(MappedFileCache.class);
+
+    private static final int MAGIC = 0x4D424346; // "MBCF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 128;
+    private static final int MAX_CHECKSUM_LENGTH = HEADER_SIZE - 10;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    /**
+     * 记录头: int 记录长度 + byte 记录类型 + int 键长度
+     */
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String id;
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 持久化的缓存项: 键 -> 记录在文件中的偏移量
+     */
+    private final Map<Object, Integer> index = new HashMap<Object, Integer>();
+    /**
+     * 键无法序列化的缓存项只保存在内存中
+     */
+    private final Map<Object, byte[]> transientEntries = new HashMap<Object, byte[]>();
+    private final CacheCodec keyCodec = new JdkSerializationCodec();
+
+    private String directory = System.getProperty("java.io.tmpdir") + File.separator + "mybatis-cache";
+    private long maxFileSize = 64L * 1024 * 1024;
+    private String mapperChecksum = "";
+    private CacheCodec codec = new JdkSerializationCodec();
+
+    private File file;
+    private RandomAccessFile raf;
+    private FileLock fileLock;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    /**
+     * 文件无法打开(如已被其他进程或其他 Configuration 锁定)时，所有缓存项只保存在内存中
+     */
+    private boolean memoryOnly;
+
+    public MappedFileCache(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public void initialize() {
+        lock.lock();
+        try {
+            close();
+            open();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return index.size() + transientEntries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        if (value == null) {
+            removeObject(key);
+            return;
+        }
+        byte[] data = codec.encode(value);
+        byte[] keyData = encodeKey(key);
+        lock.lock();
+        try {
+            ensureOpen();
+            if (keyData == null || memoryOnly) {
+                removeEntry(key, false);
+                transientEntries.put(key, data);
+                return;
+            }
+            int offset = append(PUT, keyData, data);
+            if (offset < 0) {
+                // 写入失败时记录删除，避免重启后读到旧值
+                log.debug("Entry too large for cache '" + id + "', not caching it");
+                removeEntry(key, true);
+                return;
+            }
+            transientEntries.remove(key);
+            index.put(key, offset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        byte[] data;
+        lock.lock();
+        try {
+            ensureOpen();
+            Integer offset = index.get(key);
+            if (offset == null) {
+                data = transientEntries.get(key);
+                if (data == null) {
+                    return null;
+                }
+            } else {
+                int recordLength = buffer.getInt(offset);
+                int keyLength = buffer.getInt(offset + 5);
+                data = new byte[recordLength - RECORD_HEADER_SIZE - keyLength];
+                read(offset + RECORD_HEADER_SIZE + keyLength, data);
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return codec.decode(data);
+        } catch (CacheException e) {
+            log.warn("Discarding undecodable entry of cache '" + id + "'. Cause: " + e);
+            removeObject(key);
+            return null;
+        }
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        lock.lock();
+        try {
+            ensureOpen();
+            removeEntry(key, true);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            ensureOpen();
+            reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    /**
+     * Releases the file. The cache reopens it on next use.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (raf != null) {
+                buffer.force();
+                try {
+                    fileLock.release();
+                    raf.close();
+                } catch (IOException e) {
+                    log.warn("Error closing cache file " + file + ". Cause: " + e);
+                }
+            }
+            raf = null;
+            fileLock = null;
+            buffer = null;
+            memoryOnly = false;
+            index.clear();
+            transientEntries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Directory of the cache file. Should be set to a location of the application, as the default temporary
+     * directory is shared by every process of the host.
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public String getMapperChecksum() {
+        return mapperChecksum;
+    }
+
+    /**
+     * Checksum of the mapper that declared this cache. Set by the mapper builders.
+     */
+    public void setMapperChecksum(String mapperChecksum) {
+        this.mapperChecksum = mapperChecksum == null ? "" : mapperChecksum;
+    }
+
+    /**
+     * Fully qualified name of the {@link CacheCodec} used to encode values.
+     */
+    public void setCodec(String codecClassName) {
+        try {
+            this.codec = (CacheCodec) Resources.classForName(codecClassName).newInstance();
+        } catch (Exception e) {
+            throw new CacheException("Could not instantiate cache codec (" + codecClassName + "). Cause: " + e, e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private void ensureOpen() {
+        if (buffer == null && !memoryOnly) {
+            open();
+        }
+    }
+
+    private void open() {
+        if (maxFileSize <= HEADER_SIZE + RECORD_HEADER_SIZE || maxFileSize > Integer.MAX_VALUE) {
+            throw new CacheException("Invalid maxFileSize " + maxFileSize + " for cache '" + id + "'");
+        }
+        File dir = new File(directory);
+        file = new File(dir, id.replaceAll("[^A-Za-z0-9._-]", "_") + ".cache");
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Could not create cache directory " + dir);
+            }
+            raf = new RandomAccessFile(file, "rw");
+            try {
+                fileLock = raf.getChannel().tryLock();
+            } catch (OverlappingFileLockException e) {
+                fileLock = null;
+            }
+            if (fileLock == null) {
+                throw new IOException("Cache file " + file + " is already in use");
+            }
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, maxFileSize);
+        } catch (IOException e) {
+            // 打开失败不影响查询，退化为内存缓存
+            log.warn("Could not open cache file " + file + ", keeping the entries of cache '" + id
+                    + "' in memory only. Set its 'directory' property to a location used by this application only. Cause: " + e);
+            releaseFile();
+            memoryOnly = true;
+            return;
+        }
+        if (headerMatches()) {
+            recover();
+        } else {
+            reset();
+        }
+    }
+
+    private void releaseFile() {
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+            }
+            if (raf != null) {
+                raf.close();
+            }
+        } catch (IOException e) {
+            log.debug("Error closing cache file " + file + ". Cause: " + e);
+        }
+        fileLock = null;
+        raf = null;
+    }
+
+    private boolean headerMatches() {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return false;
+        }
+        byte[] expected = checksumBytes();
+        int length = buffer.getShort(8);
+        if (length != expected.length) {
+            return false;
+        }
+        byte[] actual = new byte[length];
+        read(10, actual);
+        return Arrays.equals(expected, actual);
+    }
+
+    /**
+     * 重新扫描日志，重建内存索引
+     */
+    private void recover() {
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int recordLength = buffer.getInt(position);
+            if (recordLength < RECORD_HEADER_SIZE || position + recordLength > buffer.capacity()) {
+                break;
+            }
+            byte kind = buffer.get(position + 4);
+            int keyLength = buffer.getInt(position + 5);
+            if (keyLength < 0 || keyLength > recordLength - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] keyData = new byte[keyLength];
+            read(position + RECORD_HEADER_SIZE, keyData);
+            Object key;
+            try {
+                key = keyCodec.decode(keyData);
+            } catch (CacheException e) {
+                log.warn("Discarding cache file " + file + ". Cause: " + e);
+                reset();
+                return;
+            }
+            index.remove(key);
+            if (kind == PUT) {
+                index.put(key, position);
+            }
+            position += recordLength;
+        }
+        writePosition = position;
+        terminate(writePosition);
+        if (log.isDebugEnabled()) {
+            log.debug("Recovered " + index.size() + " entries of cache '" + id + "' from " + file);
+        }
+    }
+
+    private void reset() {
+        index.clear();
+        transientEntries.clear();
+        if (buffer == null) {
+            return;
+        }
+        byte[] checksum = checksumBytes();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putShort(8, (short) checksum.length);
+        buffer.position(10);
+        buffer.put(checksum);
+        writePosition = HEADER_SIZE;
+        terminate(writePosition);
+    }
+
+    private void removeEntry(Object key, boolean logRemoval) {
+        transientEntries.remove(key);
+        Integer offset = index.remove(key);
+        if (offset != null) {
+            if (logRemoval) {
+                int keyLength = buffer.getInt(offset + 5);
+                byte[] keyData = new byte[keyLength];
+                read(offset + RECORD_HEADER_SIZE, keyData);
+                append(REMOVE, keyData, new byte[0]);
+            }
+        }
+    }
+
+    /**
+     * 追加一条记录，空间不足时先压缩日志
+     *
+     * @return 记录的偏移量，无法写入时返回 -1
+     */
+    private int append(byte kind, byte[] keyData, byte[] data) {
+        int recordLength = RECORD_HEADER_SIZE + keyData.length + data.length;
+        if (HEADER_SIZE + recordLength > buffer.capacity()) {
+            // 超过文件容量的记录直接拒绝，不影响已有的记录
+            return -1;
+        }
+        if (writePosition + recordLength > buffer.capacity()) {
+            compact();
+            if (writePosition + recordLength > buffer.capacity()) {
+                if (kind == REMOVE) {
+                    // the entry is gone from the compacted log already
+                    return -1;
+                }
+                reset();
+            }
+        }
+        int offset = writePosition;
+        buffer.position(offset + 4);
+        buffer.put(kind);
+        buffer.putInt(keyData.length);
+        buffer.put(keyData);
+        buffer.put(data);
+        writePosition = offset + recordLength;
+        terminate(writePosition);
+        // the length is written last and makes the record visible
+        buffer.putInt(offset, recordLength);
+        return offset;
+    }
+
+    /**
+     * 将存活的记录复制到日志头部，丢弃被覆盖和删除的记录
+     */
+    private void compact() {
+        List<Object> keys = new ArrayList<Object>(index.size());
+        List<byte[]> records = new ArrayList<byte[]>(index.size());
+        for (Map.Entry<Object, Integer> entry : index.entrySet()) {
+            int offset = entry.getValue();
+            byte[] record = new byte[buffer.getInt(offset)];
+            read(offset, record);
+            keys.add(entry.getKey());
+            records.add(record);
+        }
+        Map<Object, byte[]> retained = new HashMap<Object, byte[]>(transientEntries);
+        reset();
+        transientEntries.putAll(retained);
+        for (int i = 0; i < records.size(); i++) {
+            byte[] record = records.get(i);
+            buffer.position(writePosition + 4);
+            buffer.put(record, 4, record.length - 4);
+            buffer.putInt(writePosition, record.length);
+            index.put(keys.get(i), writePosition);
+            writePosition += record.length;
+        }
+        terminate(writePosition);
+    }
+
+    /**
+     * 在日志末尾写入长度 0，保证扫描在此处结束
+     */
+    private void terminate(int position) {
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    private void read(int position, byte[] target) {
+        buffer.position(position);
+        buffer.get(target);
+    }
+
+    private byte[] encodeKey(Object key) {
+        try {
+            return keyCodec.encode(key);
+        } catch (CacheException e) {
+            return null;
+        }
+    }
+
+    private byte[] checksumBytes() {
+        byte[] checksum = mapperChecksum.getBytes(UTF_8);
+        if (checksum.length > MAX_CHECKSUM_LENGTH) {
+            checksum = Integer.toHexString(mapperChecksum.hashCode()).getBytes(UTF_8);
+        }
+        return checksum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache)) {
+            return false;
+        }
+        return id.equals(((Cache) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * A cache that keeps its values outside of the java heap.
+ *
+ * Values are encoded with a {@link CacheCodec} and copied into fixed size blocks carved out of direct
+ * {@link ByteBuffer} slabs. Only the keys and a small index entry per value stay on the heap, so large read-mostly
+ * results do not add to old generation size or GC pause times. When the configured capacity is used up the least
+ * recently used entries are evicted.
+ *
+ * Like any custom cache type it is not wrapped by the standard decorators, so it is thread safe and always returns
+ * a fresh copy of the cached value.
+ *
+ * <pre>
+ * &lt;cache type="OFF_HEAP"&gt;
+ *   &lt;property name="capacity" value="1073741824"/&gt;
+ * &lt;/cache&gt;
+ * </pre>
+ *
+ * @since 3.4.3
+ */
+public class OffHeapCache implements Cache, InitializingObject {
+
+    private static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+    private static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    private final String id;
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 按访问顺序排列的索引，头部是最近最少使用的缓存项
+     */
+    private final Map<Object, Entry> index = new LinkedHashMap<Object, Entry>(16, .75F, true);
+
+    private long capacity = DEFAULT_CAPACITY;
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    private int slabSize = DEFAULT_SLAB_SIZE;
+    private CacheCodec codec = new JdkSerializationCodec();
+
+    private ByteBuffer[] slabs;
+    private int blocksPerSlab;
+    private int totalBlocks;
+    /**
+     * 空闲块栈，以及尚未使用过的块的起始编号
+     */
+    private int[] freeBlocks;
+    private int freeCount;
+    private int nextUnusedBlock;
+
+    public OffHeapCache(String id) {
+        this.id = id;
+        layout();
+    }
+
+    @Override
+    public void initialize() {
+        lock.lock();
+        try {
+            layout();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void layout() {
+        if (blockSize <= 0 || slabSize < blockSize || capacity < blockSize) {
+            throw new CacheException("Invalid off-heap cache layout for '" + id + "': capacity=" + capacity
+                    + ", slabSize=" + slabSize + ", blockSize=" + blockSize);
+        }
+        blocksPerSlab = slabSize / blockSize;
+        long blocks = capacity / blockSize;
+        if (blocks > Integer.MAX_VALUE) {
+            throw new CacheException("Off-heap cache '" + id + "' capacity " + capacity + " needs too many blocks, increase the blockSize.");
+        }
+        totalBlocks = (int) blocks;
+        slabs = new ByteBuffer[(totalBlocks + blocksPerSlab - 1) / blocksPerSlab];
+        freeBlocks = new int[16];
+        freeCount = 0;
+        nextUnusedBlock = 0;
+        index.clear();
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public int getSize() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        if (value == null) {
+            removeObject(key);
+            return;
+        }
+        byte[] data = codec.encode(value);
+        int needed = Math.max(1, (data.length + blockSize - 1) / blockSize);
+        lock.lock();
+        try {
+            release(index.remove(key));
+            if (needed > totalBlocks) {
+                // larger than the whole cache, never stored
+                return;
+            }
+            Iterator<Entry> eldest = index.values().iterator();
+            while (availableBlocks() < needed) {
+                release(eldest.next());
+                eldest.remove();
+            }
+            int[] blocks = new int[needed];
+            for (int i = 0; i < needed; i++) {
+                int block = allocate();
+                blocks[i] = block;
+                int offset = i * blockSize;
+                ByteBuffer slab = slabFor(block);
+                slab.position(offsetOf(block));
+                slab.put(data, offset, Math.min(blockSize, data.length - offset));
+            }
+            index.put(key, new Entry(blocks, data.length));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        byte[] data;
+        lock.lock();
+        try {
+            Entry entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            data = new byte[entry.length];
+            for (int i = 0; i < entry.blocks.length; i++) {
+                int block = entry.blocks[i];
+                int offset = i * blockSize;
+                ByteBuffer slab = slabs[block / blocksPerSlab];
+                slab.position(offsetOf(block));
+                slab.get(data, offset, Math.min(blockSize, data.length - offset));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return codec.decode(data);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        lock.lock();
+        try {
+            release(index.remove(key));
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            index.clear();
+            // slabs already allocated are kept and reused
+            freeCount = 0;
+            nextUnusedBlock = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+        return null;
+    }
+
+    /**
+     * @return bytes of off-heap memory held by cached values, counted in whole blocks
+     */
+    public long getUsedBytes() {
+        lock.lock();
+        try {
+            return (long) (totalBlocks - availableBlocks()) * blockSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Maximum number of bytes of off-heap memory used by this cache.
+     */
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Allocation unit. Each value uses at least one block.
+     */
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public int getSlabSize() {
+        return slabSize;
+    }
+
+    /**
+     * Size of each direct buffer. Slabs are allocated on demand.
+     */
+    public void setSlabSize(int slabSize) {
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Fully qualified name of the {@link CacheCodec} used to encode values.
+     */
+    public void setCodec(String codecClassName) {
+        try {
+            this.codec = (CacheCodec) Resources.classForName(codecClassName).newInstance();
+        } catch (Exception e) {
+            throw new CacheException("Could not instantiate cache codec (" + codecClassName + "). Cause: " + e, e);
+        }
+    }
+
+    private int availableBlocks() {
+        return freeCount + (totalBlocks - nextUnusedBlock);
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeBlocks[--freeCount];
+        }
+        return nextUnusedBlock++;
+    }
+
+    private void release(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (freeCount + entry.blocks.length > freeBlocks.length) {
+            int[] grown = new int[Math.max(freeBlocks.length << 1, freeCount + entry.blocks.length)];
+            System.arraycopy(freeBlocks, 0, grown, 0, freeCount);
+            freeBlocks = grown;
+        }
+        for (int block : entry.blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    private ByteBuffer slabFor(int block) {
+        int slabIndex = block / blocksPerSlab;
+        ByteBuffer slab = slabs[slabIndex];
+        if (slab == null) {
+            int blocksInSlab = Math.min(blocksPerSlab, totalBlocks - slabIndex * blocksPerSlab);
+            slab = ByteBuffer.allocateDirect(blocksInSlab * blockSize);
+            slabs[slabIndex] = slab;
+        }
+        return slab;
+    }
+
+    private int offsetOf(int block) {
+        return (block % blocksPerSlab) * blockSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache)) {
+            return false;
+        }
+        return id.equals(((Cache) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    private static class Entry {
+        final int[] blocks;
+        final int length;
+
+        Entry(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Publishes the invalidations committed on this node and applies the ones received from other nodes to the caches
+ * of the {@link Configuration}.
+ *
+ * @since 3.4.3
+ */
+public class CacheInvalidationBus implements InvalidationListener {
+
+    private static final Log log = LogFactory.getLog(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Configuration configuration;
+    private final InvalidationTransport transport;
+
+    public CacheInvalidationBus(Configuration configuration, InvalidationTransport transport) {
+        this.configuration = configuration;
+        this.transport = transport;
+        transport.start(this);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public InvalidationTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Tells the other nodes that a cache was cleared on commit.
+     */
+    public void publishClear(String cacheId) {
+        publish(new CacheInvalidationEvent(nodeId, cacheId, null));
+    }
+
+    /**
+     * Tells the other nodes that tables were written.
+     */
+    public void publishTables(Collection<String> tables) {
+        publish(new CacheInvalidationEvent(nodeId, null, tables));
+    }
+
+    @Override
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (nodeId.equals(event.getOrigin())) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Received " + event);
+        }
+        if (!event.getTables().isEmpty()) {
+            configuration.getTableVersions().invalidate(event.getTables());
+        }
+        if (event.getCacheId() != null && configuration.hasCache(event.getCacheId())) {
+            configuration.getCache(event.getCacheId()).clear();
+        }
+    }
+
+    public void close() {
+        transport.close();
+    }
+
+    private void publish(CacheInvalidationEvent event) {
+        try {
+            transport.publish(event);
+        } catch (RuntimeException e) {
+            // the local commit has succeeded already, other nodes may serve stale entries
+            log.error("Error publishing " + event + ". Cause: " + e, e);
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Describes second level cache entries invalidated by a committed transaction.
+ *
+ * An event either clears a whole namespace cache, or invalidates the entries depending on a set of tables (see
+ * {@link org.apache.ibatis.cache.TableVersions}).
+ *
+ * @since 3.4.3
+ */
+public class CacheInvalidationEvent implements Serializable {
+
+    private static final long serialVersionUID = -2837461982374650128L;
+
+    private final String origin;
+    private final String cacheId;
+    private final Set<String> tables;
+
+    public CacheInvalidationEvent(String origin, String cacheId, Collection<String> tables) {
+        this.origin = origin;
+        this.cacheId = cacheId;
+        this.tables = tables == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<String>(tables));
+    }
+
+    /**
+     * @return id of the node that committed the write
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return id of the cache to clear, null if the event only invalidates tables
+     */
+    public String getCacheId() {
+        return cacheId;
+    }
+
+    /**
+     * @return lower case names of the tables written, may be empty
+     */
+    public Set<String> getTables() {
+        return tables;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidationEvent{origin=" + origin + ", cacheId=" + cacheId + ", tables=" + tables + "}";
+    }
+
+}
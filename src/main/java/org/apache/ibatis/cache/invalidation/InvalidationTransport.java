@@ -0,0 +1,44 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+/**
+ * Carries invalidation events between nodes, e.g. over a message broker or multicast.
+ *
+ * {@link #publish(CacheInvalidationEvent)} is called by the committing thread right after the local caches were
+ * updated, so implementations should hand the event off rather than block. Events published by a node may be
+ * delivered back to it, they are ignored by their origin.
+ *
+ * Implementations must be thread safe. To be configured with the {@code cacheInvalidationTransport} setting they need
+ * a public no-arg constructor.
+ *
+ * @since 3.4.3
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Starts delivering events from other nodes to the listener.
+     */
+    void start(InvalidationListener listener);
+
+    void publish(CacheInvalidationEvent event);
+
+    /**
+     * Stops delivering events.
+     */
+    void close();
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers events synchronously to every transport of the same channel in this JVM.
+ *
+ * Meant for tests and for several configurations sharing one process.
+ *
+ * @since 3.4.3
+ */
+public class LoopbackTransport implements InvalidationTransport {
+
+    private static final Map<String, List<InvalidationListener>> channels = new ConcurrentHashMap<String, List<InvalidationListener>>();
+
+    private final String channel;
+    private InvalidationListener listener;
+
+    public LoopbackTransport() {
+        this("default");
+    }
+
+    public LoopbackTransport(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(InvalidationListener listener) {
+        this.listener = listener;
+        subscribers(channel).add(listener);
+    }
+
+    @Override
+    public void publish(CacheInvalidationEvent event) {
+        for (InvalidationListener subscriber : subscribers(channel)) {
+            subscriber.onInvalidation(event);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (listener != null) {
+            subscribers(channel).remove(listener);
+            listener = null;
+        }
+    }
+
+    private static List<InvalidationListener> subscribers(String channel) {
+        synchronized (channels) {
+            List<InvalidationListener> subscribers = channels.get(channel);
+            if (subscribers == null) {
+                subscribers = new CopyOnWriteArrayList<InvalidationListener>();
+                channels.put(channel, subscribers);
+            }
+            return subscribers;
+        }
+    }
+
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.weigher;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+
+/**
+ * Default {@link Weigher}. Walks the cached value using the {@link Reflector} metadata of each bean class and adds
+ * up approximate shallow sizes (64-bit JVM with compressed references).
+ *
+ * Large collections are sampled: only {@value #SAMPLE_SIZE} evenly spaced elements are visited and their average is
+ * extrapolated, so weighing a 100,000 row result costs about as much as weighing a small one. A read/write cache
+ * hands this weigher the serialized form of the value, which is weighed exactly.
+ *
+ * Lazy loading proxies are not walked, as reading their properties would trigger the load.
+ *
+ * @since 3.4.3
+ */
+public class ReflectiveWeigher implements Weigher {
+
+    static final int SAMPLE_SIZE = 32;
+    private static final int MAX_DEPTH = 16;
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    /**
+     * 记录每个 JavaBean 类型自身(不含引用对象)的大小
+     */
+    private final ConcurrentMap<Class<?>, BeanShape> shapes = new ConcurrentHashMap<Class<?>, BeanShape>();
+
+    @Override
+    public long weigh(Object key, Object value) {
+        IdentityHashMap<Object, Object> visited = new IdentityHashMap<Object, Object>();
+        return weigh(key, visited, 0) + weigh(value, visited, 0);
+    }
+
+    private long weigh(Object value, IdentityHashMap<Object, Object> visited, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            // String 对象 + char[]/byte[] 数组
+            return align(OBJECT_HEADER + 8) + align(OBJECT_HEADER + 2L * ((String) value).length());
+        }
+        if (type == Integer.class || type == Long.class || type == Boolean.class || type == Short.class
+                || type == Byte.class || type == Character.class || type == Double.class || type == Float.class) {
+            return OBJECT_HEADER + 8;
+        }
+        if (value instanceof Enum || value instanceof Class) {
+            // shared constants
+            return 0;
+        }
+        if (visited.put(value, value) != null || depth > MAX_DEPTH) {
+            return 0;
+        }
+        if (value instanceof Date) {
+            return OBJECT_HEADER + 16;
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return align(OBJECT_HEADER + 24) + weighBigInteger(decimal.unscaledValue());
+        }
+        if (value instanceof BigInteger) {
+            return weighBigInteger((BigInteger) value);
+        }
+        if (type.isArray()) {
+            return weighArray(value, type.getComponentType(), visited, depth);
+        }
+        if (value instanceof Collection) {
+            return weighCollection((Collection<?>) value, visited, depth);
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long size = align(OBJECT_HEADER + 32) + align(OBJECT_HEADER + (long) REFERENCE * Math.max(16, map.size() * 4 / 3));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += align(OBJECT_HEADER + 16) + weigh(entry.getKey(), visited, depth + 1) + weigh(entry.getValue(), visited, depth + 1);
+            }
+            return size;
+        }
+        if (type.getName().startsWith("java.")) {
+            // other JDK types are not walked
+            return OBJECT_HEADER + 16;
+        }
+        return weighBean(value, type, visited, depth);
+    }
+
+    private long weighArray(Object array, Class<?> componentType, IdentityHashMap<Object, Object> visited, int depth) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(OBJECT_HEADER + (long) length * primitiveSize(componentType));
+        }
+        long size = align(OBJECT_HEADER + (long) length * REFERENCE);
+        if (length <= SAMPLE_SIZE) {
+            for (int i = 0; i < length; i++) {
+                size += weigh(Array.get(array, i), visited, depth + 1);
+            }
+            return size;
+        }
+        long sampled = 0;
+        int step = length / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sampled += weigh(Array.get(array, i * step), visited, depth + 1);
+        }
+        return size + sampled * length / SAMPLE_SIZE;
+    }
+
+    private long weighCollection(Collection<?> collection, IdentityHashMap<Object, Object> visited, int depth) {
+        int count = collection.size();
+        // ArrayList 的数组，或者 LinkedList/HashSet 的节点
+        long size = align(OBJECT_HEADER + 16) + align(OBJECT_HEADER + (long) REFERENCE * count)
+                + (collection instanceof RandomAccess ? 0 : (long) count * align(OBJECT_HEADER + 16));
+        if (count <= SAMPLE_SIZE) {
+            for (Object element : collection) {
+                size += weigh(element, visited, depth + 1);
+            }
+            return size;
+        }
+        long sampled = 0;
+        int step = count / SAMPLE_SIZE;
+        if (collection instanceof List && collection instanceof RandomAccess) {
+            List<?> list = (List<?>) collection;
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                sampled += weigh(list.get(i * step), visited, depth + 1);
+            }
+        } else {
+            int index = 0;
+            int taken = 0;
+            for (Object element : collection) {
+                if (index++ % step == 0) {
+                    sampled += weigh(element, visited, depth + 1);
+                    if (++taken == SAMPLE_SIZE) {
+                        break;
+                    }
+                }
+            }
+        }
+        return size + sampled * count / SAMPLE_SIZE;
+    }
+
+    private long weighBean(Object bean, Class<?> type, IdentityHashMap<Object, Object> visited, int depth) {
+        BeanShape shape = shapeOf(type);
+        long size = shape.shallowSize;
+        if (bean instanceof WriteReplaceInterface) {
+            // lazy loading proxy
+            return size;
+        }
+        for (String property : shape.referenceProperties) {
+            try {
+                size += weigh(shape.reflector.getGetInvoker(property).invoke(bean, null), visited, depth + 1);
+            } catch (Exception e) {
+                // not readable, only the reference is counted
+            }
+        }
+        return size;
+    }
+
+    private BeanShape shapeOf(Class<?> type) {
+        BeanShape shape = shapes.get(type);
+        if (shape == null) {
+            shape = new BeanShape(reflectorFactory.findForClass(type));
+            shapes.putIfAbsent(type, shape);
+        }
+        return shape;
+    }
+
+    private static long weighBigInteger(BigInteger value) {
+        return align(OBJECT_HEADER + 24) + align(OBJECT_HEADER + 4L * ((value.bitLength() + 31) / 32));
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static class BeanShape {
+        final Reflector reflector;
+        final long shallowSize;
+        final String[] referenceProperties;
+
+        BeanShape(Reflector reflector) {
+            this.reflector = reflector;
+            String[] properties = reflector.getGetablePropertyNames();
+            long size = OBJECT_HEADER;
+            int references = 0;
+            String[] names = new String[properties.length];
+            for (String property : properties) {
+                Class<?> type = reflector.getGetterType(property);
+                if (type.isPrimitive()) {
+                    size += primitiveSize(type);
+                } else {
+                    size += REFERENCE;
+                    names[references++] = property;
+                }
+            }
+            this.shallowSize = align(size);
+            this.referenceProperties = new String[references];
+            System.arraycopy(names, 0, referenceProperties, 0, references);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.cache.weigher;
+
+/**
+ * Estimates how many bytes of heap a cache entry retains.
+ *
+ * Used by {@link org.apache.ibatis.cache.decorators.WeightedLruCache} to keep a namespace cache under a byte budget.
+ * The estimate is taken once, when the entry is put, so it should be cheap and deterministic rather than exact.
+ *
+ * Implementations must be thread safe and must have a public no-arg constructor.
+ *
+ * @since 3.4.3
+ */
+public interface Weigher {
+
+    /**
+     * @param key the cache key
+     * @param value the cached value, never null
+     * @return estimated retained size in bytes, never negative
+     */
+    long weigh(Object key, Object value);
+
+}
@@ -16,6 +16,7 @@
 package org.apache.ibatis.cursor.defaults;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.instrumentation.StatementTrace;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetWrapper;
 import org.apache.ibatis.mapping.ResultMap;
@@ -43,6 +44,10 @@ public class DefaultCursor<T> implements Cursor<T> {
     private final ResultSetWrapper rsw;
     private final RowBounds rowBounds;
     private final ObjectWrapperResultHandler<T> objectWrapperResultHandler = new ObjectWrapperResultHandler<T>();
+    /**
+     * 没有配置 ExecutionListener 时为 null
+     */
+    private final StatementTrace trace;
 
     private final CursorIterator cursorIterator = new CursorIterator();
     private boolean iteratorRetrieved;
@@ -71,10 +76,19 @@ public class DefaultCursor<T> implements Cursor<T> {
     }
 
     public DefaultCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw, RowBounds rowBounds) {
+        this(resultSetHandler, resultMap, rsw, rowBounds, null);
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public DefaultCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw, RowBounds rowBounds,
+                         StatementTrace trace) {
         this.resultSetHandler = resultSetHandler;
         this.resultMap = resultMap;
         this.rsw = rsw;
         this.rowBounds = rowBounds;
+        this.trace = trace;
     }
 
     @Override
@@ -121,6 +135,10 @@ public class DefaultCursor<T> implements Cursor<T> {
         } catch (SQLException e) {
             // ignore
         }
+        if (trace != null) {
+            // 游标关闭或读完时才通知 ExecutionListener，包含读取的行数和各批次的耗时
+            trace.cursorClosed();
+        }
     }
 
     protected T fetchNextUsingRowBound() {
@@ -138,9 +156,24 @@ public class DefaultCursor<T> implements Cursor<T> {
 
         try {
             status = CursorStatus.OPEN;
-            resultSetHandler.handleRowValues(rsw, resultMap, objectWrapperResultHandler, RowBounds.DEFAULT, null);
+            if (trace == null) {
+                resultSetHandler.handleRowValues(rsw, resultMap, objectWrapperResultHandler, RowBounds.DEFAULT, null);
+            } else {
+                long fetchTime = trace.getFetchTime();
+                long start = System.nanoTime();
+                resultSetHandler.handleRowValues(rsw, resultMap, objectWrapperResultHandler, RowBounds.DEFAULT, null);
+                trace.cursorFetched(System.nanoTime() - start, fetchTime);
+            }
         } catch (SQLException e) {
+            if (trace != null) {
+                trace.failed(e);
+            }
             throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            if (trace != null) {
+                trace.failed(e);
+            }
+            throw e;
         }
 
         T next = objectWrapperResultHandler.result;
@@ -17,6 +17,8 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 用于管理 PooledConnection 对象状态的组件
@@ -25,6 +27,15 @@ import java.util.List;
 public class PoolState {
 
     protected PooledDataSource dataSource;
+    /**
+     * 保护连接池状态的锁。使用 j.u.c 的锁而不是对象监视器，
+     * 这样虚拟线程在等待连接时不会钉住（pin）其载体线程
+     */
+    protected final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 有连接归还到空闲集合时发出信号，等待连接的线程在此条件上阻塞
+     */
+    protected final Condition connectionReturned = lock.newCondition();
     /**
      * 空闲的 PooledConnection 集合
      */
@@ -72,50 +83,108 @@ public class PoolState {
         this.dataSource = dataSource;
     }
 
-    public synchronized long getRequestCount() {
-        return requestCount;
+    public long getRequestCount() {
+        lock.lock();
+        try {
+            return requestCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageRequestTime() {
-        return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+    public long getAverageRequestTime() {
+        lock.lock();
+        try {
+            return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageWaitTime() {
-        return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
-
+    public long getAverageWaitTime() {
+        lock.lock();
+        try {
+            return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getHadToWaitCount() {
-        return hadToWaitCount;
+    public long getHadToWaitCount() {
+        lock.lock();
+        try {
+            return hadToWaitCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getBadConnectionCount() {
-        return badConnectionCount;
+    public long getBadConnectionCount() {
+        lock.lock();
+        try {
+            return badConnectionCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getClaimedOverdueConnectionCount() {
-        return claimedOverdueConnectionCount;
+    public long getClaimedOverdueConnectionCount() {
+        lock.lock();
+        try {
+            return claimedOverdueConnectionCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageOverdueCheckoutTime() {
-        return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+    public long getAverageOverdueCheckoutTime() {
+        lock.lock();
+        try {
+            return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized long getAverageCheckoutTime() {
-        return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+    public long getAverageCheckoutTime() {
+        lock.lock();
+        try {
+            return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
 
-    public synchronized int getIdleConnectionCount() {
-        return idleConnections.size();
+    public int getIdleConnectionCount() {
+        lock.lock();
+        try {
+            return idleConnections.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized int getActiveConnectionCount() {
-        return activeConnections.size();
+    public int getActiveConnectionCount() {
+        lock.lock();
+        try {
+            return activeConnections.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized String toString() {
+    public String toString() {
+        lock.lock();
+        try {
+            return describe();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String describe() {
         StringBuilder builder = new StringBuilder();
         builder.append("\n===CONFINGURATION==============================================");
         builder.append("\n jdbcDriver                     ").append(dataSource.getDriver());
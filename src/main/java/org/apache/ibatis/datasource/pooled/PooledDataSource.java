@@ -24,6 +24,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -40,6 +41,8 @@ import org.apache.ibatis.logging.LogFactory;
  *  这里的代理对象是通过 JDK 动态代理产生的
  *
  * This is a simple, synchronous, thread-safe database connection pool.
+ * Pool state is guarded by a {@link java.util.concurrent.locks.ReentrantLock} rather than a monitor,
+ * so virtual threads waiting for a connection do not pin their carrier thread.
  *
  * @author Clinton Begin
  */
@@ -329,7 +332,8 @@ public class PooledDataSource implements DataSource {
      * Closes all active and idle connections in the pool
      */
     public void forceCloseAll() {
-        synchronized (state) {
+        state.lock.lock();
+        try {
             // 更新当前连接池的标识
             expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
             for (int i = state.activeConnections.size(); i > 0; i--) {
@@ -365,6 +369,8 @@ public class PooledDataSource implements DataSource {
                     // ignore
                 }
             }
+        } finally {
+            state.lock.unlock();
         }
         if (log.isDebugEnabled()) {
             log.debug("PooledDataSource forcefully closed/removed all connections.");
@@ -386,7 +392,8 @@ public class PooledDataSource implements DataSource {
      */
     protected void pushConnection(PooledConnection conn) throws SQLException {
 
-        synchronized (state) {
+        state.lock.lock();
+        try {
             // 从activeConnections 集合中移除该 PooledConnection 对象
             state.activeConnections.remove(conn);
             if (conn.isValid()) {
@@ -411,7 +418,7 @@ public class PooledDataSource implements DataSource {
                         log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
                     }
                     // 唤醒阻塞等待的线程
-                    state.notifyAll();
+                    state.connectionReturned.signalAll();
                 } else {
                     // 空闲连接数已达到 上限或 PooledConnection 对象并不属于该连接池
                     // 累积 checkout 时长
@@ -434,6 +441,8 @@ public class PooledDataSource implements DataSource {
                 }
                 state.badConnectionCount++;
             }
+        } finally {
+            state.lock.unlock();
         }
     }
 
@@ -445,7 +454,8 @@ public class PooledDataSource implements DataSource {
 
         while (conn == null) {
             // 同步
-            synchronized (state) {
+            state.lock.lock();
+            try {
                 // 检测空闲连接
                 if (!state.idleConnections.isEmpty()) {
                     // Pool has available connection
@@ -510,8 +520,12 @@ public class PooledDataSource implements DataSource {
                                     log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
                                 }
                                 long wt = System.currentTimeMillis();
-                                // 阻塞等待
-                                state.wait(poolTimeToWait);
+                                // 阻塞等待，与 Object.wait(0) 一致，poolTimeToWait <= 0 表示一直等待
+                                if (poolTimeToWait > 0) {
+                                    state.connectionReturned.await(poolTimeToWait, TimeUnit.MILLISECONDS);
+                                } else {
+                                    state.connectionReturned.await();
+                                }
                                 // 统计累积的等待时间
                                 state.accumulatedWaitTime += System.currentTimeMillis() - wt;
                             } catch (InterruptedException e) {
@@ -550,6 +564,8 @@ public class PooledDataSource implements DataSource {
                         }
                     }
                 }
+            } finally {
+                state.lock.unlock();
             }
 
         }
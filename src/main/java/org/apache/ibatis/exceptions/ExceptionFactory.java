@@ -26,8 +26,16 @@ public class ExceptionFactory {
         // Prevent Instantiation
     }
 
+    /**
+     * 用当前线程的 ErrorContext 拼装异常信息，之后重置 ErrorContext
+     */
     public static RuntimeException wrapException(String message, Exception e) {
-        return new PersistenceException(ErrorContext.instance().message(message).cause(e).toString(), e);
+        ErrorContext context = ErrorContext.instance();
+        try {
+            return new PersistenceException(context.message(message).cause(e).toString(), e);
+        } finally {
+            context.reset();
+        }
     }
 
 }
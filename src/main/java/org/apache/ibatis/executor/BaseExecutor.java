@@ -26,6 +26,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.instrumentation.StatementMetricsRegistry;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -109,12 +110,17 @@ public abstract class BaseExecutor implements Executor {
 
     @Override
     public int update(MappedStatement ms, Object parameter) throws SQLException {
-        ErrorContext.instance().resource(ms.getResource()).activity("executing an update").object(ms.getId());
-        if (closed) {
-            throw new ExecutorException("Executor was closed.");
+        try {
+            if (closed) {
+                throw new ExecutorException("Executor was closed.");
+            }
+            clearLocalCache();
+            return doUpdate(ms, parameter);
+        } catch (SQLException e) {
+            throw failed(e, ms, "executing an update");
+        } catch (RuntimeException e) {
+            throw failed(e, ms, "executing an update");
         }
-        clearLocalCache();
-        return doUpdate(ms, parameter);
     }
 
     @Override
@@ -131,15 +137,42 @@ public abstract class BaseExecutor implements Executor {
 
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-        BoundSql boundSql = ms.getBoundSql(parameter);
+        BoundSql boundSql;
+        try {
+            boundSql = ms.getBoundSql(parameter);
+        } catch (RuntimeException e) {
+            throw failed(e, ms, "building the SQL");
+        }
         CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
         return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
-        ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
+        try {
+            return queryWithLocalCache(ms, parameter, rowBounds, resultHandler, key, boundSql);
+        } catch (SQLException e) {
+            throw failed(e, ms, "executing a query");
+        } catch (RuntimeException e) {
+            throw failed(e, ms, "executing a query");
+        }
+    }
+
+    /**
+     * 只在失败时记录 ErrorContext，内层（参数设置、结果处理、嵌套查询）已记录的信息优先。
+     * 开启了 statementMetricsEnabled 时同时计入该语句的错误数
+     */
+    private <T extends Exception> T failed(T e, MappedStatement ms, String activity) {
+        ErrorContext.failure(e).resource(ms.getResource()).activity(activity).object(ms.getId());
+        StatementMetricsRegistry metrics = configuration.getStatementMetrics();
+        if (metrics != null) {
+            metrics.failed(ms);
+        }
+        return e;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> List<E> queryWithLocalCache(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
         if (closed) {
             throw new ExecutorException("Executor was closed.");
         }
@@ -152,6 +185,10 @@ public abstract class BaseExecutor implements Executor {
             list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
             if (list != null) {
                 handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
+                StatementMetricsRegistry metrics = configuration.getStatementMetrics();
+                if (metrics != null) {
+                    metrics.localCacheHit(ms);
+                }
             } else {
                 list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, key, boundSql);
             }
@@ -174,8 +211,14 @@ public abstract class BaseExecutor implements Executor {
 
     @Override
     public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
-        BoundSql boundSql = ms.getBoundSql(parameter);
-        return doQueryCursor(ms, parameter, rowBounds, boundSql);
+        try {
+            BoundSql boundSql = ms.getBoundSql(parameter);
+            return doQueryCursor(ms, parameter, rowBounds, boundSql);
+        } catch (SQLException e) {
+            throw failed(e, ms, "executing a query");
+        } catch (RuntimeException e) {
+            throw failed(e, ms, "executing a query");
+        }
     }
 
     @Override
@@ -24,12 +24,15 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.instrumentation.StatementMetricsRegistry;
+import org.apache.ibatis.executor.instrumentation.StatementTrace;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -118,8 +121,13 @@ public class BatchExecutor extends BaseExecutor {
                 Statement stmt = statementList.get(i);
                 applyTransactionTimeout(stmt);
                 BatchResult batchResult = batchResultList.get(i);
+                StatementTrace trace = configuration.getExecutionListeners().isEmpty() ? null : flushTrace(batchResult);
                 try {
+                    long start = trace == null ? 0L : System.nanoTime();
                     batchResult.setUpdateCounts(stmt.executeBatch());
+                    if (trace != null) {
+                        trace.updated(System.nanoTime() - start, updatedRows(batchResult.getUpdateCounts()));
+                    }
                     MappedStatement ms = batchResult.getMappedStatement();
                     List<Object> parameterObjects = batchResult.getParameterObjects();
                     KeyGenerator keyGenerator = ms.getKeyGenerator();
@@ -132,6 +140,10 @@ public class BatchExecutor extends BaseExecutor {
                         }
                     }
                 } catch (BatchUpdateException e) {
+                    if (trace != null) {
+                        trace.failed(e);
+                    }
+                    flushFailed(batchResult);
                     StringBuilder message = new StringBuilder();
                     message.append(batchResult.getMappedStatement().getId())
                             .append(" (batch index #")
@@ -144,6 +156,18 @@ public class BatchExecutor extends BaseExecutor {
                                 .append(" prior sub executor(s) completed successfully, but will be rolled back.");
                     }
                     throw new BatchExecutorException(message.toString(), e, results, batchResult);
+                } catch (SQLException e) {
+                    if (trace != null) {
+                        trace.failed(e);
+                    }
+                    flushFailed(batchResult);
+                    throw e;
+                } catch (RuntimeException e) {
+                    if (trace != null) {
+                        trace.failed(e);
+                    }
+                    flushFailed(batchResult);
+                    throw e;
                 }
                 results.add(batchResult);
             }
@@ -158,4 +182,30 @@ public class BatchExecutor extends BaseExecutor {
         }
     }
 
+    /**
+     * executeBatch 作为一次单独的执行通知 ExecutionListener，参数已分别在 addBatch 时报告
+     */
+    private StatementTrace flushTrace(BatchResult batchResult) {
+        BoundSql boundSql = new BoundSql(configuration, batchResult.getSql(), Collections.<ParameterMapping>emptyList(), null);
+        return new StatementTrace(batchResult.getMappedStatement(), boundSql, configuration.getExecutionListeners());
+    }
+
+    private void flushFailed(BatchResult batchResult) {
+        StatementMetricsRegistry metrics = configuration.getStatementMetrics();
+        if (metrics != null) {
+            metrics.failed(batchResult.getMappedStatement());
+        }
+    }
+
+    private static int updatedRows(int[] updateCounts) {
+        int rows = 0;
+        for (int count : updateCounts) {
+            // 驱动无法提供行数时返回 SUCCESS_NO_INFO(-2)
+            if (count > 0) {
+                rows += count;
+            }
+        }
+        return rows;
+    }
+
 }
@@ -16,12 +16,19 @@
 package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.TableStampedValue;
+import org.apache.ibatis.cache.TableVersions;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.cache.TransactionalCacheManager;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.instrumentation.StatementMetricsRegistry;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
@@ -33,16 +40,36 @@ import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * Second level cache hits are answered before the delegate is reached, and the transactions shipped with MyBatis
+ * only open their connection on first use, so a session served entirely from the caches never checks a connection
+ * out of the pool.
+ *
  * @author Clinton Begin
  * @author Eduardo Macarron
  */
 public class CachingExecutor implements Executor {
 
     private Executor delegate;
-    private TransactionalCacheManager tcm = new TransactionalCacheManager();
+    private TransactionalCacheManager tcm;
 
     public CachingExecutor(Executor delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param tableVersions table versions for table level cache invalidation, null to flush whole namespaces
+     */
+    public CachingExecutor(Executor delegate, TableVersions tableVersions) {
+        this(delegate, tableVersions, null);
+    }
+
+    /**
+     * @param tableVersions table versions for table level cache invalidation, null to flush whole namespaces
+     * @param invalidationBus bus notifying other nodes of committed invalidations, may be null
+     */
+    public CachingExecutor(Executor delegate, TableVersions tableVersions, CacheInvalidationBus invalidationBus) {
         this.delegate = delegate;
+        this.tcm = new TransactionalCacheManager(tableVersions, invalidationBus);
         delegate.setExecutorWrapper(this);
     }
 
@@ -78,7 +105,17 @@ public class CachingExecutor implements Executor {
 
     @Override
     public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-        BoundSql boundSql = ms.getBoundSql(parameterObject);
+        BoundSql boundSql;
+        try {
+            boundSql = ms.getBoundSql(parameterObject);
+        } catch (RuntimeException e) {
+            // 在委托的执行器之前失败，由这里计入错误数
+            StatementMetricsRegistry metrics = ms.getConfiguration().getStatementMetrics();
+            if (metrics != null) {
+                metrics.failed(ms);
+            }
+            throw e;
+        }
         CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
         return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
     }
@@ -99,9 +136,21 @@ public class CachingExecutor implements Executor {
                 ensureNoOutParams(ms, parameterObject, boundSql);
                 @SuppressWarnings("unchecked")
                 List<E> list = (List<E>) tcm.getObject(cache, key);
-                if (list == null) {
+                if (list != null) {
+                    StatementMetricsRegistry metrics = ms.getConfiguration().getStatementMetrics();
+                    if (metrics != null) {
+                        metrics.secondLevelCacheHit(ms);
+                    }
+                } else {
+                    // 表版本需要在查询数据库之前获取
+                    TableStampedValue stamped = stampTables(ms, cache);
                     list = delegate.<E>query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-                    tcm.putObject(cache, key, list); // issue #578 and #116
+                    if (stamped == null) {
+                        tcm.putObject(cache, key, list); // issue #578 and #116
+                    } else {
+                        stamped.setValue(list);
+                        tcm.putObject(cache, key, stamped);
+                    }
                 }
                 return list;
             }
@@ -163,11 +212,38 @@ public class CachingExecutor implements Executor {
 
     private void flushCacheIfRequired(MappedStatement ms) {
         Cache cache = ms.getCache();
-        if (cache != null && ms.isFlushCacheRequired()) {
+        if (!ms.isFlushCacheRequired()) {
+            return;
+        }
+        if (tcm.getTableVersions() != null && !ms.getTables().isEmpty()) {
+            // 只失效依赖这些表的缓存项，包括其他命名空间中的缓存项
+            Set<String> tables = new HashSet<String>(ms.getTables());
+            if (cache != null) {
+                tables.add(cacheTable(cache));
+            }
+            tcm.invalidateOnCommit(tables);
+        } else if (cache != null) {
             tcm.clear(cache);
         }
     }
 
+    /**
+     * 记录查询依赖的表的当前版本，未开启按表失效时返回 null
+     */
+    private TableStampedValue stampTables(MappedStatement ms, Cache cache) {
+        TableVersions tableVersions = tcm.getTableVersions();
+        if (tableVersions == null) {
+            return null;
+        }
+        Set<String> tables = ms.getTables();
+        // 无法确定依赖的表时，依赖于整个缓存，本命名空间的任何写操作都会使其失效
+        return tableVersions.stamp(tables.isEmpty() ? Collections.singleton(cacheTable(cache)) : tables);
+    }
+
+    private static String cacheTable(Cache cache) {
+        return "#" + cache.getId();
+    }
+
     @Override
     public void setExecutorWrapper(Executor executor) {
         throw new UnsupportedOperationException("This method should not be called");
@@ -16,6 +16,9 @@
 package org.apache.ibatis.executor;
 
 /**
+ * 记录出错时的上下文（资源、操作、对象、SQL），用于拼装异常信息。
+ * 执行语句时只在失败的 catch 块中通过 {@link #failure(Throwable)} 记录，成功路径不访问 ThreadLocal。
+ *
  * @author Clinton Begin
  */
 public class ErrorContext {
@@ -30,6 +33,10 @@ public class ErrorContext {
     private String message;
     private String sql;
     private Throwable cause;
+    /**
+     * 当前上下文描述的失败，不为空时各字段先记录者优先（内层先于外层记录）
+     */
+    private Throwable failure;
 
     private ErrorContext() {
     }
@@ -43,6 +50,34 @@ public class ErrorContext {
         return context;
     }
 
+    /**
+     * Returns the context describing {@code failure}, to be called from catch blocks while a failed
+     * statement unwinds. Inner layers record first; for the same failure (or one wrapping it) details
+     * already recorded are kept, while anything left over from an unrelated failure is discarded.
+     *
+     * @since 3.4.3
+     */
+    public static ErrorContext failure(Throwable failure) {
+        ErrorContext context = instance();
+        if (!context.describes(failure)) {
+            context.clear();
+        }
+        context.failure = failure;
+        return context;
+    }
+
+    private boolean describes(Throwable throwable) {
+        if (failure == null) {
+            return false;
+        }
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t == failure) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public ErrorContext store() {
         stored = this;
         LOCAL.set(new ErrorContext());
@@ -58,17 +93,23 @@ public class ErrorContext {
     }
 
     public ErrorContext resource(String resource) {
-        this.resource = resource;
+        if (failure == null || this.resource == null) {
+            this.resource = resource;
+        }
         return this;
     }
 
     public ErrorContext activity(String activity) {
-        this.activity = activity;
+        if (failure == null || this.activity == null) {
+            this.activity = activity;
+        }
         return this;
     }
 
     public ErrorContext object(String object) {
-        this.object = object;
+        if (failure == null || this.object == null) {
+            this.object = object;
+        }
         return this;
     }
 
@@ -78,7 +119,9 @@ public class ErrorContext {
     }
 
     public ErrorContext sql(String sql) {
-        this.sql = sql;
+        if (failure == null || this.sql == null) {
+            this.sql = sql;
+        }
         return this;
     }
 
@@ -88,14 +131,19 @@ public class ErrorContext {
     }
 
     public ErrorContext reset() {
+        clear();
+        LOCAL.remove();
+        return this;
+    }
+
+    private void clear() {
         resource = null;
         activity = null;
         object = null;
         message = null;
         sql = null;
         cause = null;
-        LOCAL.remove();
-        return this;
+        failure = null;
     }
 
     @Override
@@ -0,0 +1,33 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+/**
+ * Receives a {@link StatementTrace} for every statement executed through a configuration.
+ * <p>
+ * Listeners are called on the executing thread once the results are handled or the statement failed,
+ * so they should be fast and thread safe. The trace must not be retained after the call returns.
+ * <p>
+ * A cursor query is reported when the cursor is closed or fully read. A batched update is reported once when it
+ * is added to the batch, with 0 rows, and the flush of each batch once more with the sum of its update counts.
+ *
+ * @since 3.4.3
+ */
+public interface ExecutionListener {
+
+    void statementExecuted(StatementTrace trace);
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with power of two buckets, recorded without locking.
+ * Bucket {@code i} counts the values between {@code 2^i} and {@code 2^(i+1) - 1} nanoseconds.
+ *
+ * @since 3.4.3
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalTime = new LongAdder();
+    private final AtomicLong maxTime = new AtomicLong();
+
+    public void record(long time) {
+        if (time < 0) {
+            time = 0;
+        }
+        buckets.incrementAndGet(bucketOf(time));
+        totalTime.add(time);
+        // 只有出现更大的值时才需要 CAS
+        long max = maxTime.get();
+        while (time > max && !maxTime.compareAndSet(max, time)) {
+            max = maxTime.get();
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Sum of the recorded values, in nanoseconds.
+     */
+    public long getTotalTime() {
+        return totalTime.sum();
+    }
+
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+
+    public long getMeanTime() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalTime() / count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, never more than {@link #getMaxTime()}.
+     *
+     * @param percentile between 0 and 100
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getBucketCounts();
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                long upper = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upper, getMaxTime());
+            }
+        }
+        return getMaxTime();
+    }
+
+    /**
+     * Snapshot of the bucket counts, indexed as described in the class documentation.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    private static int bucketOf(long time) {
+        return time == 0 ? 0 : 63 - Long.numberOfLeadingZeros(time);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+                + ", mean=" + TimeUnit.NANOSECONDS.toMicros(getMeanTime()) + "us"
+                + ", p99=" + TimeUnit.NANOSECONDS.toMicros(getPercentile(99)) + "us"
+                + ", max=" + TimeUnit.NANOSECONDS.toMicros(getMaxTime()) + "us";
+    }
+
+}
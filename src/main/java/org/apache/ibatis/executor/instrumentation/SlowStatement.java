@@ -0,0 +1,124 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import java.util.List;
+
+/**
+ * A statement captured by the {@link SlowStatementRecorder}. Times are in nanoseconds.
+ *
+ * @since 3.4.3
+ */
+public final class SlowStatement {
+
+    private final long timestamp;
+    private final String statementId;
+    private final String sql;
+    private final List<String> parameters;
+    private final long prepareTime;
+    private final long bindTime;
+    private final long executeTime;
+    private final long fetchTime;
+    private final long mapTime;
+    private final int rows;
+    private final String failure;
+
+    SlowStatement(long timestamp, StatementTrace trace, List<String> parameters) {
+        this.timestamp = timestamp;
+        this.statementId = trace.getMappedStatement().getId();
+        this.sql = trace.getBoundSql().getSql();
+        this.parameters = parameters;
+        this.prepareTime = trace.getPrepareTime();
+        this.bindTime = trace.getBindTime();
+        this.executeTime = trace.getExecuteTime();
+        this.fetchTime = trace.getFetchTime();
+        this.mapTime = trace.getMapTime();
+        this.rows = trace.getRows();
+        this.failure = trace.getFailure() == null ? null : trace.getFailure().toString();
+    }
+
+    /**
+     * Wall clock time the statement completed at, in milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Input parameters in binding order, rendered as {@code value(Type)} like the JDBC debug log.
+     * Long values are truncated and only the first parameters of a statement are kept.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public long getPrepareTime() {
+        return prepareTime;
+    }
+
+    public long getBindTime() {
+        return bindTime;
+    }
+
+    public long getExecuteTime() {
+        return executeTime;
+    }
+
+    public long getFetchTime() {
+        return fetchTime;
+    }
+
+    public long getMapTime() {
+        return mapTime;
+    }
+
+    public long getTotalTime() {
+        return prepareTime + bindTime + executeTime + fetchTime + mapTime;
+    }
+
+    /**
+     * Rows read for queries, or the update count for updates.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * The exception the statement failed with, null if it succeeded.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return statementId + " took " + getTotalTime() / 1000000 + "ms"
+                + " (prepare=" + prepareTime / 1000 + "us, bind=" + bindTime / 1000 + "us, execute=" + executeTime / 1000
+                + "us, fetch=" + fetchTime / 1000 + "us, map=" + mapTime / 1000 + "us), rows=" + rows
+                + (failure == null ? "" : ", failure=" + failure)
+                + "\n  sql: " + sql
+                + "\n  parameters: " + parameters;
+    }
+
+}
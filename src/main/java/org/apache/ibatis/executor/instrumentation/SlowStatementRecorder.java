@@ -0,0 +1,178 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterBindingPlan;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Keeps the last statements slower than a threshold in a bounded ring buffer, with their SQL, parameters, phase times
+ * and rows.
+ * <p>
+ * Enabled with the {@code slowStatementThreshold} setting, in milliseconds, and read with
+ * {@link Configuration#getSlowStatements()}. Like any {@link ExecutionListener}, the recorder makes every statement
+ * traced, which costs a {@link StatementTrace} and a few {@code System.nanoTime()} calls per execution. Past that, a
+ * statement under the threshold costs one comparison; the SQL and the parameters are only read for the slow ones.
+ * <p>
+ * The parameters are read when the statement completes, with the same binding plan as the parameter handler. A
+ * property changed by the statement itself, like a generated key, shows its new value. The getters of a lazy loading
+ * proxy are not called.
+ *
+ * @since 3.4.3
+ */
+public class SlowStatementRecorder implements ExecutionListener {
+
+    private static final int MAX_PARAMETERS = 20;
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowStatement> buffer;
+    private final AtomicLong recorded = new AtomicLong();
+
+    /**
+     * @param threshold minimum total time of a recorded statement, in milliseconds
+     * @param capacity number of statements kept, the oldest are overwritten
+     */
+    public SlowStatementRecorder(long threshold, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Slow statement capacity must be positive but was " + capacity);
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(threshold);
+        this.buffer = new AtomicReferenceArray<SlowStatement>(capacity);
+    }
+
+    public long getThreshold() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public int getCapacity() {
+        return buffer.length();
+    }
+
+    /**
+     * Number of slow statements recorded so far, including the ones overwritten since.
+     */
+    public long getRecordedCount() {
+        return recorded.get();
+    }
+
+    @Override
+    public void statementExecuted(StatementTrace trace) {
+        if (trace.getTotalTime() < thresholdNanos) {
+            return;
+        }
+        SlowStatement statement = new SlowStatement(System.currentTimeMillis(), trace, sampleParameters(trace));
+        long sequence = recorded.getAndIncrement();
+        buffer.set((int) (sequence % buffer.length()), statement);
+    }
+
+    /**
+     * The statements still in the buffer, oldest first.
+     */
+    public List<SlowStatement> getSlowStatements() {
+        long end = recorded.get();
+        long start = Math.max(0, end - buffer.length());
+        List<SlowStatement> statements = new ArrayList<SlowStatement>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            // 并发写入时槽位可能尚未赋值或已被更新的记录覆盖
+            SlowStatement statement = buffer.get((int) (i % buffer.length()));
+            if (statement != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    public void clear() {
+        for (int i = 0; i < buffer.length(); i++) {
+            buffer.set(i, null);
+        }
+    }
+
+    private static List<String> sampleParameters(StatementTrace trace) {
+        BoundSql boundSql = trace.getBoundSql();
+        List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+        if (parameterMappings == null || parameterMappings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Object parameterObject = boundSql.getParameterObject();
+        // 不调用延迟加载代理的 getter，避免在记录时触发加载
+        boolean lazyProxy = parameterObject instanceof WriteReplaceInterface;
+        // 与 DefaultParameterHandler 使用同一份绑定计划取值
+        ParameterBindingPlan plan = parameterObject == null || lazyProxy ? null
+                : trace.getMappedStatement().getParameterBindingPlan(parameterObject.getClass(), parameterMappings);
+        List<String> parameters = new ArrayList<String>(Math.min(parameterMappings.size(), MAX_PARAMETERS));
+        for (int i = 0; i < parameterMappings.size(); i++) {
+            if (parameters.size() == MAX_PARAMETERS) {
+                parameters.add("...");
+                break;
+            }
+            ParameterMapping parameterMapping = parameterMappings.get(i);
+            if (parameterMapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String propertyName = parameterMapping.getProperty();
+            try {
+                if (boundSql.hasAdditionalParameter(propertyName)) {
+                    parameters.add(render(boundSql.getAdditionalParameter(propertyName)));
+                } else if (plan != null) {
+                    parameters.add(render(plan.getValue(i, parameterObject)));
+                } else {
+                    parameters.add(lazyProxy ? "<" + propertyName + " not loaded>" : "null");
+                }
+            } catch (RuntimeException e) {
+                parameters.add("<" + propertyName + " unavailable>");
+            }
+        }
+        return Collections.unmodifiableList(parameters);
+    }
+
+    private static String render(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        String string;
+        if (value instanceof byte[]) {
+            string = "<" + ((byte[]) value).length + " bytes>";
+        } else if (value instanceof Array) {
+            string = "<array>";
+        } else {
+            string = value.toString();
+            if (string.length() > MAX_VALUE_LENGTH) {
+                string = string.substring(0, MAX_VALUE_LENGTH) + "...";
+            }
+        }
+        return string + "(" + value.getClass().getSimpleName() + ")";
+    }
+
+    @Override
+    public String toString() {
+        return "SlowStatementRecorder[threshold=" + getThreshold() + "ms, recorded=" + getRecordedCount() + "]";
+    }
+
+}
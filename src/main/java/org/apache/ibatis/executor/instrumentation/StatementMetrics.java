@@ -0,0 +1,144 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of one mapped statement, see {@link StatementMetricsRegistry}.
+ *
+ * @since 3.4.3
+ */
+public final class StatementMetrics {
+
+    private final String statementId;
+    private final LatencyHistogram sqlGeneration = new LatencyHistogram();
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LatencyHistogram resultMapping = new LatencyHistogram();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder localCacheHits = new LongAdder();
+    private final LongAdder secondLevelCacheHits = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    StatementMetrics(String statementId) {
+        this.statementId = statementId;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    /**
+     * Executions plus the calls answered by the local or the second level cache.
+     */
+    public long getCalls() {
+        return getExecutions() + getLocalCacheHits() + getSecondLevelCacheHits();
+    }
+
+    /**
+     * Calls that reached the database, including the failed ones.
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getLocalCacheHits() {
+        return localCacheHits.sum();
+    }
+
+    public long getSecondLevelCacheHits() {
+        return secondLevelCacheHits.sum();
+    }
+
+    /**
+     * Rows read for queries, or the update counts for updates.
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * Failed calls, including the ones failing before reaching the database, e.g. while building the SQL or
+     * getting a connection.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Time spent building the {@code BoundSql}, dynamic SQL included. Recorded for cache hits too.
+     */
+    public LatencyHistogram getSqlGeneration() {
+        return sqlGeneration;
+    }
+
+    /**
+     * Time spent in the database: preparing, binding, executing and fetching rows.
+     */
+    public LatencyHistogram getExecution() {
+        return execution;
+    }
+
+    /**
+     * Time spent mapping rows to result objects, recorded for queries only.
+     */
+    public LatencyHistogram getResultMapping() {
+        return resultMapping;
+    }
+
+    void sqlGenerated(long time) {
+        sqlGeneration.record(time);
+    }
+
+    void localCacheHit() {
+        localCacheHits.increment();
+    }
+
+    void secondLevelCacheHit() {
+        secondLevelCacheHits.increment();
+    }
+
+    void failed() {
+        errors.increment();
+    }
+
+    void executed(StatementTrace trace, boolean query) {
+        executions.increment();
+        if (trace.getFailure() != null) {
+            // 错误由执行器统计，这样在到达数据库之前失败的调用也会计入
+            return;
+        }
+        rows.add(trace.getRows());
+        execution.record(trace.getTotalTime() - trace.getMapTime());
+        if (query) {
+            resultMapping.record(trace.getMapTime());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return statementId + " {calls=" + getCalls()
+                + ", localCacheHits=" + getLocalCacheHits()
+                + ", secondLevelCacheHits=" + getSecondLevelCacheHits()
+                + ", rows=" + getRows()
+                + ", errors=" + getErrors()
+                + ", sqlGeneration=[" + sqlGeneration
+                + "], execution=[" + execution
+                + "], resultMapping=[" + resultMapping + "]}";
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+
+/**
+ * Per statement call counts, phase latencies, rows, cache hits and errors, keyed by {@link MappedStatement#getId()}.
+ * <p>
+ * Enabled with the {@code statementMetricsEnabled} setting and read with
+ * {@link org.apache.ibatis.session.Configuration#getStatementMetrics()}. The database and mapping phases come from
+ * the {@link StatementTrace} of each execution, the SQL generation time and the cache hits are recorded by the
+ * mapped statement and the executors.
+ *
+ * @since 3.4.3
+ */
+public class StatementMetricsRegistry implements ExecutionListener {
+
+    private final ConcurrentMap<String, StatementMetrics> metrics = new ConcurrentHashMap<String, StatementMetrics>();
+
+    /**
+     * @return the metrics of the statement, null if it has not been called yet
+     */
+    public StatementMetrics getMetrics(String statementId) {
+        return metrics.get(statementId);
+    }
+
+    /**
+     * Live view of the metrics of every statement called so far.
+     */
+    public Map<String, StatementMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    public void sqlGenerated(MappedStatement ms, long time) {
+        metricsOf(ms).sqlGenerated(time);
+    }
+
+    public void localCacheHit(MappedStatement ms) {
+        metricsOf(ms).localCacheHit();
+    }
+
+    public void secondLevelCacheHit(MappedStatement ms) {
+        metricsOf(ms).secondLevelCacheHit();
+    }
+
+    public void failed(MappedStatement ms) {
+        metricsOf(ms).failed();
+    }
+
+    @Override
+    public void statementExecuted(StatementTrace trace) {
+        MappedStatement ms = trace.getMappedStatement();
+        metricsOf(ms).executed(trace, ms.getSqlCommandType() == SqlCommandType.SELECT);
+    }
+
+    private StatementMetrics metricsOf(MappedStatement ms) {
+        String id = ms.getId();
+        StatementMetrics statementMetrics = metrics.get(id);
+        if (statementMetrics == null) {
+            // 只在语句第一次调用时创建
+            StatementMetrics created = new StatementMetrics(id);
+            statementMetrics = metrics.putIfAbsent(id, created);
+            if (statementMetrics == null) {
+                statementMetrics = created;
+            }
+        }
+        return statementMetrics;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementMetricsRegistry" + metrics.values();
+    }
+
+}
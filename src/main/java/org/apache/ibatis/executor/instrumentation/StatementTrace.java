@@ -0,0 +1,209 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import java.util.List;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * 一次语句执行的各阶段耗时与读取量，由 StatementHandler 和 ResultSetHandler 直接记录，不使用代理。
+ * 只在配置了 {@link ExecutionListener} 时创建，所有时间单位为纳秒。
+ *
+ * @since 3.4.3
+ */
+public final class StatementTrace {
+
+    private static final Log log = LogFactory.getLog(StatementTrace.class);
+
+    private final MappedStatement mappedStatement;
+    private final BoundSql boundSql;
+    private final List<ExecutionListener> listeners;
+
+    private long prepareTime;
+    private long bindTime;
+    private long executeTime;
+    private long fetchTime;
+    private long mapTime;
+    private int rows;
+    private long lobBytes;
+    private Throwable failure;
+    private boolean finished;
+
+    public StatementTrace(MappedStatement mappedStatement, BoundSql boundSql, List<ExecutionListener> listeners) {
+        this.mappedStatement = mappedStatement;
+        this.boundSql = boundSql;
+        this.listeners = listeners;
+    }
+
+    public MappedStatement getMappedStatement() {
+        return mappedStatement;
+    }
+
+    public BoundSql getBoundSql() {
+        return boundSql;
+    }
+
+    /**
+     * Time spent creating the JDBC statement.
+     */
+    public long getPrepareTime() {
+        return prepareTime;
+    }
+
+    /**
+     * Time spent setting the parameters.
+     */
+    public long getBindTime() {
+        return bindTime;
+    }
+
+    /**
+     * Time spent executing the statement, excluding result handling. For a batched update this is the time spent
+     * adding it to the batch; the flush is reported as a trace of its own.
+     */
+    public long getExecuteTime() {
+        return executeTime;
+    }
+
+    /**
+     * Time spent in {@code ResultSet.next()}.
+     */
+    public long getFetchTime() {
+        return fetchTime;
+    }
+
+    /**
+     * Time spent mapping rows to result objects, excluding {@link #getFetchTime()}.
+     */
+    public long getMapTime() {
+        return mapTime;
+    }
+
+    public long getTotalTime() {
+        return prepareTime + bindTime + executeTime + fetchTime + mapTime;
+    }
+
+    /**
+     * Rows read for queries, or the update count for updates. A batched update reports 0, its flush the sum of
+     * the update counts of the batch.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Length of the binary values read, plus two bytes per character of CLOB values.
+     */
+    public long getLobBytes() {
+        return lobBytes;
+    }
+
+    /**
+     * The exception the statement failed with, null if it succeeded.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public void prepared(long time) {
+        prepareTime += time;
+    }
+
+    public void bound(long time) {
+        bindTime += time;
+    }
+
+    /**
+     * 记录一次 next() 调用，返回 true 时计为读取一行
+     */
+    public void fetched(long time, boolean row) {
+        fetchTime += time;
+        if (row) {
+            rows++;
+        }
+    }
+
+    public void lobRead(long bytes) {
+        lobBytes += bytes;
+    }
+
+    /**
+     * 结果集处理的总耗时，减去 fetch 耗时即为映射耗时
+     */
+    public void resultsHandled(long time) {
+        mapTime += time - fetchTime;
+    }
+
+    /**
+     * 游标读取一批行的耗时，扣除其中的 fetch 耗时后计入映射耗时
+     */
+    public void cursorFetched(long time, long fetchTimeBefore) {
+        mapTime += time - (fetchTime - fetchTimeBefore);
+    }
+
+    /**
+     * 游标打开时只记录执行耗时，关闭或读完时才通知监听器
+     */
+    public void cursorOpened(long time) {
+        executeTime += time;
+    }
+
+    public void cursorClosed() {
+        finish();
+    }
+
+    /**
+     * 记录执行耗时（扣除其中的结果集处理时间）并通知监听器
+     */
+    public void executed(long time) {
+        executeTime += time - fetchTime - mapTime;
+        finish();
+    }
+
+    /**
+     * 记录执行耗时及更新行数并通知监听器
+     */
+    public void updated(long time, int updateCount) {
+        executeTime += time;
+        rows = updateCount;
+        finish();
+    }
+
+    public void failed(Throwable failure) {
+        this.failure = failure;
+        finish();
+    }
+
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        // 监听器列表是 CopyOnWriteArrayList，迭代的是快照，运行时增删监听器不影响正在执行的语句
+        for (ExecutionListener listener : listeners) {
+            try {
+                listener.statementExecuted(this);
+            } catch (RuntimeException e) {
+                log.warn("Execution listener " + listener + " failed for " + mappedStatement.getId() + ". Cause: " + e);
+            }
+        }
+    }
+
+}
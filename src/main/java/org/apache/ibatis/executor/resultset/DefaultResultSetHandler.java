@@ -23,6 +23,7 @@ import org.apache.ibatis.cursor.defaults.DefaultCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.instrumentation.StatementTrace;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
@@ -45,6 +46,8 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.ClobTypeHandler;
+import org.apache.ibatis.type.NClobTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -98,6 +101,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private boolean useConstructorMappings;
 
     private final PrimitiveTypes primitiveTypes;
+    private final StatementTrace trace;
 
     private static class PendingRelation {
         public MetaObject metaObject;
@@ -120,6 +124,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
                                    RowBounds rowBounds) {
+        this(executor, mappedStatement, parameterHandler, resultHandler, boundSql, rowBounds, null);
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
+                                   RowBounds rowBounds, StatementTrace trace) {
         this.executor = executor;
         this.configuration = mappedStatement.getConfiguration();
         this.mappedStatement = mappedStatement;
@@ -131,6 +143,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         this.reflectorFactory = configuration.getReflectorFactory();
         this.resultHandler = resultHandler;
         this.primitiveTypes = new PrimitiveTypes();
+        this.trace = trace;
     }
 
     //
@@ -177,8 +190,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     //
     @Override
     public List<Object> handleResultSets(Statement stmt) throws SQLException {
-        ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+        try {
+            if (trace == null) {
+                return collectResultSets(stmt);
+            }
+            long start = System.nanoTime();
+            List<Object> results = collectResultSets(stmt);
+            trace.resultsHandled(System.nanoTime() - start);
+            return results;
+        } catch (SQLException e) {
+            ErrorContext.failure(e).activity("handling results").object(mappedStatement.getId());
+            throw e;
+        } catch (RuntimeException e) {
+            ErrorContext.failure(e).activity("handling results").object(mappedStatement.getId());
+            throw e;
+        }
+    }
 
+    private List<Object> collectResultSets(Statement stmt) throws SQLException {
         final List<Object> multipleResults = new ArrayList<Object>();
 
         int resultSetCount = 0;
@@ -215,8 +244,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
     @Override
     public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
-        ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
+        try {
+            return openCursor(stmt);
+        } catch (SQLException e) {
+            ErrorContext.failure(e).activity("handling cursor results").object(mappedStatement.getId());
+            throw e;
+        } catch (RuntimeException e) {
+            ErrorContext.failure(e).activity("handling cursor results").object(mappedStatement.getId());
+            throw e;
+        }
+    }
 
+    private <E> Cursor<E> openCursor(Statement stmt) throws SQLException {
         ResultSetWrapper rsw = getFirstResultSet(stmt);
 
         List<ResultMap> resultMaps = mappedStatement.getResultMaps();
@@ -228,7 +267,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
 
         ResultMap resultMap = resultMaps.get(0);
-        return new DefaultCursor<E>(this, resultMap, rsw, rowBounds);
+        return new DefaultCursor<E>(this, resultMap, rsw, rowBounds, trace);
     }
 
     private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -342,13 +381,37 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             throws SQLException {
         DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
         skipRows(rsw.getResultSet(), rowBounds);
-        while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
+        while (shouldProcessMoreRows(resultContext, rowBounds) && next(rsw.getResultSet())) {
             ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
             Object rowValue = getRowValue(rsw, discriminatedResultMap);
             storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
         }
     }
 
+    /**
+     * 移动到下一行，有 trace 时记录 fetch 耗时和读取的行数
+     */
+    private boolean next(ResultSet rs) throws SQLException {
+        if (trace == null) {
+            return rs.next();
+        }
+        long start = System.nanoTime();
+        boolean row = rs.next();
+        trace.fetched(System.nanoTime() - start, row);
+        return row;
+    }
+
+    /**
+     * 记录读取的二进制值长度，CLOB 值按每个字符两个字节计
+     */
+    private void traceLob(TypeHandler<?> typeHandler, Object value) {
+        if (value instanceof byte[]) {
+            trace.lobRead(((byte[]) value).length);
+        } else if (value instanceof String && (typeHandler instanceof ClobTypeHandler || typeHandler instanceof NClobTypeHandler)) {
+            trace.lobRead(2L * ((String) value).length());
+        }
+    }
+
     private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
         if (parentMapping != null) {
             linkToParents(rs, parentMapping, rowValue);
@@ -460,7 +523,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         } else {
             final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
             final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-            return typeHandler.getResult(rs, column);
+            final Object value = typeHandler.getResult(rs, column);
+            if (trace != null) {
+                traceLob(typeHandler, value);
+            }
+            return value;
         }
     }
 
@@ -510,6 +577,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (autoMapping.size() > 0) {
             for (UnMappedColumnAutoMapping mapping : autoMapping) {
                 final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+                if (trace != null) {
+                    traceLob(mapping.typeHandler, value);
+                }
                 if (value != null) {
                     foundValues = true;
                 }
@@ -858,7 +928,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         final DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
         skipRows(rsw.getResultSet(), rowBounds);
         Object rowValue = previousRowValue;
-        while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
+        while (shouldProcessMoreRows(resultContext, rowBounds) && next(rsw.getResultSet())) {
             final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
             final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
             Object partialObject = nestedResultObjects.get(rowKey);
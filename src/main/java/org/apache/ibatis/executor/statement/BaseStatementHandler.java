@@ -19,9 +19,9 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 
-import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.instrumentation.StatementTrace;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
@@ -49,6 +49,10 @@ public abstract class BaseStatementHandler implements StatementHandler {
     protected final RowBounds rowBounds;
 
     protected BoundSql boundSql;
+    /**
+     * 配置了 ExecutionListener 时记录本次执行各阶段的耗时，否则为 null
+     */
+    protected final StatementTrace trace;
 
     protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
         this.configuration = mappedStatement.getConfiguration();
@@ -65,9 +69,11 @@ public abstract class BaseStatementHandler implements StatementHandler {
         }
 
         this.boundSql = boundSql;
+        this.trace = configuration.getExecutionListeners().isEmpty() ? null
+                : new StatementTrace(mappedStatement, boundSql, configuration.getExecutionListeners());
 
         this.parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
-        this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql);
+        this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql, trace);
     }
 
     @Override
@@ -82,7 +88,6 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
     @Override
     public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
-        ErrorContext.instance().sql(boundSql.getSql());
         Statement statement = null;
         try {
             statement = instantiateStatement(connection);
@@ -137,9 +142,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
     protected void generateKeys(Object parameter) {
         KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
-        ErrorContext.instance().store();
         keyGenerator.processBefore(executor, mappedStatement, null, parameter);
-        ErrorContext.instance().recall();
     }
 
 }
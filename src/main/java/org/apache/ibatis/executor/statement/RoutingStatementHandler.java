@@ -21,8 +21,10 @@ import java.sql.Statement;
 import java.util.List;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.instrumentation.StatementTrace;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -35,6 +37,10 @@ import org.apache.ibatis.session.RowBounds;
 public class RoutingStatementHandler implements StatementHandler {
 
     private final StatementHandler delegate;
+    /**
+     * 各阶段耗时直接在这里记录，没有配置 ExecutionListener 时为 null
+     */
+    private final StatementTrace trace;
 
     public RoutingStatementHandler(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
 
@@ -51,37 +57,102 @@ public class RoutingStatementHandler implements StatementHandler {
             default:
                 throw new ExecutorException("Unknown statement type: " + ms.getStatementType());
         }
-
+        trace = ((BaseStatementHandler) delegate).trace;
     }
 
     @Override
     public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
-        return delegate.prepare(connection, transactionTimeout);
+        try {
+            long start = trace == null ? 0L : System.nanoTime();
+            Statement statement = delegate.prepare(connection, transactionTimeout);
+            if (trace != null) {
+                trace.prepared(System.nanoTime() - start);
+            }
+            return statement;
+        } catch (SQLException e) {
+            throw failed(e);
+        } catch (RuntimeException e) {
+            throw failed(e);
+        }
     }
 
     @Override
     public void parameterize(Statement statement) throws SQLException {
-        delegate.parameterize(statement);
+        try {
+            long start = trace == null ? 0L : System.nanoTime();
+            delegate.parameterize(statement);
+            if (trace != null) {
+                trace.bound(System.nanoTime() - start);
+            }
+        } catch (SQLException e) {
+            throw failed(e);
+        } catch (RuntimeException e) {
+            throw failed(e);
+        }
     }
 
     @Override
     public void batch(Statement statement) throws SQLException {
-        delegate.batch(statement);
+        try {
+            long start = trace == null ? 0L : System.nanoTime();
+            delegate.batch(statement);
+            if (trace != null) {
+                trace.updated(System.nanoTime() - start, 0);
+            }
+        } catch (SQLException e) {
+            throw failed(e);
+        } catch (RuntimeException e) {
+            throw failed(e);
+        }
     }
 
     @Override
     public int update(Statement statement) throws SQLException {
-        return delegate.update(statement);
+        try {
+            long start = trace == null ? 0L : System.nanoTime();
+            int rows = delegate.update(statement);
+            if (trace != null) {
+                trace.updated(System.nanoTime() - start, rows);
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw failed(e);
+        } catch (RuntimeException e) {
+            throw failed(e);
+        }
     }
 
     @Override
     public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
-        return delegate.<E>query(statement, resultHandler);
+        try {
+            long start = trace == null ? 0L : System.nanoTime();
+            List<E> results = delegate.<E>query(statement, resultHandler);
+            if (trace != null) {
+                trace.executed(System.nanoTime() - start);
+            }
+            return results;
+        } catch (SQLException e) {
+            throw failed(e);
+        } catch (RuntimeException e) {
+            throw failed(e);
+        }
     }
 
     @Override
     public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
-        return delegate.queryCursor(statement);
+        try {
+            long start = trace == null ? 0L : System.nanoTime();
+            Cursor<E> cursor = delegate.queryCursor(statement);
+            if (trace != null) {
+                // 行数和读取耗时在游标关闭时才完整，由 DefaultCursor 通知监听器
+                trace.cursorOpened(System.nanoTime() - start);
+            }
+            return cursor;
+        } catch (SQLException e) {
+            throw failed(e);
+        } catch (RuntimeException e) {
+            throw failed(e);
+        }
     }
 
     @Override
@@ -93,4 +164,15 @@ public class RoutingStatementHandler implements StatementHandler {
     public ParameterHandler getParameterHandler() {
         return delegate.getParameterHandler();
     }
+
+    /**
+     * 语句执行失败时记录 SQL，成功路径不访问 ErrorContext
+     */
+    private <T extends Exception> T failed(T e) {
+        ErrorContext.failure(e).sql(delegate.getBoundSql().getSql());
+        if (trace != null) {
+            trace.failed(e);
+        }
+        return e;
+    }
 }
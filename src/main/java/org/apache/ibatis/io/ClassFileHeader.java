@@ -0,0 +1,255 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The parts of a class file needed to pre-filter classes while scanning packages: access flags, super types, nesting
+ * and the runtime visible annotations of the class. It is read from the bytes without loading the class.
+ *
+ * @since 3.4.3
+ */
+public final class ClassFileHeader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private final String className;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final int accessFlags;
+    private final boolean memberClass;
+    private final boolean anonymousClass;
+    private final List<String> annotationNames;
+
+    private ClassFileHeader(String className, String superClassName, List<String> interfaceNames, int accessFlags,
+                            boolean memberClass, boolean anonymousClass, List<String> annotationNames) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.accessFlags = accessFlags;
+        this.memberClass = memberClass;
+        this.anonymousClass = anonymousClass;
+        this.annotationNames = annotationNames;
+    }
+
+    /**
+     * Reads the header of the class file; the stream is fully read but not closed.
+     */
+    public static ClassFileHeader read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return read(bytes.toByteArray());
+    }
+
+    public static ClassFileHeader read(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        // 常量池: 只记录 UTF-8 和 Class 常量
+        int poolCount = in.readUnsignedShort();
+        String[] utf8 = new String[poolCount];
+        int[] classNames = new int[poolCount];
+        for (int i = 1; i < poolCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:
+                    classNames[i] = in.readUnsignedShort();
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    in.skipBytes(2);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    in.skipBytes(8);
+                    // long 和 double 占用两个常量池位置
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int accessFlags = in.readUnsignedShort();
+        int thisClass = in.readUnsignedShort();
+        int superClass = in.readUnsignedShort();
+        int interfaceCount = in.readUnsignedShort();
+        List<String> interfaceNames = new ArrayList<String>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(className(utf8, classNames, in.readUnsignedShort()));
+        }
+        // 跳过字段和方法
+        for (int members = 0; members < 2; members++) {
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                in.skipBytes(6);
+                skipAttributes(in);
+            }
+        }
+
+        boolean memberClass = false;
+        boolean anonymousClass = false;
+        List<String> annotationNames = Collections.emptyList();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                int count = in.readUnsignedShort();
+                annotationNames = new ArrayList<String>(count);
+                for (int j = 0; j < count; j++) {
+                    String descriptor = utf8[in.readUnsignedShort()];
+                    annotationNames.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+                    skipElementValuePairs(in);
+                }
+            } else if ("InnerClasses".equals(name)) {
+                int count = in.readUnsignedShort();
+                for (int j = 0; j < count; j++) {
+                    int innerClass = in.readUnsignedShort();
+                    int outerClass = in.readUnsignedShort();
+                    int innerName = in.readUnsignedShort();
+                    in.skipBytes(2);
+                    if (innerClass == thisClass) {
+                        memberClass = outerClass != 0;
+                        anonymousClass = innerName == 0;
+                    }
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+        return new ClassFileHeader(className(utf8, classNames, thisClass),
+                superClass == 0 ? null : className(utf8, classNames, superClass),
+                interfaceNames, accessFlags, memberClass, anonymousClass, annotationNames);
+    }
+
+    private static String className(String[] utf8, int[] classNames, int index) {
+        return utf8[classNames[index]].replace('/', '.');
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipBytes(2);
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            in.skipBytes(2);
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                in.skipBytes(2);
+                skipElementValuePairs(in);
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            default:
+                // 基本类型、String 和 Class 常量
+                in.skipBytes(2);
+                break;
+        }
+    }
+
+    /**
+     * @return the binary name of the class, for instance {@code a.b.Outer$Inner}
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the direct super class, null for java.lang.Object
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isMemberClass() {
+        return memberClass;
+    }
+
+    public boolean isAnonymousClass() {
+        return anonymousClass;
+    }
+
+    /**
+     * @return whether the class itself declares the annotation; inherited annotations are not visible here
+     */
+    public boolean isAnnotationPresent(String annotationClassName) {
+        return annotationNames.contains(annotationClassName);
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A build-time list of class files, read by {@link ResolverUtil} instead of listing packages through the {@link VFS}.
+ * Every {@value #RESOURCE} on the class path holds one class file path per line, e.g.
+ * {@code org/example/mapper/BlogMapper.class}. A package is looked up in the indexes only when every class path root
+ * containing it has an index, otherwise it is listed through the VFS. An index must list every class of its root.
+ * <p>
+ * The index of a compiled classes directory is written by
+ * {@code java org.apache.ibatis.io.ClassIndex target/classes}.
+ *
+ * @since 3.4.3
+ */
+public final class ClassIndex {
+
+    public static final String RESOURCE = "META-INF/mybatis/classes.idx";
+
+    private static final String ENCODING = "UTF-8";
+
+    /**
+     * 每个类加载器的索引，按所在的类路径根目录(索引 URL 去掉 RESOURCE 后的部分)分组
+     */
+    private static final Map<ClassLoader, Map<String, List<String>>> indexes = new WeakHashMap<ClassLoader, Map<String, List<String>>>();
+
+    private ClassIndex() {
+        // Prevent Instantiation
+    }
+
+    /**
+     * Returns the indexed class files below the package path, or null when the package is not indexed or a class
+     * path root containing it has no index.
+     */
+    public static List<String> list(ClassLoader classLoader, String packagePath) throws IOException {
+        Map<String, List<String>> rootIndexes = entries(classLoader);
+        if (rootIndexes.isEmpty()) {
+            return null;
+        }
+        String path = packagePath.endsWith("/") ? packagePath.substring(0, packagePath.length() - 1) : packagePath;
+        // 同一个包可能分布在多个 jar 或目录中，只要有一个没有索引就交给 VFS 扫描
+        Enumeration<URL> urls = classLoader.getResources(path);
+        while (urls.hasMoreElements()) {
+            String root = rootOf(urls.nextElement(), path);
+            if (root == null || !rootIndexes.containsKey(root)) {
+                return null;
+            }
+        }
+        String prefix = path + "/";
+        List<String> classFiles = null;
+        for (List<String> rootEntries : rootIndexes.values()) {
+            for (String entry : rootEntries) {
+                if (entry.startsWith(prefix)) {
+                    if (classFiles == null) {
+                        classFiles = new ArrayList<String>();
+                    }
+                    classFiles.add(entry);
+                }
+            }
+        }
+        return classFiles;
+    }
+
+    private static Map<String, List<String>> entries(ClassLoader classLoader) throws IOException {
+        synchronized (indexes) {
+            Map<String, List<String>> rootIndexes = indexes.get(classLoader);
+            if (rootIndexes == null) {
+                rootIndexes = new LinkedHashMap<String, List<String>>();
+                Enumeration<URL> urls = classLoader.getResources(RESOURCE);
+                while (urls.hasMoreElements()) {
+                    URL url = urls.nextElement();
+                    List<String> entries = new ArrayList<String>();
+                    read(url, entries);
+                    rootIndexes.put(rootOf(url, RESOURCE), entries);
+                }
+                indexes.put(classLoader, rootIndexes);
+            }
+            return rootIndexes;
+        }
+    }
+
+    /**
+     * 资源 URL 去掉资源路径后即为所在的类路径根目录，例如 {@code jar:file:/app.jar!/}
+     */
+    private static String rootOf(URL url, String resource) {
+        String external = url.toExternalForm();
+        if (external.endsWith("/")) {
+            external = external.substring(0, external.length() - 1);
+        }
+        return external.endsWith(resource) ? external.substring(0, external.length() - resource.length()) : null;
+    }
+
+    private static void read(URL url, List<String> entries) throws IOException {
+        InputStream in = url.openStream();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, ENCODING));
+            for (String line; (line = reader.readLine()) != null; ) {
+                line = line.trim();
+                if (line.endsWith(".class")) {
+                    entries.add(line);
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the index of a classes directory to {@value #RESOURCE} inside that directory.
+     */
+    public static File write(File classesDirectory) throws IOException {
+        List<String> classFiles = new ArrayList<String>();
+        collect(classesDirectory, "", classFiles);
+        Collections.sort(classFiles);
+        File index = new File(classesDirectory, RESOURCE);
+        if (!index.getParentFile().isDirectory() && !index.getParentFile().mkdirs()) {
+            throw new IOException("Could not create " + index.getParentFile());
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(index), ENCODING);
+        try {
+            for (String classFile : classFiles) {
+                writer.write(classFile);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+        return index;
+    }
+
+    private static void collect(File directory, String path, List<String> classFiles) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collect(child, path + child.getName() + "/", classFiles);
+            } else if (child.getName().endsWith(".class")) {
+                classFiles.add(path + child.getName());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java " + ClassIndex.class.getName() + " <classes directory>...");
+            return;
+        }
+        for (String directory : args) {
+            System.out.println("Wrote " + write(new File(directory)));
+        }
+    }
+
+}
@@ -28,6 +28,8 @@ import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 
@@ -45,6 +47,12 @@ public class DefaultVFS extends VFS {
     /** The magic header that indicates a JAR (ZIP) file. */
     private static final byte[] JAR_MAGIC = {'P', 'K', 3, 4};
 
+    /**
+     * Entry names of the JAR files listed so far, so that scanning several packages of one JAR reads it only once.
+     * Keys of local JAR files include the modification time.
+     */
+    private static final ConcurrentMap<String, List<String>> jarEntries = new ConcurrentHashMap<String, List<String>>();
+
     @Override
     public boolean isValid() {
         return true;
@@ -67,12 +75,11 @@ public class DefaultVFS extends VFS {
             // file is found, then we'll list child resources by reading the JAR.
             URL jarUrl = findJarForResource(url);
             if (jarUrl != null) {
-                is = jarUrl.openStream();
                 // 遍历 Jar 中的 资源 ，并返回以 path 开头的资源列表
                 if (log.isDebugEnabled()) {
                     log.debug("Listing " + url);
                 }
-                resources = listResources(new JarInputStream(is), path);
+                resources = listResources(jarUrl, path);
             } else {
                 List<String> children = new ArrayList<String>();
                 // 遍历 url 指 向的目录 ，将其下资源名称记录到 children 集合中
@@ -215,6 +222,49 @@ public class DefaultVFS extends VFS {
         return resources;
     }
 
+    /**
+     * List the names of the entries in the JAR file at the given URL that begin with the specified {@code path}. The
+     * entry names of the JAR are read once and reused until the file changes.
+     *
+     * @param jarUrl The URL of the JAR file
+     * @param path The leading path to match
+     * @return The names of all the matching entries
+     * @throws IOException If I/O errors occur
+     * @since 3.4.3
+     */
+    protected List<String> listResources(URL jarUrl, String path) throws IOException {
+        String key = jarUrl.toExternalForm();
+        if ("file".equals(jarUrl.getProtocol())) {
+            key = key + "@" + new File(jarUrl.getFile()).lastModified();
+        }
+        List<String> entries = jarEntries.get(key);
+        if (entries == null) {
+            InputStream is = jarUrl.openStream();
+            try {
+                // 以空路径列出全部条目，按 path 过滤在缓存之后进行
+                entries = listResources(new JarInputStream(is), "/");
+            } finally {
+                is.close();
+            }
+            jarEntries.put(key, entries);
+        }
+
+        // 缓存的条目名称不带开头的”/”
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        if (!path.endsWith("/")) {
+            path = path + "/";
+        }
+        List<String> resources = new ArrayList<String>();
+        for (String name : entries) {
+            if (name.startsWith(path)) {
+                resources.add(name);
+            }
+        }
+        return resources;
+    }
+
     /**
      * Attempts to deconstruct the given URL to find a JAR file containing the resource referenced
      * by the URL. That is, assuming the URL references a JAR entry, this method will return a URL
@@ -16,7 +16,9 @@
 package org.apache.ibatis.io;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -77,12 +79,26 @@ public class ResolverUtil<T> {
         boolean matches(Class<?> type);
     }
 
+    /**
+     * A Test that can reject candidates from their class file alone, so that those classes are never loaded.
+     *
+     * @since 3.4.3
+     */
+    public static interface ClassFileTest extends Test {
+        /**
+         * 仅根据类文件头判断，返回 false 时不再加载该类
+         * Returns false if the class described by the header can not match; true if it has to be loaded and passed
+         * to {@link #matches(Class)}.
+         */
+        boolean mayMatch(ClassFileHeader header);
+    }
+
     /**
      * Test实现类，用于检测指定类是否继承了 parent 指定的类
      * A Test that checks to see if each class is assignable to the provided class. Note
      * that this test will match the parent type itself if it is presented for matching.
      */
-    public static class IsA implements Test {
+    public static class IsA implements ClassFileTest {
         private Class<?> parent;
 
         /** Constructs an IsA test using the supplied Class as the parent class/interface. */
@@ -96,6 +112,18 @@ public class ResolverUtil<T> {
             return type != null && parent.isAssignableFrom(type);
         }
 
+        /** Returns false only for classes that directly extend Object and implement nothing else. */
+        @Override
+        public boolean mayMatch(ClassFileHeader header) {
+            String parentName = parent.getName();
+            if (parent == Object.class || parentName.equals(header.getClassName())
+                    || parentName.equals(header.getSuperClassName()) || header.getInterfaceNames().contains(parentName)) {
+                return true;
+            }
+            // 间接的父类型需要加载后才能判断
+            return !(Object.class.getName().equals(header.getSuperClassName()) && header.getInterfaceNames().isEmpty());
+        }
+
         @Override
         public String toString() {
             return "is assignable to " + parent.getSimpleName();
@@ -107,7 +135,7 @@ public class ResolverUtil<T> {
      * A Test that checks to see if each class is annotated with a specific annotation. If it
      * is, then the test returns true, otherwise false.
      */
-    public static class AnnotatedWith implements Test {
+    public static class AnnotatedWith implements ClassFileTest {
         private Class<? extends Annotation> annotation;
 
         /** Constructs an AnnotatedWith test for the specified annotation type. */
@@ -121,6 +149,12 @@ public class ResolverUtil<T> {
             return type != null && type.isAnnotationPresent(annotation);
         }
 
+        /** Returns false if the class does not declare the annotation and the annotation is not inherited. */
+        @Override
+        public boolean mayMatch(ClassFileHeader header) {
+            return annotation.isAnnotationPresent(Inherited.class) || header.isAnnotationPresent(annotation.getName());
+        }
+
         @Override
         public String toString() {
             return "annotated with @" + annotation.getSimpleName();
@@ -234,8 +268,11 @@ public class ResolverUtil<T> {
         String path = getPackagePath(packageName);
 
         try {
-            // 通过 VFS.list （）查找 packageName 包下的所有资源
-            List<String> children = VFS.getInstance().list(path);
+            // 优先使用构建时生成的类索引，否则通过 VFS.list （）查找 packageName 包下的所有资源
+            List<String> children = ClassIndex.list(getClassLoader(), path);
+            if (children == null) {
+                children = VFS.getInstance().list(path);
+            }
             for (String child : children) {
                 // child是类的全限定名
                 if (child.endsWith(".class")) {
@@ -276,6 +313,13 @@ public class ResolverUtil<T> {
             if (log.isDebugEnabled()) {
                 log.debug("Checking to see if class " + externalName + " matches criteria [" + test + "]");
             }
+            // 先读取类文件头，不可能匹配的类不再加载
+            if (test instanceof ClassFileTest) {
+                ClassFileHeader header = readHeader(loader, fqn);
+                if (header != null && !((ClassFileTest) test).mayMatch(header)) {
+                    return;
+                }
+            }
             // 加载指定的类
             Class<?> type = loader.loadClass(externalName);
             // 通过 Test.matches （）方法检测条件是否满足
@@ -288,4 +332,28 @@ public class ResolverUtil<T> {
                     t.getClass().getName() + " with message: " + t.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the header of the class file, or returns null if it can not be read and the class has to be loaded.
+     */
+    private ClassFileHeader readHeader(ClassLoader loader, String fqn) {
+        InputStream in = loader.getResourceAsStream(fqn);
+        if (in == null) {
+            return null;
+        }
+        try {
+            return ClassFileHeader.read(in);
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not read class file '" + fqn + "': " + e.getMessage());
+            }
+            return null;
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
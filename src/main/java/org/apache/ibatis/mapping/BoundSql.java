@@ -40,13 +40,14 @@ public class BoundSql {
     private Object parameterObject;
     private Map<String, Object> additionalParameters;
     private MetaObject metaParameters;
+    private final Configuration configuration;
 
     public BoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, Object parameterObject) {
         this.sql = sql;
         this.parameterMappings = parameterMappings;
         this.parameterObject = parameterObject;
         this.additionalParameters = new HashMap<String, Object>();
-        this.metaParameters = configuration.newMetaObject(additionalParameters);
+        this.configuration = configuration;
     }
 
     public String getSql() {
@@ -61,16 +62,31 @@ public class BoundSql {
         return parameterObject;
     }
 
+    /**
+     * @since 3.4.3
+     */
+    public boolean hasAdditionalParameters() {
+        return !additionalParameters.isEmpty();
+    }
+
     public boolean hasAdditionalParameter(String name) {
-        String paramName = new PropertyTokenizer(name).getName();
+        String paramName = PropertyTokenizer.forPath(name).getName();
         return additionalParameters.containsKey(paramName);
     }
 
     public void setAdditionalParameter(String name, Object value) {
-        metaParameters.setValue(name, value);
+        metaParameters().setValue(name, value);
     }
 
     public Object getAdditionalParameter(String name) {
-        return metaParameters.getValue(name);
+        return metaParameters().getValue(name);
+    }
+
+    private MetaObject metaParameters() {
+        // 静态 SQL 没有附加参数，用到时才创建 MetaObject
+        if (metaParameters == null) {
+            metaParameters = configuration.newMetaObject(additionalParameters);
+        }
+        return metaParameters;
     }
 }
@@ -24,13 +24,18 @@ import java.util.Properties;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
 import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -39,6 +44,8 @@ import org.apache.ibatis.reflection.SystemMetaObject;
  * Cache 的建造者
  */
 public class CacheBuilder {
+    private static final Log log = LogFactory.getLog(CacheBuilder.class);
+
     // Cache 对象的唯一标识， 一般情况下对应映射文件中的配置 namespace
     private String id;
     // Cache 接口的真正实现类，默认位是 PerpetualCache
@@ -55,6 +62,11 @@ public class CacheBuilder {
     private Properties properties;
     // 其他配置信息
     private boolean blocking;
+    // 可读写缓存使用的序列化方式，默认是 java 序列化
+    private Class<? extends CacheCodec> codec;
+    // 每个缓存项的存活时间，以及提前刷新的比例
+    private Long timeToLive;
+    private Double refreshAhead;
 
     public CacheBuilder(String id) {
         this.id = id;
@@ -93,6 +105,21 @@ public class CacheBuilder {
         return this;
     }
 
+    public CacheBuilder codec(Class<? extends CacheCodec> codec) {
+        this.codec = codec;
+        return this;
+    }
+
+    public CacheBuilder timeToLive(Long timeToLive) {
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    public CacheBuilder refreshAhead(Double refreshAhead) {
+        this.refreshAhead = refreshAhead;
+        return this;
+    }
+
     public CacheBuilder properties(Properties properties) {
         this.properties = properties;
         return this;
@@ -114,6 +141,10 @@ public class CacheBuilder {
         // 检测 cache 对象的类型，如果是 PerpetualCache 类型，则为其添加 decorators 集合中
         //的装饰器，如采是自定义类型的 Cache 接口实现，则不添加 decorators 集合中的装饰
         if (PerpetualCache.class.equals(cache.getClass())) {
+            if (timeToLive != null) {
+                // 过期装饰器放在淘汰策略之下，淘汰的缓存项会同时清除其过期记录
+                cache = newExpiringCache(cache);
+            }
             for (Class<? extends Cache> decorator : decorators) {
                 // 通过反射获取参数为 Cache 类型的构造方法，并通过该构造方法创建装饰器
                 cache = newCacheDecoratorInstance(decorator, cache);
@@ -122,10 +153,17 @@ public class CacheBuilder {
             }
             // 添加 MyBatis 中提供的标准装饰器
             cache = setStandardDecorators(cache);
-        } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-            // 如果不是 LoggingCache 的子类，则添加 LoggingCache 装饰器
-            // 对非 LoggingCache 类型的缓存应用 LoggingCache 装饰器
-            cache = new LoggingCache(cache);
+        } else {
+            if (timeToLive != null || refreshAhead != null) {
+                // 自定义缓存不添加装饰器，过期设置不会生效
+                log.warn("Cache '" + id + "' of type " + cache.getClass().getName()
+                        + " ignores timeToLive and refreshAhead, which only apply to the default PerpetualCache");
+            }
+            if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
+                // 如果不是 LoggingCache 的子类，则添加 LoggingCache 装饰器
+                // 对非 LoggingCache 类型的缓存应用 LoggingCache 装饰器
+                cache = new LoggingCache(cache);
+            }
         }
         return cache;
     }
@@ -142,6 +180,15 @@ public class CacheBuilder {
         }
     }
 
+    private Cache newExpiringCache(Cache cache) {
+        ExpiringCache expiringCache = new ExpiringCache(cache);
+        expiringCache.setTimeToLive(timeToLive);
+        if (refreshAhead != null) {
+            expiringCache.setRefreshAhead(refreshAhead);
+        }
+        return expiringCache;
+    }
+
     /**
      * 判断是否有设置某些属性 否则添加默认修饰器
      * @param cache
@@ -161,7 +208,7 @@ public class CacheBuilder {
             }
             if (readWrite) {
                 // readWrite 为 true，应用 SerializedCache 装饰器
-                cache = new SerializedCache(cache);
+                cache = new SerializedCache(cache, newCodecInstance());
             }
             // 应用 LoggingCache，SynchronizedCache 装饰器，使原缓存具备打印日志和线程同步的能力
             cache = new LoggingCache(cache);
@@ -231,6 +278,15 @@ public class CacheBuilder {
         }
     }
 
+    private CacheCodec newCodecInstance() {
+        Class<? extends CacheCodec> codecClass = codec == null ? JdkSerializationCodec.class : codec;
+        try {
+            return codecClass.newInstance();
+        } catch (Exception e) {
+            throw new CacheException("Could not instantiate cache codec (" + codecClass + "). Cause: " + e, e);
+        }
+    }
+
     private Cache newBaseCacheInstance(Class<? extends Cache> cacheClass, String id) {
         Constructor<? extends Cache> cacheConstructor = getBaseCacheConstructor(cacheClass);
         try {
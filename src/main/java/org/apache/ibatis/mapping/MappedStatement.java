@@ -18,8 +18,12 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.executor.instrumentation.StatementMetricsRegistry;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -56,6 +60,17 @@ public final class MappedStatement {
     private Log statementLog;
     private LanguageDriver lang;
     private String[] resultSets;
+    /**
+     * 语句读写的数据表，为空表示未知
+     */
+    private Set<String> tables;
+
+    /**
+     * 静态 SQL 的参数绑定计划，按参数类型缓存；参数映射列表每次不同时（动态 SQL）不再创建
+     */
+    private final ConcurrentMap<Class<?>, ParameterBindingPlan> parameterBindingPlans = new ConcurrentHashMap<Class<?>, ParameterBindingPlan>();
+    private volatile List<ParameterMapping> plannedParameterMappings;
+    private volatile boolean dynamicParameterMappings;
 
     MappedStatement() {
         // constructor disabled
@@ -79,6 +94,7 @@ public final class MappedStatement {
             }
             mappedStatement.statementLog = LogFactory.getLog(logId);
             mappedStatement.lang = configuration.getDefaultScriptingLanguageInstance();
+            mappedStatement.tables = Collections.emptySet();
         }
 
         public Builder resource(String resource) {
@@ -173,6 +189,13 @@ public final class MappedStatement {
             return this;
         }
 
+        public Builder tables(Set<String> tables) {
+            if (tables != null) {
+                mappedStatement.tables = Collections.unmodifiableSet(tables);
+            }
+            return this;
+        }
+
         /** @deprecated Use {@link #resultSets} */
         @Deprecated
         public Builder resulSets(String resultSet) {
@@ -282,13 +305,56 @@ public final class MappedStatement {
         return resultSets;
     }
 
+    /**
+     * @return lower case names of the tables this statement reads or writes, empty if unknown
+     * @since 3.4.3
+     */
+    public Set<String> getTables() {
+        return tables;
+    }
+
     /** @deprecated Use {@link #getResultSets()} */
     @Deprecated
     public String[] getResulSets() {
         return resultSets;
     }
 
+    /**
+     * Returns the binding plan of the parameter mappings for a parameter type, or null if the statement passes
+     * different parameter mappings from one execution to the next, as dynamic SQL does.
+     * @since 3.4.3
+     */
+    public ParameterBindingPlan getParameterBindingPlan(Class<?> parameterType, List<ParameterMapping> parameterMappings) {
+        if (dynamicParameterMappings) {
+            return null;
+        }
+        if (plannedParameterMappings == null) {
+            plannedParameterMappings = parameterMappings;
+        } else if (plannedParameterMappings != parameterMappings) {
+            dynamicParameterMappings = true;
+            parameterBindingPlans.clear();
+            return null;
+        }
+        ParameterBindingPlan plan = parameterBindingPlans.get(parameterType);
+        if (plan == null) {
+            plan = new ParameterBindingPlan(configuration, parameterType, parameterMappings);
+            parameterBindingPlans.put(parameterType, plan);
+        }
+        return plan.isFor(parameterMappings) ? plan : null;
+    }
+
     public BoundSql getBoundSql(Object parameterObject) {
+        StatementMetricsRegistry metrics = configuration.getStatementMetrics();
+        if (metrics == null) {
+            return createBoundSql(parameterObject);
+        }
+        long start = System.nanoTime();
+        BoundSql boundSql = createBoundSql(parameterObject);
+        metrics.sqlGenerated(this, System.nanoTime() - start);
+        return boundSql;
+    }
+
+    private BoundSql createBoundSql(Object parameterObject) {
         BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
         List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
         if (parameterMappings == null || parameterMappings.isEmpty()) {
@@ -0,0 +1,186 @@
+/**
+ * Copyright ${license.git.copyrightYears} the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.UnknownTypeHandler;
+
+/**
+ * How the values of the parameter mappings of a statement are read from a parameter object of one class. The
+ * property of each mapping is resolved once to the parameter itself, a map key or a getter; only paths that can not
+ * be resolved ahead, like indexed properties, still go through a {@link org.apache.ibatis.reflection.MetaObject}.
+ *
+ * @since 3.4.3
+ */
+public final class ParameterBindingPlan {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final TypeHandler<Object> OBJECT_TYPE_HANDLER = new ObjectTypeHandler();
+
+    private static final int PARAMETER = 0;
+    private static final int MAP_KEY = 1;
+    private static final int GETTER = 2;
+    private static final int META_OBJECT = 3;
+
+    private final Configuration configuration;
+    private final List<ParameterMapping> parameterMappings;
+    private final int[] kinds;
+    private final String[] names;
+    private final Invoker[] getters;
+    private final String[] children;
+    // UnknownTypeHandler 按参数值的类型解析出的 TypeHandler，记录最近一次的结果
+    private final ResolvedTypeHandler[] resolvedTypeHandlers;
+
+    ParameterBindingPlan(Configuration configuration, Class<?> parameterType, List<ParameterMapping> parameterMappings) {
+        this.configuration = configuration;
+        this.parameterMappings = parameterMappings;
+        int size = parameterMappings.size();
+        this.kinds = new int[size];
+        this.names = new String[size];
+        this.getters = new Invoker[size];
+        this.children = new String[size];
+        this.resolvedTypeHandlers = new ResolvedTypeHandler[size];
+
+        boolean parameterHasTypeHandler = configuration.getTypeHandlerRegistry().hasTypeHandler(parameterType);
+        // 自定义的 ObjectWrapperFactory 按实例决定包装方式，无法预先解析
+        boolean defaultWrappers = configuration.getObjectWrapperFactory().getClass() == DefaultObjectWrapperFactory.class
+                && !ObjectWrapper.class.isAssignableFrom(parameterType);
+        Reflector reflector = null;
+        for (int i = 0; i < size; i++) {
+            String property = parameterMappings.get(i).getProperty();
+            names[i] = property;
+            kinds[i] = META_OBJECT;
+            if (parameterHasTypeHandler) {
+                kinds[i] = PARAMETER;
+                continue;
+            }
+            int dot = property.indexOf('.');
+            String name = dot < 0 ? property : property.substring(0, dot);
+            if (!defaultWrappers || name.indexOf('[') >= 0 || Collection.class.isAssignableFrom(parameterType)) {
+                continue;
+            }
+            if (Map.class.isAssignableFrom(parameterType)) {
+                kinds[i] = MAP_KEY;
+            } else {
+                if (reflector == null) {
+                    reflector = configuration.getReflectorFactory().findForClass(parameterType);
+                }
+                if (!reflector.hasGetter(name)) {
+                    continue;
+                }
+                kinds[i] = GETTER;
+                getters[i] = reflector.getGetInvoker(name);
+            }
+            names[i] = name;
+            children[i] = dot < 0 ? null : property.substring(dot + 1);
+        }
+    }
+
+    /**
+     * @return whether the plan was made for this list of parameter mappings
+     */
+    public boolean isFor(List<ParameterMapping> parameterMappings) {
+        return this.parameterMappings == parameterMappings;
+    }
+
+    /**
+     * Reads the value of the parameter mapping at the index, as {@code MetaObject.getValue(property)} would.
+     */
+    public Object getValue(int index, Object parameterObject) {
+        Object value;
+        switch (kinds[index]) {
+            case PARAMETER:
+                return parameterObject;
+            case MAP_KEY:
+                value = ((Map<?, ?>) parameterObject).get(names[index]);
+                break;
+            case GETTER:
+                value = invokeGetter(index, parameterObject);
+                break;
+            default:
+                return configuration.newMetaObject(parameterObject).getValue(names[index]);
+        }
+        if (children[index] == null || value == null) {
+            return value;
+        }
+        return configuration.newMetaObject(value).getValue(children[index]);
+    }
+
+    private Object invokeGetter(int index, Object parameterObject) {
+        try {
+            try {
+                return getters[index].invoke(parameterObject, NO_ARGUMENTS);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not get property '" + names[index] + "' from " + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+        }
+    }
+
+    /**
+     * Returns the type handler that sets a non null value of the parameter mapping at the index. An
+     * {@link UnknownTypeHandler} is replaced by the handler it would resolve for the class of the value.
+     */
+    public TypeHandler<?> getTypeHandler(int index, Object value) {
+        ParameterMapping parameterMapping = parameterMappings.get(index);
+        TypeHandler<?> typeHandler = parameterMapping.getTypeHandler();
+        if (typeHandler == null || typeHandler.getClass() != UnknownTypeHandler.class) {
+            return typeHandler;
+        }
+        ResolvedTypeHandler resolved = resolvedTypeHandlers[index];
+        if (resolved == null || resolved.valueType != value.getClass()) {
+            resolved = new ResolvedTypeHandler(value.getClass(), resolveTypeHandler(value.getClass(), parameterMapping.getJdbcType()));
+            resolvedTypeHandlers[index] = resolved;
+        }
+        return resolved.typeHandler;
+    }
+
+    private TypeHandler<?> resolveTypeHandler(Class<?> valueType, JdbcType jdbcType) {
+        // 与 UnknownTypeHandler.resolveTypeHandler 一致
+        TypeHandler<?> handler = configuration.getTypeHandlerRegistry().getTypeHandler(valueType, jdbcType);
+        if (handler == null || handler instanceof UnknownTypeHandler) {
+            handler = OBJECT_TYPE_HANDLER;
+        }
+        return handler;
+    }
+
+    private static final class ResolvedTypeHandler {
+        private final Class<?> valueType;
+        private final TypeHandler<?> typeHandler;
+
+        ResolvedTypeHandler(Class<?> valueType, TypeHandler<?> typeHandler) {
+            this.valueType = valueType;
+            this.typeHandler = typeHandler;
+        }
+    }
+
+}
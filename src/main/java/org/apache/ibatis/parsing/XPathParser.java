@@ -19,6 +19,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 
@@ -235,6 +236,14 @@ public class XPathParser {
     }
 
     public List<XNode> evalNodes(Object root, String expression) {
+        List<Node> children = evaluateElementPath(expression, root);
+        if (children != null) {
+            List<XNode> xnodes = new ArrayList<XNode>(children.size());
+            for (Node child : children) {
+                xnodes.add(new XNode(this, child, variables));
+            }
+            return xnodes;
+        }
         List<XNode> xnodes = new ArrayList<XNode>();
         // 获得 Node 数组
         NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
@@ -250,6 +259,10 @@ public class XPathParser {
     }
 
     public XNode evalNode(Object root, String expression) {
+        List<Node> children = evaluateElementPath(expression, root);
+        if (children != null) {
+            return children.isEmpty() ? null : new XNode(this, children.get(0), variables);
+        }
         // 获得 Node 对象
         Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
         if (node == null) {
@@ -273,6 +286,80 @@ public class XPathParser {
         }
     }
 
+    /**
+     * 只由元素名组成的路径(如 /mapper/resultMap、cache-ref、select|insert|update|delete)直接遍历子节点求值，
+     * 结果与 XPath 相同(按文档顺序)，但避免了 javax.xml.xpath 编译和求值表达式的开销。
+     * 其他表达式返回 null，仍交由 XPath 处理
+     */
+    static List<Node> evaluateElementPath(String expression, Object root) {
+        if (!(root instanceof Node)) {
+            return null;
+        }
+        Node context = (Node) root;
+        if (expression.indexOf('|') >= 0) {
+            // 多个子元素名的并集
+            String[] names = expression.split("\\|", -1);
+            for (String name : names) {
+                if (!isElementName(name)) {
+                    return null;
+                }
+            }
+            List<Node> result = new ArrayList<Node>();
+            for (Node child = context.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    for (String name : names) {
+                        if (name.equals(child.getNodeName())) {
+                            result.add(child);
+                            break;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+        String path = expression;
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+            context = context.getNodeType() == Node.DOCUMENT_NODE ? context : context.getOwnerDocument();
+        }
+        String[] steps = path.split("/", -1);
+        for (String step : steps) {
+            if (!isElementName(step)) {
+                return null;
+            }
+        }
+        List<Node> result = Collections.singletonList(context);
+        for (String step : steps) {
+            List<Node> next = new ArrayList<Node>();
+            for (Node parent : result) {
+                for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child.getNodeType() == Node.ELEMENT_NODE && step.equals(child.getNodeName())) {
+                        next.add(child);
+                    }
+                }
+            }
+            result = next;
+        }
+        return result;
+    }
+
+    private static boolean isElementName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        char first = name.charAt(0);
+        if (!Character.isLetter(first) && first != '_') {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * 创建 Document 对象 XML 的 InputSource 对象
      * @param inputSource
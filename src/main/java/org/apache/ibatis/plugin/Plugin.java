@@ -15,14 +15,19 @@
  */
 package org.apache.ibatis.plugin;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.apache.ibatis.lang.UsesJava7;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -30,34 +35,38 @@ import org.apache.ibatis.reflection.ExceptionUtil;
  */
 public class Plugin implements InvocationHandler {
 
-    private Object target;
-    private Interceptor interceptor;
-    private Map<Class<?>, Set<Method>> signatureMap;
+    /**
+     * The parsed {@link Intercepts} of each interceptor class. Plugins are applied to every executor and statement
+     * handler, so the annotation is only read once per interceptor class.
+     */
+    @UsesJava7
+    private static final ClassValue<InterceptorSignatures> signatures = new ClassValue<InterceptorSignatures>() {
+        @Override
+        protected InterceptorSignatures computeValue(Class<?> type) {
+            return new InterceptorSignatures(type);
+        }
+    };
+
+    private final Object target;
+    private final Interceptor interceptor;
+    private final Set<Method> methods;
 
-    private Plugin(Object target, Interceptor interceptor, Map<Class<?>, Set<Method>> signatureMap) {
+    private Plugin(Object target, Interceptor interceptor, Set<Method> methods) {
         this.target = target;
         this.interceptor = interceptor;
-        this.signatureMap = signatureMap;
+        this.methods = methods;
     }
 
     public static Object wrap(Object target, Interceptor interceptor) {
-        Map<Class<?>, Set<Method>> signatureMap = getSignatureMap(interceptor);
-        Class<?> type = target.getClass();
-        Class<?>[] interfaces = getAllInterfaces(type, signatureMap);
-        if (interfaces.length > 0) {
-            return Proxy.newProxyInstance(
-                    type.getClassLoader(),
-                    interfaces,
-                    new Plugin(target, interceptor, signatureMap));
-        }
-        return target;
+        InterceptorSignatures interceptorSignatures = signatures.get(interceptor.getClass());
+        return interceptorSignatures.proxyType(target.getClass()).newInstance(target, interceptor, interceptorSignatures.methods);
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         try {
-            Set<Method> methods = signatureMap.get(method.getDeclaringClass());
-            if (methods != null && methods.contains(method)) {
+            // 所有被拦截的方法合并在一个集合中，一次查找即可
+            if (methods.contains(method)) {
                 return interceptor.intercept(new Invocation(target, method, args));
             }
             return method.invoke(target, args);
@@ -66,11 +75,11 @@ public class Plugin implements InvocationHandler {
         }
     }
 
-    private static Map<Class<?>, Set<Method>> getSignatureMap(Interceptor interceptor) {
-        Intercepts interceptsAnnotation = interceptor.getClass().getAnnotation(Intercepts.class);
+    private static Map<Class<?>, Set<Method>> getSignatureMap(Class<?> interceptorType) {
+        Intercepts interceptsAnnotation = interceptorType.getAnnotation(Intercepts.class);
         // issue #251
         if (interceptsAnnotation == null) {
-            throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptor.getClass().getName());
+            throw new PluginException("No @Intercepts annotation was found in interceptor " + interceptorType.getName());
         }
         Signature[] sigs = interceptsAnnotation.value();
         Map<Class<?>, Set<Method>> signatureMap = new HashMap<Class<?>, Set<Method>>();
@@ -103,4 +112,66 @@ public class Plugin implements InvocationHandler {
         return interfaces.toArray(new Class<?>[interfaces.size()]);
     }
 
+    /**
+     * The signatures of an interceptor class, and the proxy class used for each target class it is applied to.
+     */
+    private static final class InterceptorSignatures {
+        private final Map<Class<?>, Set<Method>> signatureMap;
+        private final Set<Method> methods = new HashSet<Method>();
+        private final ConcurrentMap<Class<?>, ProxyType> proxyTypes = new ConcurrentHashMap<Class<?>, ProxyType>();
+
+        InterceptorSignatures(Class<?> interceptorType) {
+            signatureMap = getSignatureMap(interceptorType);
+            for (Set<Method> typeMethods : signatureMap.values()) {
+                methods.addAll(typeMethods);
+            }
+        }
+
+        ProxyType proxyType(Class<?> targetType) {
+            ProxyType proxyType = proxyTypes.get(targetType);
+            if (proxyType == null) {
+                proxyType = new ProxyType(getAllInterfaces(targetType, signatureMap));
+                proxyTypes.put(targetType, proxyType);
+            }
+            return proxyType;
+        }
+    }
+
+    /**
+     * The interfaces to proxy for a target class and, once the first proxy exists, the constructor of its class.
+     */
+    private static final class ProxyType {
+        private final Class<?>[] interfaces;
+        private volatile Constructor<?> constructor;
+
+        ProxyType(Class<?>[] interfaces) {
+            this.interfaces = interfaces;
+        }
+
+        Object newInstance(Object target, Interceptor interceptor, Set<Method> methods) {
+            if (interfaces.length == 0) {
+                return target;
+            }
+            Plugin plugin = new Plugin(target, interceptor, methods);
+            Constructor<?> proxyConstructor = constructor;
+            if (proxyConstructor != null) {
+                try {
+                    return proxyConstructor.newInstance(plugin);
+                } catch (Exception e) {
+                    throw new PluginException("Could not create proxy for " + target.getClass().getName() + ". Cause: " + e, e);
+                }
+            }
+            Object proxy = Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, plugin);
+            // 非 public 接口的代理类无法在此直接构造，继续使用 Proxy.newProxyInstance
+            if (Modifier.isPublic(proxy.getClass().getModifiers())) {
+                try {
+                    constructor = proxy.getClass().getConstructor(InvocationHandler.class);
+                } catch (NoSuchMethodException e) {
+                    // 保持使用 Proxy.newProxyInstance
+                }
+            }
+            return proxy;
+        }
+    }
+
 }
@@ -87,7 +87,7 @@ public class MetaClass {
     }
 
     public Class<?> getSetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             MetaClass metaProp = metaClassForProperty(prop.getName());
             return metaProp.getSetterType(prop.getChildren());
@@ -105,7 +105,7 @@ public class MetaClass {
      * @return
      */
     public Class<?> getGetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             MetaClass metaProp = metaClassForProperty(prop);
             return metaProp.getGetterType(prop.getChildren());
@@ -180,7 +180,7 @@ public class MetaClass {
      */
     public boolean hasSetter(String name) {
         // 属性分词器，用于解析较为复杂的属性名
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         // hasNext 返回 true，则表明 name 是一个复合属性
         if (prop.hasNext()) {
             // 调用 reflector 的 hasSetter 方法
@@ -205,7 +205,7 @@ public class MetaClass {
      */
     public boolean hasGetter(String name) {
         // 解析属性表达式
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         // 是否存在子表达式
         if (prop.hasNext()) {
             // PropertyTokenizer.name 指定的属性有 getter 方法(有属性就会有对应的setter和getter？？reflector获取的元信息的结果)，才能递归处理子表达式
@@ -240,7 +240,7 @@ public class MetaClass {
      */
     private StringBuilder buildProperty(String name, StringBuilder builder) {
         // 解析属性表达式
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         // 是否还有子表达式 见PropertyTokenizer类
         if (prop.hasNext()) {
             // 查找 PropertyTokenizer.name 对应的属性
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.apache.ibatis.reflection.wrapper.BeanWrapper;
 import org.apache.ibatis.reflection.wrapper.CollectionWrapper;
@@ -33,6 +34,8 @@ import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
  */
 public class MetaObject {
 
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
     /**
      * 原始JavaBean对象
      */
@@ -153,15 +156,15 @@ public class MetaObject {
      */
     public Object getValue(String name) {
         // 解析属性表达式
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         // 处理子表达式
         if (prop.hasNext()) {
-            // 根据 PropertyTokenizer 解析后指定的属性，创建相应的 MetaObject 对象
-            MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
-            if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
+            // 获取中间属性的值，再继续解析子表达式
+            Object value = getValue(prop.getIndexedName());
+            if (value == null) {
                 return null;
             } else {
-                return metaValue.getValue(prop.getChildren());
+                return getNestedValue(value, prop.getChildren());
             }
         } else {
             return objectWrapper.get(prop);
@@ -175,23 +178,100 @@ public class MetaObject {
      * @param value
      */
     public void setValue(String name, Object value) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
-            MetaObject metaValue = metaObjectForProperty(prop.getIndexedName());
-            if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
-                if (value == null && prop.getChildren() != null) {
-                    // don't instantiate child path if value is null
-                    return;
-                } else {
-                    metaValue = objectWrapper.instantiatePropertyValue(name, prop, objectFactory);
-                }
+            Object child = getValue(prop.getIndexedName());
+            if (child != null) {
+                setNestedValue(child, prop.getChildren(), value);
+                return;
+            }
+            if (value == null && prop.getChildren() != null) {
+                // don't instantiate child path if value is null
+                return;
             }
+            MetaObject metaValue = objectWrapper.instantiatePropertyValue(name, prop, objectFactory);
             metaValue.setValue(prop.getChildren(), value);
         } else {
             objectWrapper.set(prop, value);
         }
     }
 
+    /**
+     * 读取 object 中 path 指定的属性。中间对象是普通 JavaBean 时直接调用其 getter，
+     * 不再为每一级创建 MetaObject，其他情况（集合、Map、带索引的属性等）交给 MetaObject 处理
+     */
+    private Object getNestedValue(Object object, String path) {
+        PropertyTokenizer prop = PropertyTokenizer.forPath(path);
+        while (prop.getIndex() == null && isBean(object)) {
+            Object value = getBeanProperty(object, prop.getName());
+            if (value == null || !prop.hasNext()) {
+                return value;
+            }
+            object = value;
+            path = prop.getChildren();
+            prop = prop.next();
+        }
+        return MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory).getValue(path);
+    }
+
+    private void setNestedValue(Object object, String path, Object value) {
+        PropertyTokenizer prop = PropertyTokenizer.forPath(path);
+        while (prop.getIndex() == null && isBean(object)) {
+            if (!prop.hasNext()) {
+                setBeanProperty(object, prop.getName(), value);
+                return;
+            }
+            Object child = getBeanProperty(object, prop.getName());
+            if (child == null) {
+                // 由 MetaObject 负责创建中间对象
+                break;
+            }
+            object = child;
+            path = prop.getChildren();
+            prop = prop.next();
+        }
+        MetaObject.forObject(object, objectFactory, objectWrapperFactory, reflectorFactory).setValue(path, value);
+    }
+
+    /**
+     * 与构造方法的判断顺序一致：该对象会由 BeanWrapper 包装
+     */
+    private boolean isBean(Object object) {
+        return !(object instanceof ObjectWrapper) && !objectWrapperFactory.hasWrapperFor(object)
+                && !(object instanceof Map) && !(object instanceof Collection);
+    }
+
+    // 与 BeanWrapper.getBeanProperty 相同，异常信息也保持一致
+    private Object getBeanProperty(Object object, String name) {
+        try {
+            Invoker method = reflectorFactory.findForClass(object.getClass()).getGetInvoker(name);
+            try {
+                return method.invoke(object, NO_ARGUMENTS);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+        }
+    }
+
+    // 与 BeanWrapper.setBeanProperty 相同
+    private void setBeanProperty(Object object, String name, Object value) {
+        try {
+            Invoker method = reflectorFactory.findForClass(object.getClass()).getSetInvoker(name);
+            Object[] params = {value};
+            try {
+                method.invoke(object, params);
+            } catch (Throwable t) {
+                throw ExceptionUtil.unwrapThrowable(t);
+            }
+        } catch (Throwable t) {
+            throw new ReflectionException("Could not set property '" + name + "' of '" + object.getClass() + "' with value '" + value + "' Cause: " + t.toString(), t);
+        }
+    }
+
     public MetaObject metaObjectForProperty(String name) {
         // 获取指定的属性
         Object value = getValue(name);
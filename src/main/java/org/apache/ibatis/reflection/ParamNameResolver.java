@@ -18,11 +18,13 @@ package org.apache.ibatis.reflection;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod.ParamKeys;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -49,6 +51,11 @@ public class ParamNameResolver {
 
     private boolean hasParamAnnotation;
 
+    /**
+     * The keys of the {@link ParamMap} built for several parameters: the names above followed by the generic names.
+     */
+    private final ParamKeys paramKeys;
+
     public ParamNameResolver(Configuration config, Method method) {
         final Class<?>[] paramTypes = method.getParameterTypes();
         final Annotation[][] paramAnnotations = method.getParameterAnnotations();
@@ -82,6 +89,21 @@ public class ParamNameResolver {
             map.put(paramIndex, name);
         }
         names = Collections.unmodifiableSortedMap(map);
+
+        // 与逐个 put 的顺序一致，同名的 key 以后出现的为准
+        final LinkedHashMap<String, Integer> keys = new LinkedHashMap<String, Integer>();
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : names.entrySet()) {
+            keys.put(entry.getValue(), entry.getKey());
+            // add generic param names (param1, param2, ...)
+            final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
+            // ensure not to overwrite parameter named with @Param
+            if (!names.containsValue(genericParamName)) {
+                keys.put(genericParamName, entry.getKey());
+            }
+            i++;
+        }
+        paramKeys = new ParamKeys(keys);
     }
 
     private String getActualParamName(Method method, int paramIndex) {
@@ -117,19 +139,8 @@ public class ParamNameResolver {
         } else if (!hasParamAnnotation && paramCount == 1) {
             return args[names.firstKey()];
         } else {
-            final Map<String, Object> param = new ParamMap<Object>();
-            int i = 0;
-            for (Map.Entry<Integer, String> entry : names.entrySet()) {
-                param.put(entry.getValue(), args[entry.getKey()]);
-                // add generic param names (param1, param2, ...)
-                final String genericParamName = GENERIC_NAME_PREFIX + String.valueOf(i + 1);
-                // ensure not to overwrite parameter named with @Param
-                if (!names.containsValue(genericParamName)) {
-                    param.put(genericParamName, args[entry.getKey()]);
-                }
-                i++;
-            }
-            return param;
+            // 参数名称和下标已预先计算，只需包装参数数组
+            return new ParamMap<Object>(paramKeys, args);
         }
     }
 }
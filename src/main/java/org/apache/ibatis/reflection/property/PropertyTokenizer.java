@@ -16,15 +16,28 @@
 package org.apache.ibatis.reflection.property;
 
 import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.scripting.xmltags.ForEachSqlNode;
 
 /**
  * @author Clinton Begin
  */
 public class PropertyTokenizer implements Iterator<PropertyTokenizer> {
-    private String name;
-    private String indexedName;
-    private String index;
-    private String children;
+    /**
+     * 解析结果的缓存，属性表达式来自映射配置，数量有限；超过上限后不再缓存
+     * foreach 生成的参数名(__frch_item_0 ...)随集合大小增长，不进入缓存
+     */
+    private static final int CACHE_LIMIT = 10000;
+    private static final ConcurrentMap<String, PropertyTokenizer> cache = new ConcurrentHashMap<String, PropertyTokenizer>();
+
+    // 字段不可变，解析结果可以在线程间共享
+    private final String name;
+    private final String indexedName;
+    private final String index;
+    private final String children;
+    private PropertyTokenizer next;
 
     /**
      * 解析属性 通过，和[] 进行解析
@@ -37,6 +50,7 @@ public class PropertyTokenizer implements Iterator<PropertyTokenizer> {
     public PropertyTokenizer(String fullname) {
         // 检测传入的参数中是否包含字符 '.'
         int delim = fullname.indexOf('.');
+        String name;
         // 以点位为界，进行分割。比如：
         // 比如class.student.name,则name=class,children=student.name
         if (delim > -1) {
@@ -56,7 +70,26 @@ public class PropertyTokenizer implements Iterator<PropertyTokenizer> {
             // 获取分解符前面的内容，比如 fullname = articles[1]，name = articles
             name = name.substring(0, delim);
             //class[0].student[0].name: indexedName = class[0],name = class,index = 0, children = student[0].name
+        } else {
+            index = null;
         }
+        this.name = name;
+    }
+
+    /**
+     * Returns the parsed form of the property path. Tokenizers are immutable, so the result of a path is shared, and
+     * so are the tokenizers returned by {@link #next()}.
+     * @since 3.4.3
+     */
+    public static PropertyTokenizer forPath(String fullname) {
+        PropertyTokenizer tokenizer = cache.get(fullname);
+        if (tokenizer == null) {
+            tokenizer = new PropertyTokenizer(fullname);
+            if (cache.size() < CACHE_LIMIT && !fullname.startsWith(ForEachSqlNode.ITEM_PREFIX)) {
+                cache.put(fullname, tokenizer);
+            }
+        }
+        return tokenizer;
     }
 
     public String getName() {
@@ -83,7 +116,10 @@ public class PropertyTokenizer implements Iterator<PropertyTokenizer> {
     @Override
     public PropertyTokenizer next() {
         // 对 children 进行再次切分，用于解析多重复合属性
-        return new PropertyTokenizer(children);
+        if (next == null) {
+            next = forPath(children);
+        }
+        return next;
     }
 
     @Override
@@ -94,7 +94,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getSetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -109,7 +109,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getGetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -124,7 +124,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public boolean hasSetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             if (metaClass.hasSetter(prop.getIndexedName())) {
                 MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
@@ -143,7 +143,7 @@ public class BeanWrapper extends BaseWrapper {
 
     @Override
     public boolean hasGetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             if (metaClass.hasGetter(prop.getIndexedName())) {
                 MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
@@ -74,7 +74,7 @@ public class MapWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getSetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -93,7 +93,7 @@ public class MapWrapper extends BaseWrapper {
 
     @Override
     public Class<?> getGetterType(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
             if (metaValue == SystemMetaObject.NULL_META_OBJECT) {
@@ -117,7 +117,7 @@ public class MapWrapper extends BaseWrapper {
 
     @Override
     public boolean hasGetter(String name) {
-        PropertyTokenizer prop = new PropertyTokenizer(name);
+        PropertyTokenizer prop = PropertyTokenizer.forPath(name);
         if (prop.hasNext()) {
             if (map.containsKey(prop.getIndexedName())) {
                 MetaObject metaValue = metaObject.metaObjectForProperty(prop.getIndexedName());
@@ -19,10 +19,12 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterBindingPlan;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.reflection.MetaObject;
@@ -60,25 +62,49 @@ public class DefaultParameterHandler implements ParameterHandler {
 
     @Override
     public void setParameters(PreparedStatement ps) {
-        ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
+        try {
+            bindParameters(ps);
+        } catch (RuntimeException e) {
+            ErrorContext.failure(e).activity("setting parameters").object(mappedStatement.getParameterMap().getId());
+            throw e;
+        }
+    }
+
+    private void bindParameters(PreparedStatement ps) {
         List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
         if (parameterMappings != null) {
+            // 多个参数的 ParamMap 按名称直接取值，其他参数对象只创建一个 MetaObject
+            final ParamMap<?> paramMap = parameterObject instanceof ParamMap
+                    && !configuration.getObjectWrapperFactory().hasWrapperFor(parameterObject) ? (ParamMap<?>) parameterObject : null;
+            MetaObject metaObject = null;
+            // 没有附加参数时按预先解析的绑定计划取值
+            final ParameterBindingPlan plan = parameterObject != null && !boundSql.hasAdditionalParameters()
+                    ? mappedStatement.getParameterBindingPlan(parameterObject.getClass(), parameterMappings) : null;
             for (int i = 0; i < parameterMappings.size(); i++) {
                 ParameterMapping parameterMapping = parameterMappings.get(i);
                 if (parameterMapping.getMode() != ParameterMode.OUT) {
                     Object value;
                     String propertyName = parameterMapping.getProperty();
-                    if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+                    TypeHandler typeHandler = parameterMapping.getTypeHandler();
+                    if (plan != null) {
+                        value = plan.getValue(i, parameterObject);
+                        if (value != null) {
+                            typeHandler = plan.getTypeHandler(i, value);
+                        }
+                    } else if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
                         value = boundSql.getAdditionalParameter(propertyName);
                     } else if (parameterObject == null) {
                         value = null;
                     } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
                         value = parameterObject;
+                    } else if (paramMap != null && isSimpleProperty(propertyName)) {
+                        value = paramMap.get(propertyName);
                     } else {
-                        MetaObject metaObject = configuration.newMetaObject(parameterObject);
+                        if (metaObject == null) {
+                            metaObject = configuration.newMetaObject(parameterObject);
+                        }
                         value = metaObject.getValue(propertyName);
                     }
-                    TypeHandler typeHandler = parameterMapping.getTypeHandler();
                     JdbcType jdbcType = parameterMapping.getJdbcType();
                     if (value == null && jdbcType == null) {
                         jdbcType = configuration.getJdbcTypeForNull();
@@ -95,4 +121,8 @@ public class DefaultParameterHandler implements ParameterHandler {
         }
     }
 
+    private static boolean isSimpleProperty(String propertyName) {
+        return propertyName.indexOf('.') < 0 && propertyName.indexOf('[') < 0;
+    }
+
 }
@@ -15,26 +15,41 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.ibatis.binding.MapperRegistry;
+import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.TableVersions;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
+import org.apache.ibatis.cache.invalidation.InvalidationTransport;
+import org.apache.ibatis.cache.codec.JdkSerializationCodec;
+import org.apache.ibatis.cache.codec.ReflectiveCodec;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.decorators.WeightedLruCache;
+import org.apache.ibatis.cache.impl.MappedFileCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
@@ -44,6 +59,10 @@ import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.executor.instrumentation.ExecutionListener;
+import org.apache.ibatis.executor.instrumentation.SlowStatementRecorder;
+import org.apache.ibatis.executor.instrumentation.StatementMetricsRegistry;
+import org.apache.ibatis.executor.instrumentation.StatementTrace;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
@@ -108,8 +127,13 @@ public class Configuration {
     protected boolean callSettersOnNulls;
     protected boolean useActualParamName = true;
     protected boolean returnInstanceForEmptyRow;
+    protected boolean tableCacheInvalidation;
+    protected boolean parallelMapperParsing;
+    protected boolean lazyMapperLoading;
+    protected boolean useGeneratedMappers;
 
     protected String logPrefix;
+    protected String mapperSnapshotFile;
     protected Class<? extends Log> logImpl;
     protected Class<? extends VFS> vfsImpl;
     protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
@@ -125,6 +149,15 @@ public class Configuration {
     protected ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
     protected ObjectFactory objectFactory = new DefaultObjectFactory();
     protected ObjectWrapperFactory objectWrapperFactory = new DefaultObjectWrapperFactory();
+    protected final TableVersions tableVersions = new TableVersions();
+    protected CacheInvalidationBus cacheInvalidationBus;
+    /**
+     * 运行时可以增删监听器，执行中的语句遍历的是写时复制的快照
+     */
+    protected final List<ExecutionListener> executionListeners = new CopyOnWriteArrayList<ExecutionListener>();
+    protected volatile StatementMetricsRegistry statementMetrics;
+    protected volatile SlowStatementRecorder slowStatements;
+    protected int slowStatementCapacity = 100;
 
     protected boolean lazyLoadingEnabled = false;
     protected ProxyFactory proxyFactory = new JavassistProxyFactory(); // #224 Using internal Javassist instead of OGNL
@@ -187,6 +220,23 @@ public class Configuration {
      */
     protected final Map<String, String> cacheRefMap = new HashMap<String, String>();
 
+    /**
+     * 延迟加载模式下尚未解析的命名空间及其加载器，首次访问该命名空间的元素时才解析
+     */
+    protected final ConcurrentMap<String, List<Runnable>> lazyNamespaces = new ConcurrentHashMap<String, List<Runnable>>();
+    /**
+     * 当前线程正在加载的命名空间，由 lazyNamespaces 的锁保护，用于处理命名空间之间的循环引用
+     */
+    protected final Set<String> loadingNamespaces = new HashSet<String>();
+    /**
+     * 已经加载的延迟命名空间，按加载顺序排列
+     */
+    protected final Set<String> loadedLazyNamespaces = Collections.synchronizedSet(new LinkedHashSet<String>());
+    /**
+     * 加载失败的延迟命名空间及其异常，再次访问时抛出同一个错误
+     */
+    protected final Map<String, RuntimeException> failedLazyNamespaces = new ConcurrentHashMap<String, RuntimeException>();
+
     public Configuration(Environment environment) {
         this();
         this.environment = environment;
@@ -204,11 +254,18 @@ public class Configuration {
 
         // 缓存策略别名
         typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+        typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
+        typeAliasRegistry.registerAlias("MAPPED_FILE", MappedFileCache.class);
         typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
         typeAliasRegistry.registerAlias("LRU", LruCache.class);
+        typeAliasRegistry.registerAlias("WEIGHTED", WeightedLruCache.class);
         typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
         typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
 
+        // 可读写缓存序列化方式别名
+        typeAliasRegistry.registerAlias("JAVA_SERIALIZATION", JdkSerializationCodec.class);
+        typeAliasRegistry.registerAlias("REFLECTIVE", ReflectiveCodec.class);
+
         typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
         typeAliasRegistry.registerAlias("XML", XMLLanguageDriver.class);
@@ -430,6 +487,368 @@ public class Configuration {
         this.cacheEnabled = cacheEnabled;
     }
 
+    /**
+     * @since 3.4.3
+     */
+    public boolean isTableCacheInvalidation() {
+        return tableCacheInvalidation;
+    }
+
+    /**
+     * When enabled a write only invalidates the second level cache entries read from the tables it touched,
+     * in any namespace, instead of flushing its whole namespace cache.
+     * @since 3.4.3
+     */
+    public void setTableCacheInvalidation(boolean tableCacheInvalidation) {
+        this.tableCacheInvalidation = tableCacheInvalidation;
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public boolean isParallelMapperParsing() {
+        return parallelMapperParsing;
+    }
+
+    /**
+     * When enabled the mapper XML documents listed in the configuration are read concurrently, then built one by one
+     * in the order they are declared.
+     * @since 3.4.3
+     */
+    public void setParallelMapperParsing(boolean parallelMapperParsing) {
+        this.parallelMapperParsing = parallelMapperParsing;
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public boolean isLazyMapperLoading() {
+        return lazyMapperLoading;
+    }
+
+    /**
+     * When enabled the mappers listed in the configuration are only indexed by namespace at startup, and a namespace
+     * is parsed the first time one of its statements, result maps, caches or its mapper interface is requested.
+     * Parallel mapper parsing and the mapper snapshot are not used in this mode.
+     * @since 3.4.3
+     */
+    public void setLazyMapperLoading(boolean lazyMapperLoading) {
+        this.lazyMapperLoading = lazyMapperLoading;
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public boolean isUseGeneratedMappers() {
+        return useGeneratedMappers;
+    }
+
+    /**
+     * When enabled mapper instances are generated classes implementing the mapper interface instead of JDK dynamic
+     * proxies. Mappers that can not be generated, for instance non public interfaces, still use proxies.
+     * @since 3.4.3
+     */
+    public void setUseGeneratedMappers(boolean useGeneratedMappers) {
+        this.useGeneratedMappers = useGeneratedMappers;
+    }
+
+    /**
+     * Registers a namespace that is loaded on first access. Several loaders may be registered for a namespace, for
+     * instance a mapper XML and its annotated interface.
+     * @since 3.4.3
+     */
+    public void addLazyNamespace(String namespace, Runnable loader) {
+        synchronized (lazyNamespaces) {
+            List<Runnable> loaders = lazyNamespaces.get(namespace);
+            if (loaders == null) {
+                loaders = new ArrayList<Runnable>(1);
+                lazyNamespaces.put(namespace, loaders);
+            }
+            loaders.add(loader);
+        }
+    }
+
+    /**
+     * @return the namespaces not loaded yet
+     * @since 3.4.3
+     */
+    public Set<String> getLazyNamespaces() {
+        return Collections.unmodifiableSet(lazyNamespaces.keySet());
+    }
+
+    /**
+     * @return the namespaces loaded on first access so far, in loading order
+     * @since 3.4.3
+     */
+    public Set<String> getLoadedLazyNamespaces() {
+        synchronized (loadedLazyNamespaces) {
+            return Collections.unmodifiableSet(new LinkedHashSet<String>(loadedLazyNamespaces));
+        }
+    }
+
+    /**
+     * Loads the lazy namespace owning the element. A short name, without namespace, loads every lazy namespace.
+     * @param id a namespace, or the id of an element of a namespace
+     * @since 3.4.3
+     */
+    public void loadLazyNamespace(String id) {
+        if ((lazyNamespaces.isEmpty() && failedLazyNamespaces.isEmpty()) || id == null) {
+            return;
+        }
+        if (lazyNamespaces.containsKey(id) || failedLazyNamespaces.containsKey(id)) {
+            loadNamespace(id);
+            return;
+        }
+        String namespace = extractNamespace(id);
+        if (namespace == null) {
+            loadAllLazyNamespaces();
+        } else if (lazyNamespaces.containsKey(namespace) || failedLazyNamespaces.containsKey(namespace)) {
+            loadNamespace(namespace);
+        }
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public void loadAllLazyNamespaces() {
+        rethrowLazyNamespaceFailure(null);
+        while (!lazyNamespaces.isEmpty()) {
+            synchronized (lazyNamespaces) {
+                boolean loaded = false;
+                for (String namespace : new ArrayList<String>(lazyNamespaces.keySet())) {
+                    if (!loadingNamespaces.contains(namespace)) {
+                        loadNamespace(namespace);
+                        loaded = true;
+                    }
+                }
+                if (!loaded) {
+                    // 只剩下当前线程正在加载的命名空间
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 加载过程持有锁，其他线程访问同一命名空间时会等待加载完成；
+     * 同一线程中循环引用的命名空间直接返回，由未完成元素(incomplete)机制在加载结束时处理
+     */
+    private void loadNamespace(String namespace) {
+        synchronized (lazyNamespaces) {
+            rethrowLazyNamespaceFailure(namespace);
+            List<Runnable> loaders = lazyNamespaces.get(namespace);
+            if (loaders == null || !loadingNamespaces.add(namespace)) {
+                return;
+            }
+            boolean loaded = false;
+            try {
+                for (Runnable loader : loaders) {
+                    loader.run();
+                }
+                loaded = true;
+            } catch (RuntimeException e) {
+                // 加载失败时不再重试，避免重复注册已经解析的元素，之后的访问抛出同一个错误
+                failedLazyNamespaces.put(namespace, e);
+                throw e;
+            } finally {
+                loadingNamespaces.remove(namespace);
+                lazyNamespaces.remove(namespace);
+                if (loaded) {
+                    loadedLazyNamespaces.add(namespace);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param namespace the namespace to check, null checks every namespace
+     */
+    private void rethrowLazyNamespaceFailure(String namespace) {
+        if (failedLazyNamespaces.isEmpty()) {
+            return;
+        }
+        String failed = namespace;
+        if (failed == null) {
+            failed = failedLazyNamespaces.keySet().iterator().next();
+        }
+        RuntimeException cause = failedLazyNamespaces.get(failed);
+        if (cause != null) {
+            throw new BuilderException("Error loading mapper namespace '" + failed + "'. Cause: " + cause, cause);
+        }
+    }
+
+    /**
+     * 仍有未加载的命名空间时，其他线程可能正在向映射表中添加元素，此时持有加载锁读取
+     */
+    private <V> V lookup(Map<String, V> map, String id) {
+        if (lazyNamespaces.isEmpty()) {
+            return map.get(id);
+        }
+        synchronized (lazyNamespaces) {
+            return map.get(id);
+        }
+    }
+
+    private boolean contains(Map<String, ?> map, String id) {
+        if (lazyNamespaces.isEmpty()) {
+            return map.containsKey(id);
+        }
+        synchronized (lazyNamespaces) {
+            return map.containsKey(id);
+        }
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public String getMapperSnapshotFile() {
+        return mapperSnapshotFile;
+    }
+
+    /**
+     * File keeping a snapshot of the parsed mapper documents between starts, so that unchanged mappers are not
+     * parsed and validated again. Null disables the snapshot.
+     * @since 3.4.3
+     */
+    public void setMapperSnapshotFile(String mapperSnapshotFile) {
+        this.mapperSnapshotFile = mapperSnapshotFile;
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public TableVersions getTableVersions() {
+        return tableVersions;
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public CacheInvalidationBus getCacheInvalidationBus() {
+        return cacheInvalidationBus;
+    }
+
+    /**
+     * Sends the invalidations committed through this configuration to other nodes, and applies theirs to the caches
+     * of this configuration.
+     * @since 3.4.3
+     */
+    public void setCacheInvalidationTransport(InvalidationTransport transport) {
+        if (cacheInvalidationBus != null) {
+            cacheInvalidationBus.close();
+        }
+        this.cacheInvalidationBus = transport == null ? null : new CacheInvalidationBus(this, transport);
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public List<ExecutionListener> getExecutionListeners() {
+        return executionListeners;
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public void setExecutionListeners(List<ExecutionListener> executionListeners) {
+        this.executionListeners.clear();
+        this.executionListeners.addAll(executionListeners);
+        if (statementMetrics != null) {
+            this.executionListeners.add(statementMetrics);
+        }
+        if (slowStatements != null) {
+            this.executionListeners.add(slowStatements);
+        }
+    }
+
+    /**
+     * Registers a listener receiving the phase timings of every statement executed through this configuration.
+     * Statements are only traced while at least one listener is registered.
+     * @since 3.4.3
+     */
+    public void addExecutionListener(ExecutionListener listener) {
+        executionListeners.add(listener);
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public boolean isStatementMetricsEnabled() {
+        return statementMetrics != null;
+    }
+
+    /**
+     * Records per statement metrics, read with {@link #getStatementMetrics()}. Enabling it registers an execution
+     * listener, so statements are traced from then on.
+     * @since 3.4.3
+     */
+    public void setStatementMetricsEnabled(boolean statementMetricsEnabled) {
+        if (statementMetricsEnabled && statementMetrics == null) {
+            statementMetrics = new StatementMetricsRegistry();
+            executionListeners.add(statementMetrics);
+        } else if (!statementMetricsEnabled && statementMetrics != null) {
+            executionListeners.remove(statementMetrics);
+            statementMetrics = null;
+        }
+    }
+
+    /**
+     * @return the per statement metrics, null unless {@code statementMetricsEnabled} is set
+     * @since 3.4.3
+     */
+    public StatementMetricsRegistry getStatementMetrics() {
+        return statementMetrics;
+    }
+
+    /**
+     * @return the slow statement threshold in milliseconds, null when slow statements are not recorded
+     * @since 3.4.3
+     */
+    public Integer getSlowStatementThreshold() {
+        return slowStatements == null ? null : (int) slowStatements.getThreshold();
+    }
+
+    /**
+     * Records the statements taking at least the given time, read with {@link #getSlowStatements()}. Setting a
+     * threshold registers an execution listener, so statements are traced from then on.
+     * @param slowStatementThreshold threshold in milliseconds, null to stop recording
+     * @since 3.4.3
+     */
+    public void setSlowStatementThreshold(Integer slowStatementThreshold) {
+        if (slowStatements != null) {
+            executionListeners.remove(slowStatements);
+            slowStatements = null;
+        }
+        if (slowStatementThreshold != null) {
+            slowStatements = new SlowStatementRecorder(slowStatementThreshold, slowStatementCapacity);
+            executionListeners.add(slowStatements);
+        }
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public int getSlowStatementCapacity() {
+        return slowStatementCapacity;
+    }
+
+    /**
+     * Number of slow statements kept, 100 by default. Resets the recorded statements if a threshold is set.
+     * @since 3.4.3
+     */
+    public void setSlowStatementCapacity(int slowStatementCapacity) {
+        this.slowStatementCapacity = slowStatementCapacity;
+        setSlowStatementThreshold(getSlowStatementThreshold());
+    }
+
+    /**
+     * @return the last slow statements, null unless {@code slowStatementThreshold} is set
+     * @since 3.4.3
+     */
+    public SlowStatementRecorder getSlowStatements() {
+        return slowStatements;
+    }
+
     public Integer getDefaultStatementTimeout() {
         return defaultStatementTimeout;
     }
@@ -563,7 +982,15 @@ public class Configuration {
 
     public ResultSetHandler newResultSetHandler(Executor executor, MappedStatement mappedStatement, RowBounds rowBounds, ParameterHandler parameterHandler,
                                                 ResultHandler resultHandler, BoundSql boundSql) {
-        ResultSetHandler resultSetHandler = new DefaultResultSetHandler(executor, mappedStatement, parameterHandler, resultHandler, boundSql, rowBounds);
+        return newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql, null);
+    }
+
+    /**
+     * @since 3.4.3
+     */
+    public ResultSetHandler newResultSetHandler(Executor executor, MappedStatement mappedStatement, RowBounds rowBounds, ParameterHandler parameterHandler,
+                                                ResultHandler resultHandler, BoundSql boundSql, StatementTrace trace) {
+        ResultSetHandler resultSetHandler = new DefaultResultSetHandler(executor, mappedStatement, parameterHandler, resultHandler, boundSql, rowBounds, trace);
         resultSetHandler = (ResultSetHandler) interceptorChain.pluginAll(resultSetHandler);
         return resultSetHandler;
     }
@@ -590,7 +1017,7 @@ public class Configuration {
             executor = new SimpleExecutor(this, transaction);
         }
         if (cacheEnabled) {
-            executor = new CachingExecutor(executor);
+            executor = new CachingExecutor(executor, tableCacheInvalidation ? tableVersions : null, cacheInvalidationBus);
         }
         executor = (Executor) interceptorChain.pluginAll(executor);
         return executor;
@@ -601,19 +1028,23 @@ public class Configuration {
     }
 
     public Collection<String> getKeyGeneratorNames() {
+        loadAllLazyNamespaces();
         return keyGenerators.keySet();
     }
 
     public Collection<KeyGenerator> getKeyGenerators() {
+        loadAllLazyNamespaces();
         return keyGenerators.values();
     }
 
     public KeyGenerator getKeyGenerator(String id) {
-        return keyGenerators.get(id);
+        loadLazyNamespace(id);
+        return lookup(keyGenerators, id);
     }
 
     public boolean hasKeyGenerator(String id) {
-        return keyGenerators.containsKey(id);
+        loadLazyNamespace(id);
+        return contains(keyGenerators, id);
     }
 
     public void addCache(Cache cache) {
@@ -621,19 +1052,23 @@ public class Configuration {
     }
 
     public Collection<String> getCacheNames() {
+        loadAllLazyNamespaces();
         return caches.keySet();
     }
 
     public Collection<Cache> getCaches() {
+        loadAllLazyNamespaces();
         return caches.values();
     }
 
     public Cache getCache(String id) {
-        return caches.get(id);
+        loadLazyNamespace(id);
+        return lookup(caches, id);
     }
 
     public boolean hasCache(String id) {
-        return caches.containsKey(id);
+        loadLazyNamespace(id);
+        return contains(caches, id);
     }
 
     public void addResultMap(ResultMap rm) {
@@ -643,19 +1078,23 @@ public class Configuration {
     }
 
     public Collection<String> getResultMapNames() {
+        loadAllLazyNamespaces();
         return resultMaps.keySet();
     }
 
     public Collection<ResultMap> getResultMaps() {
+        loadAllLazyNamespaces();
         return resultMaps.values();
     }
 
     public ResultMap getResultMap(String id) {
-        return resultMaps.get(id);
+        loadLazyNamespace(id);
+        return lookup(resultMaps, id);
     }
 
     public boolean hasResultMap(String id) {
-        return resultMaps.containsKey(id);
+        loadLazyNamespace(id);
+        return contains(resultMaps, id);
     }
 
     public void addParameterMap(ParameterMap pm) {
@@ -663,19 +1102,23 @@ public class Configuration {
     }
 
     public Collection<String> getParameterMapNames() {
+        loadAllLazyNamespaces();
         return parameterMaps.keySet();
     }
 
     public Collection<ParameterMap> getParameterMaps() {
+        loadAllLazyNamespaces();
         return parameterMaps.values();
     }
 
     public ParameterMap getParameterMap(String id) {
-        return parameterMaps.get(id);
+        loadLazyNamespace(id);
+        return lookup(parameterMaps, id);
     }
 
     public boolean hasParameterMap(String id) {
-        return parameterMaps.containsKey(id);
+        loadLazyNamespace(id);
+        return contains(parameterMaps, id);
     }
 
     public void addMappedStatement(MappedStatement ms) {
@@ -683,11 +1126,13 @@ public class Configuration {
     }
 
     public Collection<String> getMappedStatementNames() {
+        loadAllLazyNamespaces();
         buildAllStatements();
         return mappedStatements.keySet();
     }
 
     public Collection<MappedStatement> getMappedStatements() {
+        loadAllLazyNamespaces();
         buildAllStatements();
         return mappedStatements.values();
     }
@@ -729,10 +1174,11 @@ public class Configuration {
     }
 
     public MappedStatement getMappedStatement(String id, boolean validateIncompleteStatements) {
+        loadLazyNamespace(id);
         if (validateIncompleteStatements) {
             buildAllStatements();
         }
-        return mappedStatements.get(id);
+        return lookup(mappedStatements, id);
     }
 
     public Map<String, XNode> getSqlFragments() {
@@ -756,10 +1202,12 @@ public class Configuration {
     }
 
     public <T> T getMapper(Class<T> type, SqlSession sqlSession) {
+        loadLazyNamespace(type.getName());
         return mapperRegistry.getMapper(type, sqlSession);
     }
 
     public boolean hasMapper(Class<?> type) {
+        loadLazyNamespace(type.getName());
         return mapperRegistry.hasMapper(type);
     }
 
@@ -768,10 +1216,11 @@ public class Configuration {
     }
 
     public boolean hasStatement(String statementName, boolean validateIncompleteStatements) {
+        loadLazyNamespace(statementName);
         if (validateIncompleteStatements) {
             buildAllStatements();
         }
-        return mappedStatements.containsKey(statementName);
+        return contains(mappedStatements, statementName);
     }
 
     public void addCacheRef(String namespace, String referencedNamespace) {
@@ -855,6 +1304,10 @@ public class Configuration {
         }
     }
 
+    /**
+     * Not thread safe. While lazily loaded namespaces remain, entries are added and looked up holding the
+     * lock of {@code lazyNamespaces}.
+     */
     protected static class StrictMap<V> extends HashMap<String, V> {
 
         private static final long serialVersionUID = -4950446264854982944L;
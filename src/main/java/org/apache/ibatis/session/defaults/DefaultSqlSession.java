@@ -29,7 +29,6 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
-import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
@@ -126,8 +125,6 @@ public class DefaultSqlSession implements SqlSession {
             return cursor;
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -148,8 +145,6 @@ public class DefaultSqlSession implements SqlSession {
             return executor.query(ms, wrapCollection(parameter), rowBounds, Executor.NO_RESULT_HANDLER);
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -170,8 +165,6 @@ public class DefaultSqlSession implements SqlSession {
             executor.query(ms, wrapCollection(parameter), rowBounds, handler);
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -198,8 +191,6 @@ public class DefaultSqlSession implements SqlSession {
             return executor.update(ms, wrapCollection(parameter));
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error updating database.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -225,8 +216,6 @@ public class DefaultSqlSession implements SqlSession {
             dirty = false;
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error committing transaction.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -242,8 +231,6 @@ public class DefaultSqlSession implements SqlSession {
             dirty = false;
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error rolling back transaction.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -253,20 +240,14 @@ public class DefaultSqlSession implements SqlSession {
             return executor.flushStatements();
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error flushing statements.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
     @Override
     public void close() {
-        try {
-            executor.close(isCommitOrRollbackRequired(false));
-            closeCursors();
-            dirty = false;
-        } finally {
-            ErrorContext.instance().reset();
-        }
+        executor.close(isCommitOrRollbackRequired(false));
+        closeCursors();
+        dirty = false;
     }
 
     private void closeCursors() {
@@ -19,7 +19,6 @@ import java.sql.Connection;
 import java.sql.SQLException;
 
 import org.apache.ibatis.exceptions.ExceptionFactory;
-import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.session.Configuration;
@@ -98,8 +97,6 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
         } catch (Exception e) {
             closeTransaction(tx); // may have fetched a connection so lets call close()
             throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
@@ -120,8 +117,6 @@ public class DefaultSqlSessionFactory implements SqlSessionFactory {
             return new DefaultSqlSession(configuration, executor, autoCommit);
         } catch (Exception e) {
             throw ExceptionFactory.wrapException("Error opening session.  Cause: " + e, e);
-        } finally {
-            ErrorContext.instance().reset();
         }
     }
 
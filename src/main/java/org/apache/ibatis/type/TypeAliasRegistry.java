@@ -29,6 +29,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.ibatis.io.ClassFileHeader;
 import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.io.Resources;
 
@@ -147,7 +148,14 @@ public class TypeAliasRegistry {
     public void registerAliases(String packageName, Class<?> superType) {
         ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<Class<?>>();
         // 查找指定包下的 superType 类型类
-        resolverUtil.find(new ResolverUtil.IsA(superType), packageName);
+        resolverUtil.find(new ResolverUtil.IsA(superType) {
+            @Override
+            public boolean mayMatch(ClassFileHeader header) {
+                // 下面会被过滤掉的类不必加载
+                return !header.isAnonymousClass() && !header.isInterface() && !header.isMemberClass()
+                        && super.mayMatch(header);
+            }
+        }, packageName);
         Set<Class<? extends Class<?>>> typeSet = resolverUtil.getClasses();
         for (Class<?> type : typeSet) {
             // Ignore inner classes and interfaces (including package-info.java)
@@ -0,0 +1,182 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeneratedMapperTest {
+
+  public interface BaseMapper<T> {
+    @Select("select name from names where id = #{id}")
+    T selectById(int id);
+  }
+
+  public interface NameMapper extends BaseMapper<String> {
+    @Select("select count(*) from names")
+    int count();
+
+    @Select("select name from names where name like #{prefix} limit #{limit}")
+    List<String> selectNames(@Param("prefix") String prefix, @Param("limit") int limit);
+
+    @Select("select name from names")
+    String[] selectAll();
+
+    @Insert("insert into names (name) values (#{name})")
+    boolean insert(String name);
+
+    @Insert("insert into names (name) values (#{name})")
+    void insertQuietly(String name);
+
+    String unmapped();
+  }
+
+  interface HiddenMapper {
+    @Select("select count(*) from names")
+    int count();
+  }
+
+  private Configuration configuration;
+  private RecordingSqlSession sqlSession;
+
+  @Before
+  public void setUp() {
+    configuration = new Configuration();
+    configuration.setUseGeneratedMappers(true);
+    configuration.addMapper(NameMapper.class);
+    configuration.addMapper(HiddenMapper.class);
+    sqlSession = new RecordingSqlSession(configuration);
+  }
+
+  @Test
+  public void shouldGenerateMapperClass() {
+    NameMapper mapper = sqlSession.getMapper(NameMapper.class);
+    assertFalse(Proxy.isProxyClass(mapper.getClass()));
+    assertSame(mapper.getClass(), sqlSession.getMapper(NameMapper.class).getClass());
+  }
+
+  @Test
+  public void shouldCallSqlSessionLikeTheProxy() {
+    NameMapper mapper = sqlSession.getMapper(NameMapper.class);
+
+    sqlSession.results = Collections.<Object>singletonList(3);
+    assertEquals(3, mapper.count());
+    assertEquals(NameMapper.class.getName() + ".count", sqlSession.statement);
+    assertNull(sqlSession.parameter);
+
+    sqlSession.results = Arrays.<Object>asList("a", "b");
+    assertEquals(Arrays.asList("a", "b"), mapper.selectNames("x%", 2));
+    Map<?, ?> parameter = (Map<?, ?>) sqlSession.parameter;
+    assertEquals("x%", parameter.get("prefix"));
+    assertEquals(2, parameter.get("param2"));
+
+    assertArrayEquals(new String[] { "a", "b" }, mapper.selectAll());
+
+    sqlSession.results = Collections.<Object>singletonList("c");
+    assertEquals("c", mapper.selectById(7));
+    assertEquals(NameMapper.class.getName() + ".selectById", sqlSession.statement);
+    assertEquals(7, sqlSession.parameter);
+
+    sqlSession.rowCount = 1;
+    assertTrue(mapper.insert("d"));
+    assertEquals("d", sqlSession.parameter);
+    mapper.insertQuietly("e");
+    assertEquals("e", sqlSession.parameter);
+  }
+
+  @Test
+  public void shouldFailLikeTheProxy() {
+    NameMapper mapper = sqlSession.getMapper(NameMapper.class);
+    sqlSession.results = Collections.emptyList();
+    try {
+      mapper.count();
+      fail();
+    } catch (BindingException e) {
+      assertTrue(e.getMessage().contains("primitive return type"));
+    }
+    try {
+      mapper.unmapped();
+      fail();
+    } catch (BindingException e) {
+      assertTrue(e.getMessage().contains("Invalid bound statement"));
+    }
+  }
+
+  @Test
+  public void shouldFallBackToProxyForNonPublicInterface() {
+    HiddenMapper mapper = sqlSession.getMapper(HiddenMapper.class);
+    assertTrue(Proxy.isProxyClass(mapper.getClass()));
+    sqlSession.results = Collections.<Object>singletonList(5);
+    assertEquals(5, mapper.count());
+  }
+
+  @Test
+  public void shouldUseProxyWhenDisabled() {
+    configuration.setUseGeneratedMappers(false);
+    assertTrue(Proxy.isProxyClass(sqlSession.getMapper(NameMapper.class).getClass()));
+  }
+
+  private static class RecordingSqlSession extends DefaultSqlSession {
+    private String statement;
+    private Object parameter;
+    private List<?> results = new ArrayList<Object>();
+    private int rowCount;
+
+    RecordingSqlSession(Configuration configuration) {
+      super(configuration, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds) {
+      record(statement, parameter);
+      return (List<E>) results;
+    }
+
+    @Override
+    public int update(String statement, Object parameter) {
+      record(statement, parameter);
+      return rowCount;
+    }
+
+    private void record(String statement, Object parameter) {
+      this.statement = statement;
+      this.parameter = parameter;
+    }
+  }
+
+}
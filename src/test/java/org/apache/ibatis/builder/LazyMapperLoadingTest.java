@@ -0,0 +1,194 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.builder.mapper.CustomMapper;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.After;
+import org.junit.Test;
+
+public class LazyMapperLoadingTest {
+
+  private static final String BLOG = "org.apache.ibatis.domain.blog.mappers.BlogMapper";
+  private static final String AUTHOR = "org.apache.ibatis.domain.blog.mappers.AuthorMapper";
+
+  private final List<File> files = new ArrayList<File>();
+
+  @After
+  public void tearDown() {
+    for (File file : files) {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void shouldOnlyIndexNamespacesAtStartup() {
+    Configuration configuration = build(true, blogMappers());
+    assertEquals(new HashSet<String>(Arrays.asList(AUTHOR, BLOG, "org.apache.ibatis.domain.blog.mappers.NestedBlogMapper",
+        "org.apache.ibatis.builder.CachedAuthorMapper", CustomMapper.class.getName())), configuration.getLazyNamespaces());
+    assertTrue(configuration.getLoadedLazyNamespaces().isEmpty());
+  }
+
+  @Test
+  public void shouldLoadNamespaceOnFirstAccess() {
+    Configuration configuration = build(true, blogMappers());
+    MappedStatement ms = configuration.getMappedStatement(BLOG + ".selectBlogWithPostsUsingSubSelect");
+    assertEquals(BLOG + ".selectBlogWithPostsUsingSubSelect", ms.getId());
+    // nested selects of other namespaces are only resolved when executed
+    assertEquals(Collections.singleton(BLOG), configuration.getLoadedLazyNamespaces());
+    assertTrue(configuration.getLazyNamespaces().contains(AUTHOR));
+
+    assertTrue(configuration.hasCache("org.apache.ibatis.builder.CachedAuthorMapper"));
+    assertTrue(configuration.hasMapper(CustomMapper.class));
+    assertEquals(Arrays.asList(BLOG, "org.apache.ibatis.builder.CachedAuthorMapper", CustomMapper.class.getName()),
+        new ArrayList<String>(configuration.getLoadedLazyNamespaces()));
+  }
+
+  @Test
+  public void shouldBuildTheSameStatementsAsEagerLoading() {
+    Configuration eager = build(false, blogMappers());
+    Configuration lazy = build(true, blogMappers());
+    assertEquals(new HashSet<String>(eager.getMappedStatementNames()), new HashSet<String>(lazy.getMappedStatementNames()));
+    assertEquals(new HashSet<String>(eager.getResultMapNames()), new HashSet<String>(lazy.getResultMapNames()));
+    assertTrue(lazy.getLazyNamespaces().isEmpty());
+  }
+
+  @Test
+  public void shouldLoadReferencedNamespacesIncludingCycles() throws Exception {
+    String first = mapper("first",
+        "  <resultMap id=\"blog\" type=\"org.apache.ibatis.domain.blog.Blog\" extends=\"second.base\"/>\n"
+        + "  <select id=\"select\" resultMap=\"blog\">select <include refid=\"second.columns\"/> from blog</select>\n");
+    String second = mapper("second",
+        "  <resultMap id=\"base\" type=\"org.apache.ibatis.domain.blog.Blog\"><id property=\"id\" column=\"id\"/></resultMap>\n"
+        + "  <sql id=\"columns\">id, title</sql>\n"
+        + "  <select id=\"select\" resultMap=\"first.blog\">select id from blog</select>\n");
+    Configuration configuration = build(true, "<mapper url=\"" + first + "\"/><mapper url=\"" + second + "\"/>");
+
+    MappedStatement ms = configuration.getMappedStatement("first.select");
+    assertEquals("select  id, title  from blog", ms.getBoundSql(null).getSql());
+    assertEquals(new HashSet<String>(Arrays.asList("first", "second")), configuration.getLoadedLazyNamespaces());
+    assertEquals("first.blog", configuration.getMappedStatement("second.select").getResultMaps().get(0).getId());
+    assertTrue(configuration.getIncompleteStatements().isEmpty());
+  }
+
+  @Test
+  public void shouldRethrowLoadFailureOnLaterAccess() throws Exception {
+    String broken = mapper("broken", "  <select id=\"select\" resultType=\"org.example.Missing\">select 1</select>\n");
+    Configuration configuration = build(true, "<mapper url=\"" + broken + "\"/>");
+    try {
+      configuration.getMappedStatement("broken.select");
+      fail();
+    } catch (BuilderException e) {
+      // expected
+    }
+    try {
+      configuration.hasStatement("broken.select");
+      fail();
+    } catch (BuilderException e) {
+      assertTrue(e.getMessage().contains("broken"));
+    }
+  }
+
+  @Test
+  public void shouldKeepHashMapSemanticsInStrictMaps() {
+    Configuration configuration = build(false, blogMappers());
+    assertFalse(configuration.getSqlFragments().containsKey("missing"));
+    configuration.getSqlFragments().put("missing", null);
+    assertTrue(configuration.getSqlFragments().containsKey("missing"));
+  }
+
+  @Test
+  public void shouldLoadNamespaceOnceWhenAccessedConcurrently() throws Exception {
+    final Configuration configuration = build(true, blogMappers());
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<MappedStatement>> results = new ArrayList<Future<MappedStatement>>();
+      for (int i = 0; i < 8; i++) {
+        final String id = (i % 2 == 0 ? BLOG + ".selectBlogWithPostsUsingSubSelect" : AUTHOR + ".selectAuthorWithInlineParams");
+        results.add(executor.submit(new Callable<MappedStatement>() {
+          @Override
+          public MappedStatement call() throws Exception {
+            start.await();
+            return configuration.getMappedStatement(id);
+          }
+        }));
+      }
+      start.countDown();
+      for (Future<MappedStatement> result : results) {
+        assertNotNull(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(new HashSet<String>(Arrays.asList(BLOG, AUTHOR)), configuration.getLoadedLazyNamespaces());
+  }
+
+  private String blogMappers() {
+    return "<mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+        + "<mapper resource=\"org/apache/ibatis/builder/BlogMapper.xml\"/>\n"
+        + "<mapper resource=\"org/apache/ibatis/builder/NestedBlogMapper.xml\"/>\n"
+        + "<mapper resource=\"org/apache/ibatis/builder/CachedAuthorMapper.xml\"/>\n"
+        + "<mapper class=\"org.apache.ibatis.builder.mapper.CustomMapper\"/>\n";
+  }
+
+  private Configuration build(boolean lazy, String mappers) {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"lazyMapperLoading\" value=\"" + lazy + "\"/>\n"
+        + "  </settings>\n"
+        + "  <typeAliases>\n"
+        + "    <package name=\"org.apache.ibatis.domain.blog\"/>\n"
+        + "  </typeAliases>\n"
+        + "  <mappers>\n" + mappers + "</mappers>\n"
+        + "</configuration>\n";
+    return new XMLConfigBuilder(new StringReader(MAPPER_CONFIG)).parse();
+  }
+
+  private String mapper(String namespace, String body) throws Exception {
+    File file = File.createTempFile("mybatis-" + namespace, ".xml");
+    files.add(file);
+    Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"" + namespace + "\">\n" + body + "</mapper>\n");
+    writer.close();
+    return file.toURI().toString();
+  }
+
+}
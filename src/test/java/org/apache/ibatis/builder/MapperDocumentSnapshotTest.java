@@ -0,0 +1,139 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.HashSet;
+
+import org.apache.ibatis.builder.xml.MapperDocumentSnapshot;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MapperDocumentSnapshotTest {
+
+  private static final String MAPPER = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+      + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+      + "<mapper namespace=\"snapshot\">\n"
+      + "  <sql id=\"columns\">id, name</sql>\n"
+      + "  <select id=\"select\" resultType=\"map\">\n"
+      + "    select <include refid=\"columns\"/> from blog <where><if test=\"id != null\">id = #{id}</if></where>"
+      + "<![CDATA[ and rating > 1 ]]>\n"
+      + "  </select>\n"
+      + "</mapper>\n";
+
+  private File snapshotFile;
+
+  @Before
+  public void setUp() throws Exception {
+    snapshotFile = File.createTempFile("mybatis-snapshot", ".bin");
+    snapshotFile.delete();
+  }
+
+  @After
+  public void tearDown() {
+    snapshotFile.delete();
+  }
+
+  @Test
+  public void shouldRestoreUnchangedMapperFromSnapshot() throws Exception {
+    MapperDocumentSnapshot snapshot = MapperDocumentSnapshot.load(snapshotFile);
+    XPathParser parsed = snapshot.parser("snapshot.xml", stream(MAPPER), null);
+    snapshot.save();
+    assertTrue(snapshotFile.isFile());
+
+    XPathParser restored = MapperDocumentSnapshot.load(snapshotFile).parser("snapshot.xml", stream(MAPPER), null);
+    XNode parsedMapper = parsed.evalNode("/mapper");
+    XNode restoredMapper = restored.evalNode("/mapper");
+    // the restored document is built from the snapshot, not parsed
+    assertNotNull(parsedMapper.getNode().getOwnerDocument().getDoctype());
+    assertNull(restoredMapper.getNode().getOwnerDocument().getDoctype());
+    assertEquals(parsedMapper.toString(), restoredMapper.toString());
+    assertEquals(parsedMapper.getNode().getTextContent(), restoredMapper.getNode().getTextContent());
+    // default attributes of the DTD are kept
+    assertEquals(parsedMapper.evalNode("select").getStringAttribute("statementType"), restoredMapper.evalNode("select").getStringAttribute("statementType"));
+  }
+
+  @Test
+  public void shouldParseChangedMapper() throws Exception {
+    MapperDocumentSnapshot snapshot = MapperDocumentSnapshot.load(snapshotFile);
+    snapshot.parser("snapshot.xml", stream(MAPPER), null);
+    snapshot.save();
+
+    String changed = MAPPER.replace("from blog", "from post");
+    XPathParser parser = MapperDocumentSnapshot.load(snapshotFile).parser("snapshot.xml", stream(changed), null);
+    assertNotNull(parser.evalNode("/mapper").getNode().getOwnerDocument().getDoctype());
+    assertTrue(parser.evalNode("/mapper/select").getNode().getTextContent().contains("from post"));
+  }
+
+  @Test
+  public void shouldIgnoreCorruptedSnapshot() throws Exception {
+    FileOutputStream out = new FileOutputStream(snapshotFile);
+    out.write(new byte[] {1, 2, 3});
+    out.close();
+    XPathParser parser = MapperDocumentSnapshot.load(snapshotFile).parser("snapshot.xml", stream(MAPPER), null);
+    assertEquals("snapshot", parser.evalNode("/mapper").getStringAttribute("namespace"));
+  }
+
+  @Test
+  public void shouldBuildTheSameConfigurationFromSnapshot() throws Exception {
+    Configuration first = parseMappers();
+    assertTrue(snapshotFile.isFile());
+    long written = snapshotFile.lastModified();
+    Configuration second = parseMappers();
+
+    assertEquals(written, snapshotFile.lastModified());
+    assertEquals(new HashSet<String>(first.getMappedStatementNames()), new HashSet<String>(second.getMappedStatementNames()));
+    assertEquals(new HashSet<String>(first.getResultMapNames()), new HashSet<String>(second.getResultMapNames()));
+    String id = "org.apache.ibatis.domain.blog.mappers.BlogMapper.selectBlogWithPostsUsingSubSelect";
+    assertEquals(first.getMappedStatement(id).getBoundSql(1).getSql(), second.getMappedStatement(id).getBoundSql(1).getSql());
+  }
+
+  private Configuration parseMappers() {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"mapperSnapshotFile\" value=\"" + snapshotFile.getAbsolutePath() + "\"/>\n"
+        + "  </settings>\n"
+        + "  <typeAliases>\n"
+        + "    <package name=\"org.apache.ibatis.domain.blog\"/>\n"
+        + "  </typeAliases>\n"
+        + "  <mappers>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/BlogMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/NestedBlogMapper.xml\"/>\n"
+        + "  </mappers>\n"
+        + "</configuration>\n";
+    return new XMLConfigBuilder(new StringReader(MAPPER_CONFIG)).parse();
+  }
+
+  private static InputStream stream(String xml) throws Exception {
+    return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+  }
+
+}
@@ -0,0 +1,86 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SqlTableExtractorTest {
+
+  @Test
+  public void shouldExtractTablesOfSelect() {
+    assertTables("select * from blog b join author a on a.id = b.author_id left outer join post on post.blog_id = b.id where b.id = #{id}",
+        "blog", "author", "post");
+  }
+
+  @Test
+  public void shouldExtractCommaSeparatedFromList() {
+    assertTables("SELECT * FROM blog AS b, Author a, comment WHERE a.id = b.author_id", "blog", "author", "comment");
+  }
+
+  @Test
+  public void shouldExtractTablesOfSubQueries() {
+    assertTables("select * from (select id from post where blog_id in (select id from blog)) p join tag t on t.id = p.id",
+        "post", "blog", "tag");
+  }
+
+  @Test
+  public void shouldExtractTablesOfWrites() {
+    assertTables("insert into author (id, username) values (#{id}, #{username})", "author");
+    assertTables("UPDATE Author SET username = #{username} WHERE id = #{id}", "author");
+    assertTables("delete from comment where post_id in (select id from post where blog_id = #{id})", "comment", "post");
+    assertTables("merge into blog b using staging.blog s on (b.id = s.id) when matched then update set b.title = s.title", "blog");
+  }
+
+  @Test
+  public void shouldIgnoreCommentsLiteralsAndQuotes() {
+    assertTables("select 'from x' as f /* from y */ from \"Blog\" -- from z\n where title = 'join w'", "blog");
+  }
+
+  @Test
+  public void shouldUseUnqualifiedNames() {
+    assertTables("select * from ibtest.blog join `ibtest`.`author` on 1 = 1", "blog", "author");
+  }
+
+  @Test
+  public void shouldScanAllBranchesOfDynamicSql() {
+    assertTables("select * from blog <where> <if test=\"author != null\"> author_id in (select id from author where username = #{author}) </if> </where>",
+        "blog", "author");
+  }
+
+  @Test
+  public void shouldReturnEmptySetForSubstitutedTableNames() {
+    assertTrue(SqlTableExtractor.extractTables("select * from ${table} where id = #{id}").isEmpty());
+    assertTrue(SqlTableExtractor.extractTables("select * from log_${month}").isEmpty());
+    assertTrue(SqlTableExtractor.extractTables(null).isEmpty());
+  }
+
+  @Test
+  public void shouldAllowSubstitutionOutsideTableNames() {
+    assertTables("select * from blog order by ${column}", "blog");
+  }
+
+  private void assertTables(String sql, String... expected) {
+    Set<String> tables = SqlTableExtractor.extractTables(sql);
+    assertEquals(new LinkedHashSet<String>(Arrays.asList(expected)), tables);
+  }
+
+}
@@ -297,4 +297,61 @@ public class XmlConfigBuilderTest {
     builder.parse();
   }
 
+  @Test
+  public void shouldBuildTheSameConfigurationWhenParsingMappersInParallel() {
+    Configuration serial = parseMappers(false);
+    Configuration parallel = parseMappers(true);
+
+    assertTrue(parallel.isParallelMapperParsing());
+    assertEquals(new HashSet<String>(serial.getMappedStatementNames()), new HashSet<String>(parallel.getMappedStatementNames()));
+    assertEquals(new HashSet<String>(serial.getResultMapNames()), new HashSet<String>(parallel.getResultMapNames()));
+    assertEquals(new HashSet<String>(serial.getCacheNames()), new HashSet<String>(parallel.getCacheNames()));
+    assertEquals(serial.getIncompleteStatements().size(), parallel.getIncompleteStatements().size());
+    assertTrue(parallel.hasMapper(CustomMapper.class));
+    assertTrue(parallel.isResourceLoaded("org/apache/ibatis/builder/NestedBlogMapper.xml"));
+  }
+
+  @Test
+  public void shouldReportMissingMapperResourceWhenParsingInParallel() {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+            + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+            + "<configuration>\n"
+            + "  <settings>\n"
+            + "    <setting name=\"parallelMapperParsing\" value=\"true\"/>\n"
+            + "  </settings>\n"
+            + "  <mappers>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+            + "    <mapper resource=\"a/b/c/MissingMapper.xml\"/>\n"
+            + "  </mappers>\n"
+            + "</configuration>\n";
+
+    expectedException.expect(BuilderException.class);
+    expectedException.expectMessage("Could not find resource a/b/c/MissingMapper.xml");
+
+    XMLConfigBuilder builder = new XMLConfigBuilder(new StringReader(MAPPER_CONFIG));
+    builder.parse();
+  }
+
+  private Configuration parseMappers(boolean parallel) {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+            + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+            + "<configuration>\n"
+            + "  <settings>\n"
+            + "    <setting name=\"parallelMapperParsing\" value=\"" + parallel + "\"/>\n"
+            + "  </settings>\n"
+            + "  <typeAliases>\n"
+            + "    <package name=\"org.apache.ibatis.domain.blog\"/>\n"
+            + "  </typeAliases>\n"
+            + "  <mappers>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/NestedBlogMapper.xml\"/>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+            + "    <mapper class=\"org.apache.ibatis.builder.mapper.CustomMapper\"/>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/BlogMapper.xml\"/>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/CachedAuthorMapper.xml\"/>\n"
+            + "    <mapper resource=\"org/apache/ibatis/builder/PostMapper.xml\"/>\n"
+            + "  </mappers>\n"
+            + "</configuration>\n";
+    return new XMLConfigBuilder(new StringReader(MAPPER_CONFIG)).parse();
+  }
+
 }
@@ -15,10 +15,12 @@
  */
 package org.apache.ibatis.builder;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
@@ -161,6 +163,41 @@ public class XmlMapperBuilderTest {
     builder.useCacheRef("eee");
   }
 
+  @Test
+  public void shouldChangeMapperChecksumWhenTextOfElementWithChildrenChanges() throws Exception {
+    String checksum = mapperChecksum("select * from author <if test=\"id != null\">where id = #{id}</if>");
+    assertThat(checksum, notNullValue());
+    assertThat(mapperChecksum("select * from author <if test=\"id != null\">where id = #{id}</if>"), is(checksum));
+    assertThat(mapperChecksum("select id from author <if test=\"id != null\">where id = #{id}</if>"), not(checksum));
+  }
+
+  private String mapperChecksum(String sql) throws Exception {
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">"
+        + "<mapper namespace=\"org.example.ChecksumMapper\">"
+        + "<cache type=\"" + ChecksumCache.class.getName() + "\"/>"
+        + "<select id=\"select\" resultType=\"map\">" + sql + "</select>"
+        + "</mapper>";
+    Configuration configuration = new Configuration();
+    XMLMapperBuilder builder = new XMLMapperBuilder(new ByteArrayInputStream(xml.getBytes("UTF-8")), configuration,
+        "checksum-mapper.xml", configuration.getSqlFragments());
+    ChecksumCache.lastChecksum = null;
+    builder.parse();
+    return ChecksumCache.lastChecksum;
+  }
+
+  public static class ChecksumCache extends PerpetualCache {
+    static String lastChecksum;
+
+    public ChecksumCache(String id) {
+      super(id);
+    }
+
+    public void setMapperChecksum(String mapperChecksum) {
+      lastChecksum = mapperChecksum;
+    }
+  }
+
 //  @Test
 //  public void shouldNotLoadTheSameNamespaceFromTwoResourcesWithDifferentNames() throws Exception {
 //    Configuration configuration = new Configuration();
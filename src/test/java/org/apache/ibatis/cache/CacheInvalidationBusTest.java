@@ -0,0 +1,110 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationEvent;
+import org.apache.ibatis.cache.invalidation.InvalidationListener;
+import org.apache.ibatis.cache.invalidation.LoopbackTransport;
+import org.apache.ibatis.session.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheInvalidationBusTest {
+
+  private Configuration node1;
+  private Configuration node2;
+  private Cache cache1;
+  private Cache cache2;
+
+  @Before
+  public void setUp() {
+    node1 = node();
+    node2 = node();
+    cache1 = node1.getCache("blog");
+    cache2 = node2.getCache("blog");
+  }
+
+  @After
+  public void tearDown() {
+    node1.setCacheInvalidationTransport(null);
+    node2.setCacheInvalidationTransport(null);
+  }
+
+  @Test
+  public void shouldClearCacheOfOtherNodesOnCommit() {
+    cache1.putObject("key", "value");
+    cache2.putObject("key", "value");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(null, node1.getCacheInvalidationBus());
+    tcm.clear(cache1);
+    assertEquals("value", cache2.getObject("key"));
+    tcm.commit();
+    assertNull(cache1.getObject("key"));
+    assertNull(cache2.getObject("key"));
+  }
+
+  @Test
+  public void shouldNotPublishRolledBackClear() {
+    cache2.putObject("key", "value");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(null, node1.getCacheInvalidationBus());
+    tcm.clear(cache1);
+    tcm.rollback();
+    assertEquals("value", cache2.getObject("key"));
+  }
+
+  @Test
+  public void shouldInvalidateTablesOfOtherNodes() {
+    TableStampedValue stamped = node2.getTableVersions().stamp(Collections.singleton("author"));
+    TransactionalCacheManager tcm = new TransactionalCacheManager(node1.getTableVersions(), node1.getCacheInvalidationBus());
+    tcm.invalidateOnCommit(Collections.singleton("author"));
+    assertTrue(node2.getTableVersions().isCurrent(stamped));
+    tcm.commit();
+    assertFalse(node2.getTableVersions().isCurrent(stamped));
+  }
+
+  @Test
+  public void shouldIgnoreOwnEvents() {
+    final int[] received = new int[1];
+    LoopbackTransport observer = new LoopbackTransport(getClass().getName());
+    observer.start(new InvalidationListener() {
+      @Override
+      public void onInvalidation(CacheInvalidationEvent event) {
+        received[0]++;
+      }
+    });
+    cache1.putObject("key", "value");
+    node1.getCacheInvalidationBus().onInvalidation(
+        new CacheInvalidationEvent(node1.getCacheInvalidationBus().getNodeId(), "blog", null));
+    assertEquals("value", cache1.getObject("key"));
+    node1.getCacheInvalidationBus().publishClear("blog");
+    assertEquals("value", cache1.getObject("key"));
+    assertEquals(1, received[0]);
+    observer.close();
+  }
+
+  private Configuration node() {
+    Configuration configuration = new Configuration();
+    configuration.addCache(new PerpetualCache("blog"));
+    configuration.setCacheInvalidationTransport(new LoopbackTransport(getClass().getName()));
+    return configuration;
+  }
+
+}
@@ -0,0 +1,101 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+
+  @Test
+  public void shouldExpireEntriesIndividually() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(500);
+    cache.putObject(0, 0);
+    Thread.sleep(300);
+    cache.putObject(1, 1);
+    Thread.sleep(300);
+    assertNull(cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldPruneExpiredEntriesOnPut() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(200);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, i);
+    }
+    Thread.sleep(400);
+    cache.putObject("fresh", "fresh");
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldRestartTimeToLiveWhenPutAgain() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(500);
+    cache.putObject(0, "old");
+    Thread.sleep(300);
+    cache.putObject(0, "new");
+    Thread.sleep(300);
+    cache.putObject(1, 1);
+    assertEquals("new", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldMissOnceWhenRefreshAheadIsDue() throws Exception {
+    ExpiringCache cache = new ExpiringCache(new PerpetualCache("default"));
+    cache.setTimeToLive(60000);
+    cache.setRefreshAhead(0.001);
+    cache.putObject(0, "old");
+    assertEquals("old", cache.getObject(0));
+    Thread.sleep(100);
+    assertNull(cache.getObject(0));
+    assertEquals("old", cache.getObject(0));
+    cache.putObject(0, "new");
+    assertEquals("new", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldForgetEntriesEvictedBelow() {
+    LruCache lru = new LruCache(new ExpiringCache(new PerpetualCache("default")));
+    lru.setSize(5);
+    for (int i = 0; i < 10; i++) {
+      lru.putObject(i, i);
+    }
+    assertEquals(5, lru.getSize());
+    assertNull(lru.getObject(0));
+    assertEquals(9, lru.getObject(9));
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    Cache cache = new ExpiringCache(new PerpetualCache("default"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+}
@@ -0,0 +1,176 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.apache.ibatis.cache.impl.MappedFileCache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedFileCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void shouldKeepEntriesAcrossRestarts() {
+    MappedFileCache cache = newCache("checksum");
+    CacheKey key = new CacheKey();
+    key.update("org.example.Mapper.select");
+    key.update(1);
+    cache.putObject(key, "value");
+    cache.putObject("other", 2);
+    cache.close();
+
+    MappedFileCache restarted = newCache("checksum");
+    assertEquals(2, restarted.getSize());
+    CacheKey sameKey = new CacheKey();
+    sameKey.update("org.example.Mapper.select");
+    sameKey.update(1);
+    assertEquals("value", restarted.getObject(sameKey));
+    assertEquals(2, restarted.getObject("other"));
+    restarted.close();
+  }
+
+  @Test
+  public void shouldDiscardEntriesWhenMapperChanged() {
+    MappedFileCache cache = newCache("v1");
+    cache.putObject("key", "value");
+    cache.close();
+
+    MappedFileCache restarted = newCache("v2");
+    assertEquals(0, restarted.getSize());
+    assertNull(restarted.getObject("key"));
+    restarted.close();
+  }
+
+  @Test
+  public void shouldPersistRemovalsAndClear() {
+    MappedFileCache cache = newCache("checksum");
+    cache.putObject(1, "one");
+    cache.putObject(2, "two");
+    cache.putObject(1, "uno");
+    cache.removeObject(2);
+    cache.close();
+
+    MappedFileCache restarted = newCache("checksum");
+    assertEquals(1, restarted.getSize());
+    assertEquals("uno", restarted.getObject(1));
+    assertNull(restarted.getObject(2));
+    restarted.clear();
+    restarted.close();
+
+    MappedFileCache cleared = newCache("checksum");
+    assertEquals(0, cleared.getSize());
+    cleared.close();
+  }
+
+  @Test
+  public void shouldCompactWhenFileIsFull() {
+    MappedFileCache cache = newCache("checksum");
+    cache.setMaxFileSize(4096);
+    cache.initialize();
+    for (int i = 0; i < 500; i++) {
+      cache.putObject(i % 4, "value" + i);
+    }
+    assertEquals(4, cache.getSize());
+    cache.close();
+
+    MappedFileCache restarted = newCache("checksum");
+    restarted.setMaxFileSize(4096);
+    restarted.initialize();
+    assertEquals("value499", restarted.getObject(3));
+    assertEquals("value496", restarted.getObject(0));
+    restarted.close();
+  }
+
+  @Test
+  public void shouldSkipEntriesLargerThanTheFile() {
+    MappedFileCache cache = newCache("checksum");
+    cache.setMaxFileSize(4096);
+    cache.initialize();
+    cache.putObject(1, "one");
+    cache.putObject(2, "two");
+    cache.putObject(3, new byte[8192]);
+    assertNull(cache.getObject(3));
+    assertEquals("one", cache.getObject(1));
+    assertEquals("two", cache.getObject(2));
+    cache.close();
+  }
+
+  @Test
+  public void shouldNotRestoreReplacedEntryWhenNewValueIsSkipped() {
+    MappedFileCache cache = newCache("checksum");
+    cache.setMaxFileSize(4096);
+    cache.initialize();
+    cache.putObject(1, "one");
+    cache.putObject(1, new byte[8192]);
+    assertNull(cache.getObject(1));
+    cache.close();
+
+    MappedFileCache restarted = newCache("checksum");
+    restarted.setMaxFileSize(4096);
+    restarted.initialize();
+    assertNull(restarted.getObject(1));
+    assertEquals(0, restarted.getSize());
+    restarted.close();
+  }
+
+  @Test
+  public void shouldKeepNonSerializableKeysInMemory() {
+    MappedFileCache cache = newCache("checksum");
+    Object key = new Object();
+    cache.putObject(key, "value");
+    assertEquals("value", cache.getObject(key));
+    cache.close();
+
+    MappedFileCache restarted = newCache("checksum");
+    assertEquals(0, restarted.getSize());
+    restarted.close();
+  }
+
+  @Test
+  public void shouldKeepEntriesInMemoryWhenFileInUse() {
+    MappedFileCache cache = newCache("checksum");
+    cache.putObject("first", 1);
+    try {
+      MappedFileCache other = newCache("checksum");
+      other.putObject("second", 2);
+      assertEquals(2, other.getObject("second"));
+      assertNull(other.getObject("first"));
+      assertEquals(1, other.getSize());
+      other.clear();
+      assertEquals(0, other.getSize());
+      other.close();
+      assertEquals(1, cache.getObject("first"));
+    } finally {
+      cache.close();
+    }
+  }
+
+  private MappedFileCache newCache(String checksum) {
+    MappedFileCache cache = new MappedFileCache("org.example.Mapper");
+    cache.setDirectory(folder.getRoot().getAbsolutePath() + File.separator + "cache");
+    cache.setMapperChecksum(checksum);
+    cache.initialize();
+    return cache;
+  }
+
+}
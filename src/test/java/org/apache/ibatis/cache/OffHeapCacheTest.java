@@ -0,0 +1,130 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.ibatis.cache.codec.ReflectiveCodec;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+  @Test
+  public void shouldReturnCopiesOfStoredValues() {
+    OffHeapCache cache = new OffHeapCache("default");
+    List<String> value = new ArrayList<String>();
+    value.add("a");
+    value.add("b");
+    cache.putObject("key", value);
+    Object copy = cache.getObject("key");
+    assertEquals(value, copy);
+    assertNotSame(value, copy);
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldStoreValuesSpanningSeveralBlocks() {
+    OffHeapCache cache = smallCache(64 * 1024, 128);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      sb.append(i);
+    }
+    cache.putObject(1, sb.toString());
+    assertEquals(sb.toString(), cache.getObject(1));
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsed() {
+    OffHeapCache cache = smallCache(4 * 128, 128);
+    for (int i = 0; i < 4; i++) {
+      cache.putObject(i, i);
+    }
+    cache.getObject(0);
+    cache.putObject(4, 4);
+    assertEquals(4, cache.getSize());
+    assertEquals(0, cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertEquals(4, cache.getObject(4));
+  }
+
+  @Test
+  public void shouldReuseBlocksAfterRemoveAndReplace() {
+    OffHeapCache cache = smallCache(8 * 128, 128);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i % 3, "value" + i);
+      if (i % 5 == 0) {
+        cache.removeObject(i % 3);
+      }
+    }
+    assertEquals("value999", cache.getObject(0));
+    assertTrue(cache.getUsedBytes() <= 3 * 128);
+  }
+
+  @Test
+  public void shouldIgnoreValuesLargerThanCapacity() {
+    OffHeapCache cache = smallCache(2 * 128, 128);
+    cache.putObject(1, new byte[1024]);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getUsedBytes());
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    OffHeapCache cache = new OffHeapCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getUsedBytes());
+  }
+
+  @Test
+  public void shouldBeConfiguredByCacheBuilder() {
+    Cache cache = new CacheBuilder("test")
+        .implementation(OffHeapCache.class)
+        .properties(properties("capacity", "1048576", "blockSize", "256", "slabSize", "65536",
+            "codec", ReflectiveCodec.class.getName()))
+        .build();
+    cache.putObject("key", "value");
+    assertEquals("value", cache.getObject("key"));
+  }
+
+  private OffHeapCache smallCache(long capacity, int blockSize) {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(capacity);
+    cache.setBlockSize(blockSize);
+    cache.setSlabSize(blockSize * 4);
+    cache.initialize();
+    return cache;
+  }
+
+  private Properties properties(String... pairs) {
+    Properties props = new Properties();
+    for (int i = 0; i < pairs.length; i += 2) {
+      props.setProperty(pairs[i], pairs[i + 1]);
+    }
+    return props;
+  }
+
+}
@@ -0,0 +1,348 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.cache.codec.CacheCodec;
+import org.apache.ibatis.cache.codec.ReflectiveCodec;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class ReflectiveCodecTest {
+
+  private final CacheCodec codec = new ReflectiveCodec();
+
+  @Test
+  public void shouldCopyNestedBeans() {
+    Order order = newOrder();
+    Order copy = (Order) codec.decode(codec.encode(order));
+    assertNotSame(order, copy);
+    assertEquals(42, copy.getId());
+    assertEquals(new BigDecimal("12.50"), copy.getTotal());
+    assertEquals(order.getCreated(), copy.getCreated());
+    assertEquals(order.getShipped(), copy.getShipped());
+    assertTrue(copy.isPaid());
+    assertEquals(Status.SHIPPED, copy.getStatus());
+    assertEquals("Fred Flintstone \u00e9\u4e2d", copy.getCustomer().getName());
+    assertEquals(2, copy.getLines().size());
+    assertEquals("dynamite", copy.getLines().get(1).getProduct());
+    assertEquals(3L, copy.getLines().get(1).getQuantity());
+    assertEquals(order.getTags(), copy.getTags());
+    assertEquals(order.getAttributes(), copy.getAttributes());
+  }
+
+  @Test
+  public void shouldCopyNonAsciiStringsLongerThanTheBuffer() {
+    // 多字节字符在前、ASCII 字符在后，编码长度超过按字符数预留的空间
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append(i % 2 == 0 ? '\u4e2d' : '\u00e9');
+    }
+    for (int i = 0; i < 8000; i++) {
+      text.append('a');
+    }
+    List<String> strings = new ArrayList<String>();
+    strings.add(text.toString());
+    strings.add("\u00e9t\u00e9 " + text);
+    assertEquals(strings, codec.decode(codec.encode(strings)));
+  }
+
+  @Test
+  public void shouldKeepSharedReferencesAndCycles() {
+    Order order = newOrder();
+    for (Line line : order.getLines()) {
+      line.setOrder(order);
+    }
+    List<Object> list = new ArrayList<Object>();
+    list.add(order);
+    list.add(order);
+    @SuppressWarnings("unchecked")
+    List<Object> copy = (List<Object>) codec.decode(codec.encode(list));
+    Order first = (Order) copy.get(0);
+    assertSame(first, copy.get(1));
+    assertSame(first, first.getLines().get(0).getOrder());
+    assertSame(first, first.getLines().get(1).getOrder());
+  }
+
+  @Test
+  public void shouldFallBackToSerializationForUnsupportedClasses() {
+    Map<String, Object> map = new HashMap<String, Object>();
+    map.put("immutable", new Immutable("value"));
+    map.put("numbers", new int[]{1, 2, 3});
+    @SuppressWarnings("unchecked")
+    Map<String, Object> copy = (Map<String, Object>) codec.decode(codec.encode(map));
+    assertEquals("value", ((Immutable) copy.get("immutable")).getValue());
+    assertArrayEquals(new int[]{1, 2, 3}, (int[]) copy.get("numbers"));
+  }
+
+  @Test
+  public void shouldCopyBeansWhoseGetterAndSetterTypesDiffer() {
+    Account account = new Account();
+    account.setId(7);
+    account.setActive(Boolean.TRUE);
+    Account copy = (Account) codec.decode(codec.encode(account));
+    assertEquals(Integer.valueOf(7), copy.getId());
+    assertTrue(copy.isActive());
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectNonSerializableValues() {
+    List<Object> list = new ArrayList<Object>();
+    list.add(new Object());
+    codec.encode(list);
+  }
+
+  @Test
+  public void shouldReturnACopyFromSerializedCache() {
+    SerializedCache cache = new SerializedCache(new PerpetualCache("default"), codec);
+    Order order = newOrder();
+    cache.putObject(1, order);
+    Order first = (Order) cache.getObject(1);
+    Order second = (Order) cache.getObject(1);
+    assertNotSame(first, second);
+    first.getCustomer().setName("Barney");
+    assertEquals("Fred Flintstone \u00e9\u4e2d", second.getCustomer().getName());
+    assertEquals("Fred Flintstone \u00e9\u4e2d", ((Order) cache.getObject(1)).getCustomer().getName());
+  }
+
+  private Order newOrder() {
+    Order order = new Order();
+    order.setId(42);
+    order.setTotal(new BigDecimal("12.50"));
+    order.setCreated(new Date(1000000L));
+    Timestamp shipped = new Timestamp(2000000L);
+    shipped.setNanos(123456789);
+    order.setShipped(shipped);
+    order.setPaid(true);
+    order.setStatus(Status.SHIPPED);
+    Customer customer = new Customer();
+    customer.setName("Fred Flintstone \u00e9\u4e2d");
+    order.setCustomer(customer);
+    List<Line> lines = new ArrayList<Line>();
+    lines.add(new Line("gravel", 1));
+    lines.add(new Line("dynamite", 3));
+    order.setLines(lines);
+    Set<String> tags = new LinkedHashSet<String>();
+    tags.add("rush");
+    tags.add("fragile");
+    order.setTags(tags);
+    Map<String, Object> attributes = new HashMap<String, Object>();
+    attributes.put("weight", 2.5d);
+    attributes.put("priority", 'A');
+    attributes.put("notes", null);
+    order.setAttributes(attributes);
+    return order;
+  }
+
+  public enum Status {
+    NEW, SHIPPED
+  }
+
+  public static class Order implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private int id;
+    private BigDecimal total;
+    private Date created;
+    private Timestamp shipped;
+    private boolean paid;
+    private Status status;
+    private Customer customer;
+    private List<Line> lines;
+    private Set<String> tags;
+    private Map<String, Object> attributes;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public BigDecimal getTotal() {
+      return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+      this.total = total;
+    }
+
+    public Date getCreated() {
+      return created;
+    }
+
+    public void setCreated(Date created) {
+      this.created = created;
+    }
+
+    public Timestamp getShipped() {
+      return shipped;
+    }
+
+    public void setShipped(Timestamp shipped) {
+      this.shipped = shipped;
+    }
+
+    public boolean isPaid() {
+      return paid;
+    }
+
+    public void setPaid(boolean paid) {
+      this.paid = paid;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    public Customer getCustomer() {
+      return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+      this.customer = customer;
+    }
+
+    public List<Line> getLines() {
+      return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+      this.lines = lines;
+    }
+
+    public Set<String> getTags() {
+      return tags;
+    }
+
+    public void setTags(Set<String> tags) {
+      this.tags = tags;
+    }
+
+    public Map<String, Object> getAttributes() {
+      return attributes;
+    }
+
+    public void setAttributes(Map<String, Object> attributes) {
+      this.attributes = attributes;
+    }
+  }
+
+  public static class Customer implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class Line implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String product;
+    private long quantity;
+    private Order order;
+
+    public Line() {
+    }
+
+    public Line(String product, long quantity) {
+      this.product = product;
+      this.quantity = quantity;
+    }
+
+    public String getProduct() {
+      return product;
+    }
+
+    public void setProduct(String product) {
+      this.product = product;
+    }
+
+    public long getQuantity() {
+      return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+      this.quantity = quantity;
+    }
+
+    public Order getOrder() {
+      return order;
+    }
+
+    public void setOrder(Order order) {
+      this.order = order;
+    }
+  }
+
+  public static class Immutable implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String value;
+
+    public Immutable(String value) {
+      this.value = value;
+    }
+
+    public String getValue() {
+      return value;
+    }
+  }
+
+  public static class Account implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private int id;
+    private boolean active;
+
+    public Integer getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public boolean isActive() {
+      return active;
+    }
+
+    public void setActive(Boolean active) {
+      this.active = active;
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class TableVersionsTest {
+
+  @Test
+  public void shouldInvalidateOnlyEntriesDependingOnWrittenTables() {
+    TableVersions versions = new TableVersions();
+    Cache cache = new PerpetualCache("blog");
+    CacheKey blogKey = key("blog");
+    CacheKey authorKey = key("author");
+
+    TransactionalCacheManager reader = new TransactionalCacheManager(versions);
+    reader.putObject(cache, blogKey, stamped(versions, "value", "blog"));
+    reader.putObject(cache, authorKey, stamped(versions, "value", "author"));
+    reader.commit();
+
+    TransactionalCacheManager writer = new TransactionalCacheManager(versions);
+    writer.invalidateOnCommit(Collections.singleton("author"));
+    assertEquals("value", writer.getObject(cache, blogKey));
+    assertNull(writer.getObject(cache, authorKey));
+    // not committed yet
+    assertEquals("value", reader.getObject(cache, authorKey));
+    writer.commit();
+
+    assertEquals("value", reader.getObject(cache, blogKey));
+    assertNull(reader.getObject(cache, authorKey));
+  }
+
+  @Test
+  public void shouldInvalidateAcrossCaches() {
+    TableVersions versions = new TableVersions();
+    Cache blogCache = new PerpetualCache("blog");
+    Cache authorCache = new PerpetualCache("author");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(versions);
+    tcm.putObject(blogCache, key("join"), stamped(versions, "value", "blog", "author"));
+    tcm.commit();
+
+    tcm.invalidateOnCommit(Collections.singleton("author"));
+    tcm.clear(authorCache);
+    tcm.commit();
+    assertNull(tcm.getObject(blogCache, key("join")));
+  }
+
+  @Test
+  public void shouldNotStoreResultsReadBeforeAConcurrentWrite() {
+    TableVersions versions = new TableVersions();
+    Cache cache = new PerpetualCache("blog");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(versions);
+    TableStampedValue stamped = versions.stamp(Collections.singleton("blog"));
+    versions.invalidate(Collections.singleton("blog"));
+    stamped.setValue("stale");
+    tcm.putObject(cache, key("blog"), stamped);
+    tcm.commit();
+    assertNull(cache.getObject(key("blog")));
+  }
+
+  @Test
+  public void shouldDiscardPendingInvalidationsOnRollback() {
+    TableVersions versions = new TableVersions();
+    Cache cache = new PerpetualCache("blog");
+    TransactionalCacheManager tcm = new TransactionalCacheManager(versions);
+    tcm.putObject(cache, key("blog"), stamped(versions, "value", "blog"));
+    tcm.commit();
+    tcm.invalidateOnCommit(Collections.singleton("blog"));
+    tcm.rollback();
+    assertEquals("value", tcm.getObject(cache, key("blog")));
+  }
+
+  @Test
+  public void shouldSurviveSerialization() {
+    TableVersions versions = new TableVersions();
+    Cache cache = new SerializedCache(new PerpetualCache("blog"));
+    TransactionalCacheManager tcm = new TransactionalCacheManager(versions);
+    tcm.putObject(cache, key("blog"), stamped(versions, Arrays.asList(1, 2), "blog"));
+    tcm.commit();
+    assertEquals(Arrays.asList(1, 2), tcm.getObject(cache, key("blog")));
+  }
+
+  @Test
+  public void shouldTreatStampsOfAnotherInstanceAsCurrentUntilWritten() {
+    TableStampedValue stamped = new TableVersions().stamp(Collections.singleton("blog"));
+    TableVersions restarted = new TableVersions();
+    assertTrue(restarted.isCurrent(stamped));
+    restarted.invalidate(Collections.singleton("blog"));
+    assertFalse(restarted.isCurrent(stamped));
+  }
+
+  private TableStampedValue stamped(TableVersions versions, Object value, String... tables) {
+    TableStampedValue stamped = versions.stamp(Arrays.asList(tables));
+    stamped.setValue(value);
+    return stamped;
+  }
+
+  private CacheKey key(String name) {
+    CacheKey key = new CacheKey();
+    key.update(name);
+    return key;
+  }
+
+}
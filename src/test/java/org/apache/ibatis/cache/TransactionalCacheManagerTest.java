@@ -0,0 +1,181 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.Test;
+
+public class TransactionalCacheManagerTest {
+
+  @Test
+  public void shouldNotTouchTheCacheOnCommitAfterReadOnlyHits() {
+    RecordingCache cache = new RecordingCache("blog");
+    cache.putObject(key(1), "one");
+    cache.operations.clear();
+
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    assertEquals("one", tcm.getObject(cache, key(1)));
+    assertEquals("one", tcm.getObject(cache, key(1)));
+    tcm.commit();
+    tcm.rollback();
+
+    assertEquals(2, cache.operations.size());
+    assertEquals("get", cache.operations.get(0));
+  }
+
+  @Test
+  public void shouldPublishPendingEntriesOnlyOnCommit() {
+    Cache cache = new PerpetualCache("blog");
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    for (int i = 0; i < 50; i++) {
+      assertNull(tcm.getObject(cache, key(i)));
+      tcm.putObject(cache, key(i), "value" + i);
+    }
+    assertEquals(0, cache.getSize());
+    tcm.commit();
+    assertEquals(50, cache.getSize());
+    assertEquals("value49", cache.getObject(key(49)));
+  }
+
+  @Test
+  public void shouldKeepTheLastValuePutForAKey() {
+    RecordingCache cache = new RecordingCache("blog");
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    assertNull(tcm.getObject(cache, key(1)));
+    tcm.putObject(cache, key(1), "first");
+    tcm.putObject(cache, key(1), "second");
+    tcm.commit();
+    assertEquals("second", cache.getObject(key(1)));
+    assertEquals(1, count(cache.operations, "put"));
+  }
+
+  @Test
+  public void shouldKeepOnePendingEntryPerKeyWhenCyclingManyKeys() {
+    RecordingCache cache = new RecordingCache("blog");
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    for (int round = 0; round < 1000; round++) {
+      for (int i = 0; i < 20; i++) {
+        assertNull(tcm.getObject(cache, key(i)));
+        tcm.putObject(cache, key(i), "value" + i + "-" + round);
+      }
+    }
+    cache.operations.clear();
+    tcm.commit();
+    assertEquals(20, count(cache.operations, "put"));
+    assertEquals("value7-999", cache.getObject(key(7)));
+
+    // the next transaction starts without the index
+    assertNull(tcm.getObject(cache, key(20)));
+    tcm.putObject(cache, key(20), "twenty");
+    tcm.putObject(cache, key(20), "again");
+    cache.operations.clear();
+    tcm.commit();
+    assertEquals(1, count(cache.operations, "put"));
+    assertEquals("again", cache.getObject(key(20)));
+  }
+
+  @Test
+  public void shouldDiscardPendingEntriesOnClearButReleaseMisses() {
+    Cache cache = new BlockingCache(new PerpetualCache("blog"));
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    assertNull(tcm.getObject(cache, key(1)));
+    tcm.putObject(cache, key(2), "two");
+    tcm.clear(cache);
+    tcm.commit();
+    assertNull(cache.getObject(key(2)));
+
+    // the lock taken by the miss has been released
+    TransactionalCacheManager other = new TransactionalCacheManager();
+    assertNull(other.getObject(cache, key(1)));
+    other.putObject(cache, key(1), "one");
+    other.commit();
+    assertEquals("one", cache.getObject(key(1)));
+  }
+
+  @Test
+  public void shouldRemoveMissedEntriesOnRollback() {
+    RecordingCache cache = new RecordingCache("blog");
+    TransactionalCacheManager tcm = new TransactionalCacheManager();
+    assertNull(tcm.getObject(cache, key(1)));
+    tcm.putObject(cache, key(1), "one");
+    tcm.putObject(cache, key(2), "two");
+    tcm.rollback();
+    assertEquals(0, cache.getSize());
+    assertEquals(1, count(cache.operations, "remove"));
+
+    // buffers are reused by the next transaction
+    tcm.putObject(cache, key(3), "three");
+    tcm.commit();
+    assertEquals(1, cache.getSize());
+    assertEquals("three", cache.getObject(key(3)));
+  }
+
+  private static CacheKey key(int id) {
+    CacheKey key = new CacheKey();
+    key.update(id);
+    return key;
+  }
+
+  private static int count(List<String> operations, String operation) {
+    int count = 0;
+    for (String each : operations) {
+      if (each.equals(operation)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static class RecordingCache extends PerpetualCache {
+
+    private final List<String> operations = new ArrayList<String>();
+
+    RecordingCache(String id) {
+      super(id);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+      operations.add("get");
+      return super.getObject(key);
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      operations.add("put");
+      super.putObject(key, value);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+      operations.add("remove");
+      return super.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+      operations.add("clear");
+      super.clear();
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.WeightedLruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.weigher.ReflectiveWeigher;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.junit.Test;
+
+public class WeightedLruCacheTest {
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedToStayUnderBudget() {
+    WeightedLruCache cache = new WeightedLruCache(new PerpetualCache("default"));
+    cache.setMaxBytes(3000);
+    cache.putObject(0, new byte[1000]);
+    cache.putObject(1, new byte[1000]);
+    assertNotNull(cache.getObject(0));
+    cache.putObject(2, new byte[1000]);
+    assertNotNull(cache.getObject(0));
+    assertNull(cache.getObject(1));
+    assertNotNull(cache.getObject(2));
+    assertTrue(cache.getTotalWeight() <= 3000);
+  }
+
+  @Test
+  public void shouldNotKeepEntriesLargerThanBudget() {
+    WeightedLruCache cache = new WeightedLruCache(new PerpetualCache("default"));
+    cache.setMaxBytes(1000);
+    cache.putObject(0, new byte[10]);
+    cache.putObject(1, new byte[2000]);
+    assertNull(cache.getObject(1));
+    assertNotNull(cache.getObject(0));
+  }
+
+  @Test
+  public void shouldTrackWeightOnReplaceAndRemove() {
+    WeightedLruCache cache = new WeightedLruCache(new PerpetualCache("default"));
+    cache.putObject(0, new byte[1000]);
+    long single = cache.getTotalWeight();
+    cache.putObject(0, new byte[1000]);
+    assertEquals(single, cache.getTotalWeight());
+    cache.removeObject(0);
+    assertEquals(0, cache.getTotalWeight());
+    cache.putObject(1, new byte[1000]);
+    cache.clear();
+    assertEquals(0, cache.getTotalWeight());
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldWeighLargeResultsMoreThanSmallOnes() {
+    ReflectiveWeigher weigher = new ReflectiveWeigher();
+    List<Author> small = authors(10);
+    List<Author> large = authors(10000);
+    long smallWeight = weigher.weigh("key", small);
+    long largeWeight = weigher.weigh("key", large);
+    assertTrue(smallWeight > 10 * 16);
+    assertTrue(largeWeight > smallWeight * 500);
+    assertTrue(largeWeight < smallWeight * 2000);
+  }
+
+  @Test
+  public void shouldUseConfiguredWeigher() {
+    WeightedLruCache cache = new WeightedLruCache(new PerpetualCache("default"));
+    cache.setWeigher(ReflectiveWeigher.class.getName());
+    assertTrue(cache.getWeigher() instanceof ReflectiveWeigher);
+  }
+
+  private List<Author> authors(int count) {
+    List<Author> authors = new ArrayList<Author>();
+    for (int i = 0; i < count; i++) {
+      authors.add(new Author(i, "user" + i, "password" + i, "user" + i + "@example.com", "bio", Section.NEWS));
+    }
+    return authors;
+  }
+
+}
@@ -15,6 +15,13 @@
  */
 package org.apache.ibatis.executor;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+
+import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.junit.Test;
 
 public class ErrorContextTest {
@@ -44,4 +51,49 @@ public class ErrorContextTest {
 
   }
 
+  @Test
+  public void shouldKeepDetailsRecordedByInnerLayersForTheSameFailure() {
+    SQLException failure = new SQLException("boom");
+    RuntimeException wrapped = new RuntimeException(failure);
+    try {
+      ErrorContext.failure(failure).activity("handling results").object("inner");
+      ErrorContext.failure(failure).sql("select 1");
+      ErrorContext.failure(wrapped).resource("Mapper.xml").activity("executing a query").object("outer");
+
+      String description = ErrorContext.instance().toString();
+      assertTrue(description.contains("### The error may exist in Mapper.xml"));
+      assertTrue(description.contains("### The error may involve inner"));
+      assertTrue(description.contains("### The error occurred while handling results"));
+      assertTrue(description.contains("### SQL: select 1"));
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  @Test
+  public void shouldDiscardDetailsOfAnUnrelatedFailure() {
+    try {
+      ErrorContext.instance().resource("Config.xml");
+      ErrorContext.failure(new SQLException("first")).sql("select 1").object("first");
+      ErrorContext.failure(new SQLException("second")).object("second");
+
+      String description = ErrorContext.instance().toString();
+      assertFalse(description.contains("Config.xml"));
+      assertFalse(description.contains("select 1"));
+      assertTrue(description.contains("### The error may involve second"));
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  @Test
+  public void shouldResetContextOnceWrappedIntoAnException() {
+    SQLException failure = new SQLException("boom");
+    ErrorContext.failure(failure).object("some object");
+    RuntimeException e = ExceptionFactory.wrapException("Error querying database.", failure);
+
+    assertTrue(e.getMessage().contains("### The error may involve some object"));
+    assertEquals("", ErrorContext.instance().toString());
+  }
+
 }
@@ -0,0 +1,208 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorTestHelper;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExecutionListenerTest extends BaseDataTest {
+
+  private static DataSource ds;
+
+  private Configuration config;
+  private List<Trace> traces;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    ds = createBlogDataSource();
+  }
+
+  @Before
+  public void createConfiguration() {
+    config = new Configuration();
+    traces = new ArrayList<Trace>();
+    config.addExecutionListener(new ExecutionListener() {
+      @Override
+      public void statementExecuted(StatementTrace trace) {
+        traces.add(new Trace(trace));
+      }
+    });
+  }
+
+  @Test
+  public void shouldReportPhasesRowsAndLobBytesOfAQuery() throws Exception {
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      List<Author> authors = executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+
+      assertEquals(1, traces.size());
+      Trace trace = traces.get(0);
+      assertSame(ms, trace.mappedStatement);
+      assertEquals(authors.size(), trace.rows);
+      assertTrue(trace.prepareTime > 0);
+      assertTrue(trace.executeTime > 0);
+      assertTrue(trace.fetchTime > 0);
+      assertTrue(trace.mapTime > 0);
+      // author.bio is a CLOB
+      assertTrue(trace.lobBytes > 0);
+      assertNull(trace.failure);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldReportUpdateCount() throws Exception {
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      Author author = new Author(101, "someone", "******", "someone@apache.org", null, Section.NEWS);
+      MappedStatement ms = ExecutorTestHelper.prepareUpdateAuthorMappedStatement(config);
+      int rows = executor.update(ms, author);
+
+      assertEquals(1, traces.size());
+      assertEquals(rows, traces.get(0).rows);
+      assertTrue(traces.get(0).bindTime > 0);
+      assertEquals(0, traces.get(0).fetchTime);
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldReportCursorWhenFullyRead() throws Exception {
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      Cursor<Author> cursor = executor.queryCursor(ms, null, RowBounds.DEFAULT);
+      assertEquals(0, traces.size());
+      int read = 0;
+      for (Iterator<Author> it = cursor.iterator(); it.hasNext(); it.next()) {
+        read++;
+      }
+
+      assertEquals(1, traces.size());
+      assertEquals(read, traces.get(0).rows);
+      assertTrue(traces.get(0).executeTime > 0);
+      assertTrue(traces.get(0).fetchTime > 0);
+      assertTrue(traces.get(0).mapTime > 0);
+      cursor.close();
+      assertEquals(1, traces.size());
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldReportBatchFlush() throws Exception {
+    Executor executor = new BatchExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = ExecutorTestHelper.prepareUpdateAuthorMappedStatement(config);
+      executor.update(ms, new Author(101, "someone", "******", "someone@apache.org", null, Section.NEWS));
+      executor.update(ms, new Author(102, "someone", "******", "someone@apache.org", null, Section.NEWS));
+      assertEquals(2, traces.size());
+      assertEquals(0, traces.get(0).rows);
+
+      executor.flushStatements();
+      assertEquals(3, traces.size());
+      assertSame(ms, traces.get(2).mappedStatement);
+      assertEquals(2, traces.get(2).rows);
+      assertTrue(traces.get(2).executeTime > 0);
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldReportFailedStatement() throws Exception {
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = new MappedStatement.Builder(config, "selectMissing",
+          new StaticSqlSource(config, "SELECT * FROM no_such_table"), SqlCommandType.SELECT)
+          .resultMaps(new ArrayList<ResultMap>() {
+            {
+              add(new ResultMap.Builder(config, "defaultResultMap", Author.class, new ArrayList<ResultMapping>()).build());
+            }
+          }).build();
+      try {
+        executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        fail("Statement should have failed");
+      } catch (Exception e) {
+        assertEquals(1, traces.size());
+        assertSame(ms, traces.get(0).mappedStatement);
+        assertTrue(traces.get(0).failure != null);
+      }
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  private static class Trace {
+    final MappedStatement mappedStatement;
+    final long prepareTime;
+    final long bindTime;
+    final long executeTime;
+    final long fetchTime;
+    final long mapTime;
+    final int rows;
+    final long lobBytes;
+    final Throwable failure;
+
+    Trace(StatementTrace trace) {
+      mappedStatement = trace.getMappedStatement();
+      prepareTime = trace.getPrepareTime();
+      bindTime = trace.getBindTime();
+      executeTime = trace.getExecuteTime();
+      fetchTime = trace.getFetchTime();
+      mapTime = trace.getMapTime();
+      rows = trace.getRows();
+      lobBytes = trace.getLobBytes();
+      failure = trace.getFailure();
+    }
+  }
+
+}
@@ -0,0 +1,198 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorTestHelper;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SlowStatementRecorderTest extends BaseDataTest {
+
+  private static DataSource ds;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    ds = createBlogDataSource();
+  }
+
+  @Test
+  public void shouldCaptureSqlParametersAndRowsOfASlowQuery() throws Exception {
+    Configuration config = new Configuration();
+    config.setSlowStatementThreshold(0);
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      List<Author> authors = executor.query(ms, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+
+      List<SlowStatement> slowStatements = config.getSlowStatements().getSlowStatements();
+      assertEquals(1, slowStatements.size());
+      SlowStatement slowStatement = slowStatements.get(0);
+      assertEquals(ms.getId(), slowStatement.getStatementId());
+      assertEquals("SELECT * FROM author WHERE id = ?", slowStatement.getSql());
+      assertEquals(Collections.singletonList("101(Integer)"), slowStatement.getParameters());
+      assertEquals(authors.size(), slowStatement.getRows());
+      assertTrue(slowStatement.getExecuteTime() > 0);
+      assertNull(slowStatement.getFailure());
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldIgnoreStatementsUnderTheThreshold() {
+    Configuration config = new Configuration();
+    MappedStatement ms = updateStatement(config);
+    SlowStatementRecorder recorder = new SlowStatementRecorder(1000, 10);
+
+    execute(ms, recorder, "fast", 999);
+
+    assertEquals(0, recorder.getRecordedCount());
+    assertTrue(recorder.getSlowStatements().isEmpty());
+  }
+
+  @Test
+  public void shouldKeepTheLastStatementsOldestFirst() {
+    Configuration config = new Configuration();
+    MappedStatement ms = updateStatement(config);
+    SlowStatementRecorder recorder = new SlowStatementRecorder(1, 2);
+
+    execute(ms, recorder, "first", 1);
+    execute(ms, recorder, "second", 2);
+    execute(ms, recorder, "third", 3);
+
+    assertEquals(3, recorder.getRecordedCount());
+    List<SlowStatement> slowStatements = recorder.getSlowStatements();
+    assertEquals(2, slowStatements.size());
+    assertEquals(Arrays.asList("second(String)"), slowStatements.get(0).getParameters());
+    assertEquals(Arrays.asList("third(String)"), slowStatements.get(1).getParameters());
+    assertEquals(3, slowStatements.get(1).getRows());
+
+    recorder.clear();
+    assertTrue(recorder.getSlowStatements().isEmpty());
+  }
+
+  @Test
+  public void shouldTruncateLongParameterValues() {
+    Configuration config = new Configuration();
+    MappedStatement ms = updateStatement(config);
+    SlowStatementRecorder recorder = new SlowStatementRecorder(0, 1);
+    char[] chars = new char[500];
+    Arrays.fill(chars, 'x');
+
+    execute(ms, recorder, new String(chars), 1);
+
+    String parameter = recorder.getSlowStatements().get(0).getParameters().get(0);
+    assertTrue(parameter.endsWith("...(String)"));
+    assertTrue(parameter.length() < 120);
+  }
+
+  @Test
+  public void shouldReadBeanPropertiesButNotLoadLazyProxies() {
+    Configuration config = new Configuration();
+    MappedStatement ms = updateStatement(config);
+    SlowStatementRecorder recorder = new SlowStatementRecorder(0, 2);
+
+    execute(ms, recorder, new Named("bean"), 1);
+    LazyNamed proxy = new LazyNamed("lazy");
+    execute(ms, recorder, proxy, 1);
+
+    List<SlowStatement> slowStatements = recorder.getSlowStatements();
+    assertEquals(Arrays.asList("bean(String)"), slowStatements.get(0).getParameters());
+    assertEquals(Arrays.asList("<name not loaded>"), slowStatements.get(1).getParameters());
+    assertFalse(proxy.loaded);
+  }
+
+  @Test
+  public void shouldReplaceRecorderWhenCapacityChanges() {
+    Configuration config = new Configuration();
+    config.setSlowStatementThreshold(500);
+    config.setSlowStatementCapacity(5);
+
+    assertEquals(Integer.valueOf(500), config.getSlowStatementThreshold());
+    assertEquals(5, config.getSlowStatements().getCapacity());
+    assertEquals(1, config.getExecutionListeners().size());
+
+    config.setSlowStatementThreshold(null);
+    assertNull(config.getSlowStatements());
+    assertTrue(config.getExecutionListeners().isEmpty());
+  }
+
+  private static MappedStatement updateStatement(Configuration config) {
+    return new MappedStatement.Builder(config, "updateName",
+        new StaticSqlSource(config, "UPDATE author SET username = ?", Collections.singletonList(
+            new ParameterMapping.Builder(config, "name", String.class).build())), SqlCommandType.UPDATE).build();
+  }
+
+  private static void execute(MappedStatement ms, SlowStatementRecorder recorder, Object parameter, long millis) {
+    StatementTrace trace = new StatementTrace(ms, ms.getBoundSql(parameter), Collections.<ExecutionListener>singletonList(recorder));
+    trace.updated(millis * 1000000, (int) millis);
+  }
+
+  public static class Named {
+    private final String name;
+
+    Named(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+  public static class LazyNamed extends Named implements WriteReplaceInterface {
+    boolean loaded;
+
+    LazyNamed(String name) {
+      super(name);
+    }
+
+    @Override
+    public String getName() {
+      loaded = true;
+      return super.getName();
+    }
+
+    @Override
+    public Object writeReplace() {
+      return this;
+    }
+  }
+
+}
@@ -0,0 +1,201 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorTestHelper;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StatementMetricsRegistryTest extends BaseDataTest {
+
+  private static DataSource ds;
+
+  private Configuration config;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    ds = createBlogDataSource();
+  }
+
+  @Before
+  public void createConfiguration() {
+    config = new Configuration();
+    config.setStatementMetricsEnabled(true);
+  }
+
+  @Test
+  public void shouldRecordPhasesRowsAndLocalCacheHits() throws Exception {
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      List<Author> authors = executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+
+      StatementMetrics metrics = config.getStatementMetrics().getMetrics(ms.getId());
+      assertEquals(2, metrics.getCalls());
+      assertEquals(1, metrics.getExecutions());
+      assertEquals(1, metrics.getLocalCacheHits());
+      assertEquals(0, metrics.getSecondLevelCacheHits());
+      assertEquals(authors.size(), metrics.getRows());
+      assertEquals(0, metrics.getErrors());
+      assertEquals(2, metrics.getSqlGeneration().getCount());
+      assertEquals(1, metrics.getExecution().getCount());
+      assertEquals(1, metrics.getResultMapping().getCount());
+      assertTrue(metrics.getExecution().getTotalTime() > 0);
+      assertTrue(metrics.getResultMapping().getTotalTime() > 0);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldRecordSecondLevelCacheHits() throws Exception {
+    MappedStatement ms = new MappedStatement.Builder(config, "selectAllAuthorsCached",
+        new StaticSqlSource(config, "SELECT * FROM author ORDER BY id"), SqlCommandType.SELECT)
+        .resultMaps(new ArrayList<ResultMap>() {
+          {
+            add(new ResultMap.Builder(config, "defaultResultMap", Author.class, new ArrayList<ResultMapping>()).build());
+          }
+        })
+        .cache(new PerpetualCache("authors"))
+        .useCache(true)
+        .build();
+    for (int i = 0; i < 2; i++) {
+      Executor executor = new CachingExecutor(new SimpleExecutor(config, new JdbcTransaction(ds, null, false)));
+      try {
+        executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        executor.commit(false);
+      } finally {
+        executor.close(false);
+      }
+    }
+
+    StatementMetrics metrics = config.getStatementMetrics().getMetrics(ms.getId());
+    assertEquals(2, metrics.getCalls());
+    assertEquals(1, metrics.getExecutions());
+    assertEquals(1, metrics.getSecondLevelCacheHits());
+    assertEquals(0, metrics.getLocalCacheHits());
+  }
+
+  @Test
+  public void shouldRecordErrors() throws Exception {
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement ms = new MappedStatement.Builder(config, "selectMissing",
+          new StaticSqlSource(config, "SELECT * FROM no_such_table"), SqlCommandType.SELECT)
+          .resultMaps(new ArrayList<ResultMap>()).build();
+      try {
+        executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        fail("Statement should have failed");
+      } catch (Exception e) {
+        StatementMetrics metrics = config.getStatementMetrics().getMetrics(ms.getId());
+        assertEquals(1, metrics.getExecutions());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(0, metrics.getExecution().getCount());
+      }
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldRecordErrorsBeforeReachingTheDatabase() throws Exception {
+    MappedStatement brokenSql = new MappedStatement.Builder(config, "selectBrokenSql", new SqlSource() {
+      @Override
+      public BoundSql getBoundSql(Object parameterObject) {
+        throw new BuilderException("Error evaluating expression");
+      }
+    }, SqlCommandType.SELECT).resultMaps(new ArrayList<ResultMap>()).build();
+    Executor executor = new CachingExecutor(new SimpleExecutor(config, new JdbcTransaction(ds, null, false)));
+    try {
+      executor.query(brokenSql, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      fail("Statement should have failed");
+    } catch (BuilderException e) {
+      assertEquals(1, config.getStatementMetrics().getMetrics(brokenSql.getId()).getErrors());
+      assertEquals(0, config.getStatementMetrics().getMetrics(brokenSql.getId()).getExecutions());
+    } finally {
+      executor.close(false);
+    }
+
+    MappedStatement ms = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+    UnpooledDataSource unavailable = new UnpooledDataSource("org.example.MissingDriver", "jdbc:missing", null, null);
+    executor = new SimpleExecutor(config, new JdbcTransaction(unavailable, null, false));
+    try {
+      executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      fail("Statement should have failed");
+    } catch (Exception e) {
+      assertEquals(1, config.getStatementMetrics().getMetrics(ms.getId()).getErrors());
+      assertEquals(0, config.getStatementMetrics().getMetrics(ms.getId()).getExecutions());
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldStopRecordingWhenDisabled() {
+    config.setStatementMetricsEnabled(false);
+    assertNull(config.getStatementMetrics());
+    assertTrue(config.getExecutionListeners().isEmpty());
+  }
+
+  @Test
+  public void shouldEstimatePercentilesFromPowerOfTwoBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 99; i++) {
+      histogram.record(1000);
+    }
+    histogram.record(1000000);
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(1000000, histogram.getMaxTime());
+    assertEquals(99 * 1000 + 1000000, histogram.getTotalTime());
+    // 1000 falls in [512, 1023]
+    assertEquals(1023, histogram.getPercentile(50));
+    assertEquals(1023, histogram.getPercentile(99));
+    assertEquals(1000000, histogram.getPercentile(100));
+    assertEquals(99, histogram.getBucketCounts()[9]);
+  }
+
+}
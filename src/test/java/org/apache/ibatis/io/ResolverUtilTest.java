@@ -0,0 +1,206 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.type.Alias;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResolverUtilTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Mapper
+  public interface AnnotatedMapper extends Callable<String> {
+  }
+
+  @Alias("member")
+  public static class Member implements Serializable {
+    private static final long serialVersionUID = 1L;
+  }
+
+  private static ClassFileHeader header(Class<?> type) throws Exception {
+    InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+    try {
+      return ClassFileHeader.read(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  @Test
+  public void shouldReadClassFileHeader() throws Exception {
+    ClassFileHeader header = header(Author.class);
+    assertEquals(Author.class.getName(), header.getClassName());
+    assertEquals(Object.class.getName(), header.getSuperClassName());
+    assertEquals(Collections.singletonList(Serializable.class.getName()), header.getInterfaceNames());
+    assertFalse(header.isInterface());
+    assertFalse(header.isMemberClass());
+    assertFalse(header.isAnonymousClass());
+
+    header = header(AnnotatedMapper.class);
+    assertTrue(header.isInterface());
+    assertTrue(header.isMemberClass());
+    assertTrue(header.isAnnotationPresent(Mapper.class.getName()));
+    assertFalse(header.isAnnotationPresent(Deprecated.class.getName()));
+
+    assertTrue(header(new Object() {}.getClass()).isAnonymousClass());
+  }
+
+  @Test
+  public void shouldRejectClassesFromTheirHeader() throws Exception {
+    ResolverUtil.IsA isSerializable = new ResolverUtil.IsA(Serializable.class);
+    assertTrue(isSerializable.mayMatch(header(Author.class)));
+    assertTrue(isSerializable.mayMatch(header(Member.class)));
+    assertFalse(isSerializable.mayMatch(header(ResolverUtilTest.class)));
+    assertTrue(new ResolverUtil.IsA(Object.class).mayMatch(header(ResolverUtilTest.class)));
+
+    ResolverUtil.AnnotatedWith isAlias = new ResolverUtil.AnnotatedWith(Alias.class);
+    assertTrue(isAlias.mayMatch(header(Member.class)));
+    assertFalse(isAlias.mayMatch(header(Author.class)));
+    // @Mapper is inherited, so it can not be decided from the class file alone
+    assertTrue(new ResolverUtil.AnnotatedWith(Mapper.class).mayMatch(header(Author.class)));
+  }
+
+  @Test
+  public void shouldFindTheSameClassesAsWithoutHeaders() {
+    ResolverUtil<Object> withHeaders = new ResolverUtil<Object>();
+    withHeaders.find(new ResolverUtil.IsA(Serializable.class), "org.apache.ibatis.domain.blog");
+    ResolverUtil<Object> withoutHeaders = new ResolverUtil<Object>();
+    withoutHeaders.find(new ResolverUtil.Test() {
+      @Override
+      public boolean matches(Class<?> type) {
+        return Serializable.class.isAssignableFrom(type);
+      }
+    }, "org.apache.ibatis.domain.blog");
+    assertTrue(withHeaders.getClasses().contains(Author.class));
+    assertEquals(withoutHeaders.getClasses(), withHeaders.getClasses());
+  }
+
+  @Test
+  public void shouldNotLoadRejectedClasses() {
+    final Set<Class<?>> loaded = new HashSet<Class<?>>();
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<Object>();
+    resolverUtil.find(new ResolverUtil.ClassFileTest() {
+      @Override
+      public boolean mayMatch(ClassFileHeader header) {
+        return header.getClassName().equals(Section.class.getName());
+      }
+
+      @Override
+      public boolean matches(Class<?> type) {
+        loaded.add(type);
+        return true;
+      }
+    }, "org.apache.ibatis.domain.blog");
+    assertEquals(Collections.<Class<?>>singleton(Section.class), loaded);
+  }
+
+  @Test
+  public void shouldListPackagesFromClassIndex() throws Exception {
+    File root = folder.newFolder();
+    File pkg = new File(root, "org/apache/ibatis/domain/blog");
+    assertTrue(pkg.mkdirs());
+    copyClassFile(Author.class, pkg);
+    copyClassFile(Blog.class, pkg);
+    File index = new File(root, ClassIndex.RESOURCE);
+    assertTrue(index.getParentFile().mkdirs());
+    FileOutputStream out = new FileOutputStream(index);
+    try {
+      out.write("org/apache/ibatis/domain/blog/Author.class\norg/apache/ibatis/domain/blog/Blog.class\n".getBytes("UTF-8"));
+    } finally {
+      out.close();
+    }
+
+    URLClassLoader loader = new URLClassLoader(new URL[] { root.toURI().toURL() }, null);
+    assertEquals(Arrays.asList("org/apache/ibatis/domain/blog/Author.class", "org/apache/ibatis/domain/blog/Blog.class"),
+        ClassIndex.list(loader, "org/apache/ibatis/domain/blog"));
+    assertEquals(null, ClassIndex.list(loader, "org/apache/ibatis/domain/jpetstore"));
+
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<Object>();
+    resolverUtil.setClassLoader(loader);
+    resolverUtil.find(new ResolverUtil.IsA(Serializable.class), "org.apache.ibatis.domain.blog");
+    assertEquals(1, resolverUtil.getClasses().size());
+    assertEquals(Author.class.getName(), resolverUtil.getClasses().iterator().next().getName());
+  }
+
+  @Test
+  public void shouldOnlyUseClassIndexWhenEveryRootOfThePackageIsIndexed() throws Exception {
+    File indexed = folder.newFolder();
+    assertTrue(new File(indexed, "a/b").mkdirs());
+    assertTrue(new File(indexed, "a/b/C.class").createNewFile());
+    ClassIndex.write(indexed);
+    File unindexed = folder.newFolder();
+    assertTrue(new File(unindexed, "a/b").mkdirs());
+    assertTrue(new File(unindexed, "a/b/D.class").createNewFile());
+
+    URL[] roots = new URL[] { indexed.toURI().toURL(), unindexed.toURI().toURL() };
+    assertEquals(null, ClassIndex.list(new URLClassLoader(roots, null), "a/b"));
+
+    ClassIndex.write(unindexed);
+    assertEquals(Arrays.asList("a/b/C.class", "a/b/D.class"), ClassIndex.list(new URLClassLoader(roots, null), "a/b"));
+  }
+
+  private static void copyClassFile(Class<?> type, File directory) throws Exception {
+    InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+    FileOutputStream out = new FileOutputStream(new File(directory, type.getSimpleName() + ".class"));
+    try {
+      byte[] buffer = new byte[4096];
+      for (int n; (n = in.read(buffer)) > 0; ) {
+        out.write(buffer, 0, n);
+      }
+    } finally {
+      out.close();
+      in.close();
+    }
+  }
+
+  @Test
+  public void shouldWriteClassIndex() throws Exception {
+    File root = folder.newFolder();
+    File pkg = new File(root, "a/b");
+    assertTrue(pkg.mkdirs());
+    assertTrue(new File(pkg, "C.class").createNewFile());
+    assertTrue(new File(pkg, "readme.txt").createNewFile());
+
+    ClassIndex.write(root);
+    URLClassLoader loader = new URLClassLoader(new URL[] { root.toURI().toURL() }, null);
+    assertEquals(Collections.singletonList("a/b/C.class"), ClassIndex.list(loader, "a"));
+  }
+
+}
@@ -24,11 +24,16 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
+import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -90,6 +95,59 @@ public class PooledDataSourceTest extends BaseDataTest {
     JDBCConnection realConnection = (JDBCConnection) PooledDataSource.unwrapConnection(c);
   }
 
+  @Test(timeout = 60000)
+  public void shouldServeThousandsOfVirtualThreadsFromSmallPool() throws Exception {
+    // Executors.newVirtualThreadPerTaskExecutor() is only available on JDK 21+
+    ExecutorService executor;
+    try {
+      executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      Assume.assumeTrue("virtual threads are not available", false);
+      return;
+    }
+    final PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolMaximumActiveConnections(2);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolMaximumCheckoutTime(20000);
+      // a waiter pinned to its carrier would hold it for the whole wait and starve the connection holders
+      ds.setPoolTimeToWait(20000);
+      final int sessions = 5000;
+      List<Future<Object>> results = new ArrayList<Future<Object>>();
+      for (int i = 0; i < sessions; i++) {
+        results.add(executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            Connection con = ds.getConnection();
+            try {
+              PreparedStatement st = con.prepareStatement("SELECT COUNT(*) FROM PRODUCT");
+              ResultSet rs = st.executeQuery();
+              rs.next();
+              rs.close();
+              st.close();
+              // parks the virtual thread while it still holds the connection
+              Thread.sleep(1);
+            } finally {
+              con.close();
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Object> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(sessions, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertTrue(ds.getPoolState().getHadToWaitCount() > 0);
+    } finally {
+      executor.shutdown();
+      ds.forceCloseAll();
+    }
+  }
+
   @Ignore("See the comments")
   @Test
   public void shouldReconnectWhenServerKilledLeakedConnection() throws Exception {
@@ -18,6 +18,9 @@ package org.apache.ibatis.mapping;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.codec.ReflectiveCodec;
+import org.apache.ibatis.cache.decorators.ExpiringCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.hamcrest.core.Is;
 import org.junit.Assert;
@@ -47,6 +50,30 @@ public class CacheBuilderTest {
     new CacheBuilder("test").implementation(InitializingFailureCache.class).build();
   }
 
+  @Test
+  public void testCodec() throws Exception {
+    Cache cache = new CacheBuilder("test").readWrite(true).codec(ReflectiveCodec.class).build();
+    SerializedCache serializedCache = unwrap(unwrap(cache));
+
+    Assert.assertTrue(serializedCache.getCodec() instanceof ReflectiveCodec);
+  }
+
+  @Test
+  public void testTimeToLive() throws Exception {
+    Cache cache = new CacheBuilder("test").readWrite(false).timeToLive(1000L).refreshAhead(0.5).build();
+    ExpiringCache expiringCache = unwrap(unwrap(unwrap(cache)));
+
+    Assert.assertThat(expiringCache.getTimeToLive(), Is.is(1000L));
+    Assert.assertThat(expiringCache.getRefreshAhead(), Is.is(0.5));
+  }
+
+  @Test
+  public void testTimeToLiveIgnoredByCustomCache() throws Exception {
+    Cache cache = new CacheBuilder("test").implementation(InitializingCache.class).timeToLive(1000L).build();
+
+    Assert.assertTrue(unwrap(cache) instanceof InitializingCache);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache){
     Field field;
@@ -0,0 +1,129 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.domain.blog.Tag;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.UnknownTypeHandler;
+import org.junit.Test;
+
+public class ParameterBindingPlanTest {
+
+  private final Configuration configuration = new Configuration();
+
+  private List<ParameterMapping> mappings(String... properties) {
+    List<ParameterMapping> mappings = new ArrayList<ParameterMapping>();
+    for (String property : properties) {
+      mappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+    }
+    return mappings;
+  }
+
+  private void assertSameValuesAsMetaObject(Object parameterObject, String... properties) {
+    ParameterBindingPlan plan = new ParameterBindingPlan(configuration, parameterObject.getClass(), mappings(properties));
+    MetaObject metaObject = configuration.newMetaObject(parameterObject);
+    for (int i = 0; i < properties.length; i++) {
+      assertEquals(properties[i], metaObject.getValue(properties[i]), plan.getValue(i, parameterObject));
+    }
+  }
+
+  @Test
+  public void shouldReadBeanProperties() {
+    Post post = new Post();
+    post.setId(3);
+    post.setSubject("subject");
+    post.setAuthor(new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS));
+    Tag tag = new Tag();
+    tag.setName("funny");
+    post.setTags(Arrays.asList(tag));
+    assertSameValuesAsMetaObject(post, "id", "subject", "body", "author.username", "author.favouriteSection", "tags[0].name", "blog.title");
+  }
+
+  @Test
+  public void shouldReadMapEntries() {
+    Map<String, Object> parameter = new HashMap<String, Object>();
+    parameter.put("id", 1);
+    parameter.put("author", new Author(101));
+    parameter.put("names", new String[] { "a", "b" });
+    assertSameValuesAsMetaObject(parameter, "id", "missing", "author.id", "names[1]");
+  }
+
+  @Test
+  public void shouldUseParameterWithTypeHandler() {
+    ParameterBindingPlan plan = new ParameterBindingPlan(configuration, String.class, mappings("anything"));
+    assertEquals("value", plan.getValue(0, "value"));
+  }
+
+  @Test
+  public void shouldFailForUnknownPropertyLikeMetaObject() {
+    ParameterBindingPlan plan = new ParameterBindingPlan(configuration, Post.class, mappings("unknown"));
+    try {
+      plan.getValue(0, new Post());
+      fail();
+    } catch (ReflectionException e) {
+      assertTrue(e.getMessage().contains("unknown"));
+    }
+  }
+
+  @Test
+  public void shouldResolveUnknownTypeHandlerByValueType() {
+    List<ParameterMapping> mappings = mappings("value");
+    ParameterBindingPlan plan = new ParameterBindingPlan(configuration, HashMap.class, mappings);
+    assertSame(UnknownTypeHandler.class, mappings.get(0).getTypeHandler().getClass());
+    assertSame(IntegerTypeHandler.class, plan.getTypeHandler(0, 1).getClass());
+    assertSame(StringTypeHandler.class, plan.getTypeHandler(0, "a").getClass());
+    assertSame(ObjectTypeHandler.class, plan.getTypeHandler(0, new Object()).getClass());
+  }
+
+  @Test
+  public void shouldOnlyPlanStaticParameterMappings() {
+    List<ParameterMapping> mappings = mappings("id");
+    MappedStatement ms = new MappedStatement.Builder(configuration, "select",
+        new StaticSqlSource(configuration, "select * from post where id = ?", mappings), SqlCommandType.SELECT).build();
+    ParameterBindingPlan plan = ms.getParameterBindingPlan(Post.class, mappings);
+    assertNotNull(plan);
+    assertSame(plan, ms.getParameterBindingPlan(Post.class, mappings));
+    assertNotNull(ms.getParameterBindingPlan(Author.class, mappings));
+
+    assertNull(ms.getParameterBindingPlan(Post.class, mappings("id")));
+    assertNull(ms.getParameterBindingPlan(Post.class, mappings));
+    assertNull(ms.getParameterBindingPlan(Post.class, Collections.<ParameterMapping>emptyList()));
+  }
+
+}
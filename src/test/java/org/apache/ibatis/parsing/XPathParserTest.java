@@ -16,11 +16,19 @@
 package org.apache.ibatis.parsing;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import java.io.InputStream;
+import java.util.List;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
 
 import org.apache.ibatis.io.Resources;
 import org.junit.Test;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
 public class XPathParserTest {
 
@@ -43,4 +51,35 @@ public class XPathParserTest {
     assertEquals("employee[${id_var}]_height", node.getValueBasedIdentifier());
   }
 
+  @Test
+  public void shouldEvaluateElementPathsLikeXPath() throws Exception {
+    String xml = "<mapper namespace=\"blog\">"
+        + "<resultMap id=\"a\"/><sql id=\"s\"/><select id=\"one\"><selectKey/></select>"
+        + "<insert id=\"two\"><selectKey/></insert><resultMap id=\"b\"/><delete id=\"three\"/>"
+        + "</mapper>";
+    XPathParser parser = new XPathParser(xml);
+    XNode mapper = parser.evalNode("/mapper");
+    assertEquals("blog", mapper.getStringAttribute("namespace"));
+
+    assertSameNodes(parser, "/mapper/resultMap", parser.evalNodes("/mapper/resultMap"));
+    assertSameNodes(parser, "select|insert|update|delete", mapper.evalNodes("select|insert|update|delete"));
+    assertEquals(3, mapper.evalNodes("select|insert|update|delete").size());
+    assertEquals(2, parser.evalNodes("/mapper/*/selectKey").size());
+    assertEquals("sql", mapper.evalNode("sql").getName());
+    assertNull(mapper.evalNode("cache-ref"));
+    assertEquals(0, mapper.evalNodes("parameterMap").size());
+    // absolute paths start from the document whatever the context node
+    assertEquals("a", mapper.evalNode("/mapper/resultMap").getStringAttribute("id"));
+  }
+
+  private void assertSameNodes(XPathParser parser, String expression, List<XNode> nodes) throws Exception {
+    Node mapper = parser.evalNode("/mapper").getNode();
+    Object root = expression.startsWith("/") ? mapper.getOwnerDocument() : mapper;
+    NodeList expected = (NodeList) XPathFactory.newInstance().newXPath().evaluate(expression, root, XPathConstants.NODESET);
+    assertEquals(expected.getLength(), nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      assertSame(expected.item(i), nodes.get(i).getNode());
+    }
+  }
+
 }
@@ -17,6 +17,8 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -39,6 +41,68 @@ public class PluginTest {
     assertFalse("Always".equals(map.toString()));
   }
 
+  @Test
+  public void shouldReuseProxyClassForSameTargetClass() {
+    Map first = (Map) new AlwaysMapPlugin().plugin(new HashMap());
+    Map second = (Map) new AlwaysMapPlugin().plugin(new HashMap());
+    assertSame(first.getClass(), second.getClass());
+    assertEquals("Always", second.get("Anything"));
+  }
+
+  @Test
+  public void shouldStackPlugins() {
+    Map map = new HashMap();
+    map.put("key", "value");
+    map = (Map) new AlwaysMapPlugin().plugin(map);
+    map = (Map) new SizePlugin().plugin(map);
+    assertEquals(-1, map.size());
+    assertEquals("Always", map.get("key"));
+    assertTrue(map.containsKey("key"));
+  }
+
+  @Test
+  public void shouldNotWrapUninterceptedTypes() {
+    Object target = new Object();
+    assertSame(target, new AlwaysMapPlugin().plugin(target));
+  }
+
+  @Test(expected = PluginException.class)
+  public void shouldFailWithoutIntercepts() {
+    Plugin.wrap(new HashMap(), new Interceptor() {
+      @Override
+      public Object intercept(Invocation invocation) throws Throwable {
+        return null;
+      }
+
+      @Override
+      public Object plugin(Object target) {
+        return target;
+      }
+
+      @Override
+      public void setProperties(Properties properties) {
+      }
+    });
+  }
+
+  @Intercepts({
+      @Signature(type = Map.class, method = "size", args = {})})
+  public static class SizePlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return -1;
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
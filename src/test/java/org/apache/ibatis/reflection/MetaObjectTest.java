@@ -18,8 +18,11 @@ package org.apache.ibatis.reflection;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -32,6 +35,7 @@ import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.domain.misc.CustomBeanWrapper;
 import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
 import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
 import org.junit.Test;
 
 public class MetaObjectTest {
@@ -164,6 +168,57 @@ public class MetaObjectTest {
     assertEquals(null, richWithNull.getValue("richType.richProperty"));
   }
 
+  @Test
+  public void shouldGetAndSetDeeplyNestedBeanProperties() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    meta.setValue("richType.richType.richType.richProperty", "foo");
+    meta.setValue("richType.richType.richMap.key", "bar");
+    meta.setValue("richType.richType.richList[0]", "baz");
+    assertEquals("foo", rich.getRichType().getRichType().getRichType().getRichProperty());
+    assertEquals("foo", meta.getValue("richType.richType.richType.richProperty"));
+    assertEquals("bar", meta.getValue("richType.richType.richMap.key"));
+    assertEquals("baz", meta.getValue("richType.richType.richList[0]"));
+    assertNull(meta.getValue("richType.richType.richType.richType.richProperty"));
+  }
+
+  @Test
+  public void shouldReportMissingNestedPropertyLikeBeanWrapper() {
+    RichType rich = new RichType();
+    rich.setRichType(new RichType());
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    try {
+      meta.getValue("richType.unknown");
+      fail();
+    } catch (ReflectionException e) {
+      assertTrue(e.getMessage().contains("There is no getter for property named 'unknown'"));
+    }
+    try {
+      meta.setValue("richType.unknown", "foo");
+      fail();
+    } catch (ReflectionException e) {
+      assertTrue(e.getMessage().contains("Could not set property 'unknown'"));
+    }
+  }
+
+  @Test
+  public void shouldShareParsedPropertyPaths() {
+    PropertyTokenizer prop = PropertyTokenizer.forPath("richType.richList[0].name");
+    assertSame(prop, PropertyTokenizer.forPath("richType.richList[0].name"));
+    assertSame(prop.next(), prop.next());
+    assertEquals("richList", prop.next().getName());
+    assertEquals("0", prop.next().getIndex());
+    assertEquals("name", prop.next().getChildren());
+  }
+
+  @Test
+  public void shouldNotShareForEachItemPaths() {
+    PropertyTokenizer prop = PropertyTokenizer.forPath("__frch_item_0.name");
+    assertEquals("__frch_item_0", prop.getName());
+    assertEquals("name", prop.getChildren());
+    assertNotSame(prop, PropertyTokenizer.forPath("__frch_item_0.name"));
+  }
+
   @Test
   public void shouldGetPropertyOfNullNestedProperty() {
     MetaObject richWithNull = SystemMetaObject.forObject(new RichType());
@@ -0,0 +1,103 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+public class ParamNameResolverTest {
+
+  interface Mapper {
+    void named(@Param("id") int id, RowBounds rowBounds, @Param("name") String name);
+
+    void conflicting(@Param("param2") int first, @Param("other") int second);
+
+    void single(String value);
+  }
+
+  private static Object namedParams(String methodName, Object... args) {
+    for (Method method : Mapper.class.getMethods()) {
+      if (method.getName().equals(methodName)) {
+        return new ParamNameResolver(new Configuration(), method).getNamedParams(args);
+      }
+    }
+    throw new IllegalArgumentException(methodName);
+  }
+
+  private static Map<String, Object> map(Object... keysAndValues) {
+    Map<String, Object> map = new HashMap<String, Object>();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return map;
+  }
+
+  @Test
+  public void shouldNameParametersAndSkipSpecialOnes() {
+    Object params = namedParams("named", 1, RowBounds.DEFAULT, "jim");
+    assertEquals(map("id", 1, "param1", 1, "name", "jim", "param2", "jim"), params);
+    assertEquals(4, ((Map<?, ?>) params).size());
+  }
+
+  @Test
+  public void shouldNotOverwriteParamNamedLikeGenericName() {
+    assertEquals(map("param2", 1, "param1", 1, "other", 2), namedParams("conflicting", 1, 2));
+  }
+
+  @Test
+  public void shouldReturnSingleParameterUnwrapped() {
+    assertEquals("value", namedParams("single", "value"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void shouldBehaveLikeHashMapWhenModified() {
+    Map<String, Object> params = (Map<String, Object>) namedParams("named", 1, null, "jim");
+    assertTrue(params.containsKey("name"));
+    assertFalse(params.containsKey("missing"));
+    assertEquals("default", params.getOrDefault("missing", "default"));
+
+    params.put("extra", 3);
+    assertEquals(3, params.get("extra"));
+    assertEquals(5, params.size());
+
+    params.put("id", 2);
+    assertEquals(2, params.get("id"));
+    assertEquals(1, params.get("param1"));
+    params.remove("param2");
+    assertEquals(map("id", 2, "param1", 1, "name", "jim", "extra", 3), params);
+
+    try {
+      params.get("param2");
+      fail();
+    } catch (BindingException e) {
+      assertTrue(e.getMessage().contains("Parameter 'param2' not found"));
+    }
+  }
+
+}
@@ -15,16 +15,23 @@
  */
 package org.apache.ibatis.scripting.defaults;
 
+import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 
+import org.apache.ibatis.binding.MapperMethod.ParamKeys;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
@@ -71,6 +78,51 @@ public class DefaultParameterHandlerTest {
 
   }
 
+  @Test
+  public void setParametersFromParamMap() throws SQLException {
+    final MappedStatement mappedStatement = getMappedStatement();
+    final Configuration config = mappedStatement.getConfiguration();
+    LinkedHashMap<String, Integer> keys = new LinkedHashMap<String, Integer>();
+    keys.put("id", 0);
+    keys.put("param1", 0);
+    keys.put("author", 1);
+    keys.put("param2", 1);
+    HashMap<String, Object> author = new HashMap<String, Object>();
+    author.put("name", "jim");
+    Object parameterObject = new ParamMap<Object>(new ParamKeys(keys), new Object[] { 7, author });
+
+    final List<Object> values = new ArrayList<Object>();
+    TypeHandler<Object> typeHandler = new BaseTypeHandler<Object>() {
+      @Override
+      public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) {
+        values.add(parameter);
+      }
+
+      @Override
+      public Object getNullableResult(ResultSet rs, String columnName) {
+        return null;
+      }
+
+      @Override
+      public Object getNullableResult(ResultSet rs, int columnIndex) {
+        return null;
+      }
+
+      @Override
+      public Object getNullableResult(CallableStatement cs, int columnIndex) {
+        return null;
+      }
+    };
+    List<ParameterMapping> parameterMappings = Arrays.asList(
+        new ParameterMapping.Builder(config, "id", typeHandler).build(),
+        new ParameterMapping.Builder(config, "author.name", typeHandler).build(),
+        new ParameterMapping.Builder(config, "param1", typeHandler).build());
+    BoundSql boundSql = new BoundSql(config, "some select statement", parameterMappings, parameterObject);
+
+    new DefaultParameterHandler(mappedStatement, parameterObject, boundSql).setParameters(null);
+    Assert.assertEquals(Arrays.<Object>asList(7, "jim", 7), values);
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,104 @@
+/**
+ *    Copyright ${license.git.copyrightYears} the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A session answered entirely from the caches must never check a connection out of the pool.
+ */
+public class CachedReadConnectionTest {
+
+  private PooledDataSource dataSource;
+  private Configuration configuration;
+  private MappedStatement ms;
+
+  @Before
+  public void setUp() throws Exception {
+    // the driver is never loaded as long as no connection is requested
+    dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:cached_read", "sa", "");
+    configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    Cache cache = new PerpetualCache("author");
+    configuration.addCache(cache);
+    ResultMap resultMap = new ResultMap.Builder(configuration, "author.names", String.class,
+        new ArrayList<ResultMapping>()).build();
+    ms = new MappedStatement.Builder(configuration, "author.selectNames",
+        new StaticSqlSource(configuration, "select username from author"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap))
+        .cache(cache)
+        .useCache(true)
+        .build();
+    configuration.addMappedStatement(ms);
+
+    // warm the second level cache as a previous session would have
+    Executor executor = configuration.newExecutor(new JdbcTransaction(dataSource, null, false));
+    BoundSql boundSql = ms.getBoundSql(null);
+    CacheKey key = executor.createCacheKey(ms, null, RowBounds.DEFAULT, boundSql);
+    cache.putObject(key, new ArrayList<Object>(Collections.singletonList("jim")));
+  }
+
+  @Test
+  public void shouldServeSecondLevelCacheHitsWithoutConnection() {
+    SqlSession session = new DefaultSqlSessionFactory(configuration).openSession();
+    try {
+      List<String> names = session.selectList("author.selectNames");
+      assertEquals(Collections.singletonList("jim"), names);
+      assertEquals(names, session.selectList("author.selectNames"));
+      session.commit();
+      session.rollback();
+    } finally {
+      session.close();
+    }
+    assertEquals(0, dataSource.getPoolState().getRequestCount());
+  }
+
+  @Test
+  public void shouldServeCachedReadsWithoutConnectionForEveryExecutorType() {
+    for (ExecutorType type : ExecutorType.values()) {
+      SqlSession session = new DefaultSqlSessionFactory(configuration).openSession(type, true);
+      try {
+        assertEquals(Collections.singletonList("jim"), session.selectList("author.selectNames"));
+        session.flushStatements();
+      } finally {
+        session.close();
+      }
+    }
+    assertEquals(0, dataSource.getPoolState().getRequestCount());
+  }
+
+}